@@ -0,0 +1,177 @@
+package edu.thepower.u1programacion.multiproceso;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL
+// ----------------------------------------------------------------
+// "Bomba" que vacía stdout y stderr de procesos hijo A LA VEZ.
+//
+// Problema: si el padre lee stdout con un BufferedReader en su hilo y
+// el hijo escribe mucho por stderr, la tubería de stderr (unos 64 KB)
+// se llena, el hijo se bloquea al escribir y nunca cierra stdout: el
+// padre y el hijo se esperan mutuamente (interbloqueo).
+//
+// La bomba:
+//  - Lee cada flujo en su propio hilo VIRTUAL (cientos de hijos no
+//    cuestan cientos de hilos del sistema operativo).
+//  - Trocea lo leído en líneas y guarda solo las últimas N en un
+//    buffer circular (UltimasLineas): memoria constante por hijo,
+//    escriba lo que escriba.
+//  - Opcionalmente copia los bytes tal cual a un fichero (tee), para
+//    no perder nada de lo que se descarta del buffer.
+//
+// Memoria por flujo: buffer de lectura + una línea de MAX_LINEA bytes
+// + N líneas de como mucho MAX_LINEA bytes.
+// ───────────────────────────────────────────────────────────────
+class BombaFlujos implements AutoCloseable {
+
+    private static final int TAM_LECTURA = 8 * 1024;
+
+    // Las líneas más largas se recortan (y se marcan con "…").
+    static final int MAX_LINEA = 4 * 1024;
+
+    private final ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: BUFFER CIRCULAR DE LÍNEAS (tail -N)
+       ----------------------------------------------------------------
+       - Array de capacidad fija; 'siguiente' indica dónde se escribe la
+         próxima línea, sobrescribiendo la más antigua cuando está lleno.
+       - total cuenta TODAS las líneas vistas, no solo las retenidas.
+       ───────────────────────────────────────────────────────────── */
+    static class UltimasLineas {
+        private final String[] lineas;
+        private int siguiente = 0;
+        private int ocupadas = 0;
+        private long total = 0;
+
+        UltimasLineas(int capacidad) {
+            if (capacidad < 1)
+                throw new IllegalArgumentException("La capacidad debe ser al menos 1");
+            this.lineas = new String[capacidad];
+        }
+
+        synchronized void anadir(String linea) {
+            lineas[siguiente] = linea;
+            siguiente = (siguiente + 1) % lineas.length;
+            if (ocupadas < lineas.length) ocupadas++;
+            total++;
+        }
+
+        // Copia de las líneas retenidas, de la más antigua a la más reciente.
+        synchronized List<String> ultimas() {
+            List<String> copia = new ArrayList<>(ocupadas);
+            int primera = (siguiente - ocupadas + lineas.length) % lineas.length;
+            for (int i = 0; i < ocupadas; i++)
+                copia.add(lineas[(primera + i) % lineas.length]);
+            return copia;
+        }
+
+        synchronized long total() {
+            return total;
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: BOMBEO DE UN PROCESO
+       ----------------------------------------------------------------
+       - salida / error: últimas líneas de cada flujo.
+       - terminado: se completa cuando ambos flujos llegan a fin de
+         fichero (el hijo ha cerrado sus extremos de las tuberías).
+       ───────────────────────────────────────────────────────────── */
+    record Bombeo(Process proceso, UltimasLineas salida, UltimasLineas error, CompletableFuture<Void> terminado) {}
+
+    // Sin tee: solo se retienen las últimas 'retener' líneas de cada flujo.
+    Bombeo bombear(Process p, int retener) {
+        return bombear(p, retener, null, null);
+    }
+
+    // teeSalida / teeError pueden ser null (sin copia a fichero).
+    Bombeo bombear(Process p, int retener, Path teeSalida, Path teeError) {
+        UltimasLineas salida = new UltimasLineas(retener);
+        UltimasLineas error = new UltimasLineas(retener);
+
+        CompletableFuture<Void> fSalida = CompletableFuture.runAsync(() -> vaciar(p.getInputStream(), salida, teeSalida), hilos);
+        CompletableFuture<Void> fError = CompletableFuture.runAsync(() -> vaciar(p.getErrorStream(), error, teeError), hilos);
+
+        return new Bombeo(p, salida, error, CompletableFuture.allOf(fSalida, fError));
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 3: VACIADO DE UN FLUJO Y TROCEADO EN LÍNEAS
+       ----------------------------------------------------------------
+       - Se lee por bloques de TAM_LECTURA bytes (nunca readLine(), que
+         reserva tanta memoria como mida la línea).
+       - Los bytes de la línea en curso se acumulan en un array fijo de
+         MAX_LINEA; lo que no cabe se descarta y la línea se marca como
+         recortada.
+       - '\n' cierra la línea; un '\r' justo antes se elimina (Windows).
+       - Al llegar a fin de fichero se emite la última línea si no acaba
+         en '\n'.
+       ───────────────────────────────────────────────────────────── */
+    private static void vaciar(InputStream in, UltimasLineas destino, Path tee) {
+        byte[] bloque = new byte[TAM_LECTURA];
+        byte[] linea = new byte[MAX_LINEA];
+        int largo = 0;
+        boolean recortada = false;
+
+        try (in; OutputStream copia = tee == null ? null : new BufferedOutputStream(Files.newOutputStream(tee))) {
+            int leidos;
+            while ((leidos = in.read(bloque)) != -1) {
+                if (copia != null) copia.write(bloque, 0, leidos);
+
+                for (int i = 0; i < leidos; i++) {
+                    byte b = bloque[i];
+                    if (b == '\n') {
+                        destino.anadir(texto(linea, largo, recortada));
+                        largo = 0;
+                        recortada = false;
+                    } else if (largo < MAX_LINEA) {
+                        linea[largo++] = b;
+                    } else {
+                        recortada = true;
+                    }
+                }
+            }
+            if (largo > 0 || recortada)
+                destino.anadir(texto(linea, largo, recortada));
+
+        } catch (IOException e) {
+            // El flujo se cierra si el proceso muere o se destruye: se
+            // conserva lo leído hasta ese momento.
+            destino.anadir("[bomba] flujo interrumpido: " + e.getMessage());
+        }
+    }
+
+    private static String texto(byte[] linea, int largo, boolean recortada) {
+        if (largo > 0 && linea[largo - 1] == '\r') largo--;
+        String s = new String(linea, 0, largo, StandardCharsets.UTF_8);
+        return recortada ? s + "…" : s;
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 4: CIERRE
+       ----------------------------------------------------------------
+       Espera a que terminen los bombeos en curso.
+       ───────────────────────────────────────────────────────────── */
+    @Override
+    public void close() {
+        hilos.close();
+    }
+}
@@ -0,0 +1,319 @@
+package edu.thepower.u1programacion.multiproceso;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL
+// ----------------------------------------------------------------
+// Caché PERSISTENTE de histogramas por archivo (p.ej. los conteos de
+// vocales), para que volver a analizar un archivo que no ha cambiado
+// no cueste volver a recorrerlo.
+//
+// Dos niveles de clave:
+//  1) Metadatos: (tipo, ruta absoluta, tamaño, fecha de modificación).
+//     Se comprueba con un stat del archivo, sin leerlo: un acierto aquí
+//     cuesta milisegundos aunque el archivo tenga gigas.
+//  2) Contenido: (tipo, SHA-256 del archivo). Si los metadatos no
+//     coinciden (archivo copiado, "tocado", renombrado) se calcula el
+//     hash; si ese contenido ya se analizó, se reutiliza sin contar.
+// Solo si fallan los dos se ejecuta el cálculo y se guarda el resultado.
+//
+// En disco (directorio de la caché):
+//   indice.dat           → claves de metadatos → clave de contenido,
+//                          orden LRU y contadores históricos
+//   <sha256>.<tipo>.hist → un histograma (int MAGIA, int n, long × n)
+// Los dos se escriben en un temporal y se renombran con ATOMIC_MOVE: un
+// proceso que muera a mitad de escritura no deja una entrada corrupta.
+//
+// Expulsión LRU: LinkedHashMap en orden de ACCESO con removeEldestEntry;
+// al pasar de 'capacidad' entradas se borra el histograma menos usado y
+// las claves de metadatos que apuntaban a él.
+//
+// Un acierto de metadatos no reescribe el índice: el nuevo orden LRU y
+// los contadores se guardan cada LOTE_INDICE aciertos, en el siguiente
+// fallo o en close(). Si el proceso muere antes, solo se pierde ese orden.
+//
+// Un archivo que cambia MIENTRAS se analiza (entre el stat, el hash y el
+// cálculo) daría un resultado de una versión guardado bajo la clave de
+// otra. Por eso se repite el stat al final: si no coincide, el resultado
+// se devuelve pero no se guarda.
+//
+// Limitaciones conocidas:
+//  - Si un archivo cambia sin cambiar ni tamaño ni fecha (resolución del
+//    sistema de ficheros), el nivel 1 devuelve el resultado antiguo.
+//  - Varios procesos pueden compartir el directorio: los histogramas son
+//    inmutables y por contenido, pero el índice es "gana el último que
+//    escribe" (como mucho se pierden claves de metadatos, no resultados).
+// ───────────────────────────────────────────────────────────────
+public final class CacheHistogramas implements Closeable {
+
+    // Cálculo que se ejecuta en un fallo de caché.
+    @FunctionalInterface
+    public interface Calculo {
+        long[] calcular(Path archivo) throws IOException;
+    }
+
+    private static final int MAGIA_INDICE = 0x50534349;   // "PSCI"
+    private static final int MAGIA_HISTOGRAMA = 0x50534348;   // "PSCH"
+    private static final String INDICE = "indice.dat";
+    private static final String EXTENSION = ".hist";
+    private static final int BLOQUE_HASH = 1 << 20;
+    private static final int LOTE_INDICE = 64;   // aciertos de metadatos entre escrituras del índice
+
+    private final Path directorio;
+    private final int capacidad;
+
+    // metadatos → clave de contenido
+    private final Map<String, String> porMetadatos = new HashMap<>();
+    // clave de contenido (sha256.tipo), en orden de acceso (LRU primero)
+    private final LinkedHashMap<String, Boolean> entradas;
+
+    // Contadores de esta ejecución y acumulados de ejecuciones anteriores.
+    private long aciertosMetadatos, aciertosContenido, fallos;
+    private long historicoAciertos, historicoFallos;
+    // Aciertos de metadatos que aún no se han escrito en el índice.
+    private int cambiosSinGuardar;
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: ABRIR LA CACHÉ
+       ----------------------------------------------------------------
+       - Crea el directorio si no existe y carga el índice.
+       - Un índice ilegible (versión antigua, escritura cortada) no es
+         un error: se empieza con la caché vacía.
+       ───────────────────────────────────────────────────────────── */
+    public CacheHistogramas(Path directorio, int capacidad) {
+        if (capacidad < 1) throw new IllegalArgumentException("capacidad debe ser >= 1: " + capacidad);
+        this.directorio = directorio;
+        this.capacidad = capacidad;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                if (size() <= CacheHistogramas.this.capacidad) return false;
+                expulsar(eldest.getKey());
+                return true;
+            }
+        };
+        try {
+            Files.createDirectories(directorio);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        cargarIndice();
+    }
+
+    private void cargarIndice() {
+        Path ruta = directorio.resolve(INDICE);
+        if (!Files.exists(ruta)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(ruta)))) {
+            if (in.readInt() != MAGIA_INDICE) return;
+            historicoAciertos = in.readLong();
+            historicoFallos = in.readLong();
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                String clave = in.readUTF();
+                if (Files.exists(directorio.resolve(clave + EXTENSION))) entradas.put(clave, Boolean.TRUE);
+            }
+            int m = in.readInt();
+            for (int i = 0; i < m; i++) {
+                String metadatos = in.readUTF();
+                String clave = in.readUTF();
+                if (entradas.containsKey(clave)) porMetadatos.put(metadatos, clave);
+            }
+        } catch (IOException e) {
+            System.err.println("[cache] índice ilegible, se empieza vacía: " + e.getMessage());
+            entradas.clear();
+            porMetadatos.clear();
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: CONSULTA
+       ----------------------------------------------------------------
+       obtener(archivo, tipo, calculo):
+         - 'tipo' separa histogramas distintos del mismo archivo
+           (p.ej. "vocales" frente a "caracteres").
+         - Nivel 1 (metadatos) → nivel 2 (contenido) → cálculo.
+         - Tras el hash (y el cálculo) se repite el stat: si el archivo
+           ha cambiado entretanto, el resultado no se guarda.
+       Es synchronized: dos hilos que piden el mismo archivo a la vez
+       no lo cuentan dos veces.
+       ───────────────────────────────────────────────────────────── */
+    public synchronized long[] obtener(Path archivo, String tipo, Calculo calculo) throws IOException {
+        String metadatos = claveMetadatos(archivo, tipo);
+
+        String clave = porMetadatos.get(metadatos);
+        if (clave != null) {
+            long[] h = leerHistograma(clave);
+            if (h != null) {
+                aciertosMetadatos++;
+                if (++cambiosSinGuardar >= LOTE_INDICE) guardarIndice();
+                return h;
+            }
+        }
+
+        clave = hash(archivo) + "." + tipo;
+        long[] h = entradas.containsKey(clave) ? leerHistograma(clave) : null;
+        boolean calculado = h == null;
+        if (calculado) {
+            fallos++;
+            h = calculo.calcular(archivo);
+        } else {
+            aciertosContenido++;
+        }
+
+        // Otro stat: si no coincide, el hash y el cálculo pueden ser de
+        // versiones distintas del archivo. Se devuelve sin guardar nada.
+        if (!claveMetadatos(archivo, tipo).equals(metadatos)) {
+            System.err.println("[cache] " + archivo + " cambió durante el análisis; no se guarda");
+            return h.clone();
+        }
+        if (calculado) {
+            escribirHistograma(clave, h);
+            entradas.put(clave, Boolean.TRUE);   // puede expulsar la entrada LRU
+        }
+        porMetadatos.put(metadatos, clave);
+        guardarIndice();
+        return h.clone();
+    }
+
+    private static String claveMetadatos(Path archivo, String tipo) throws IOException {
+        BasicFileAttributes a = Files.readAttributes(archivo, BasicFileAttributes.class);
+        return tipo + "|" + archivo.toAbsolutePath().normalize() + "|" + a.size()
+                + "|" + a.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+    }
+
+    // SHA-256 del contenido, leído por bloques de 1 MB con un buffer directo.
+    private static String hash(Path archivo) throws IOException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BLOQUE_HASH);
+            while (canal.read(buffer) != -1) {
+                buffer.flip();
+                md.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 3: PERSISTENCIA DE ENTRADAS E ÍNDICE
+       ───────────────────────────────────────────────────────────── */
+    private long[] leerHistograma(String clave) {
+        Path ruta = directorio.resolve(clave + EXTENSION);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(ruta)))) {
+            if (in.readInt() != MAGIA_HISTOGRAMA) return null;
+            long[] h = new long[in.readInt()];
+            for (int i = 0; i < h.length; i++) h[i] = in.readLong();
+            entradas.get(clave);   // marca el acceso para el orden LRU
+            return h;
+        } catch (IOException e) {
+            // Borrado por otro proceso o corrupto: se trata como fallo.
+            entradas.remove(clave);
+            return null;
+        }
+    }
+
+    private void escribirHistograma(String clave, long[] h) throws IOException {
+        escribirAtomico(directorio.resolve(clave + EXTENSION), out -> {
+            out.writeInt(MAGIA_HISTOGRAMA);
+            out.writeInt(h.length);
+            for (long v : h) out.writeLong(v);
+        });
+    }
+
+    private void guardarIndice() throws IOException {
+        cambiosSinGuardar = 0;
+        escribirAtomico(directorio.resolve(INDICE), out -> {
+            out.writeInt(MAGIA_INDICE);
+            out.writeLong(historicoAciertos + aciertosMetadatos + aciertosContenido);
+            out.writeLong(historicoFallos + fallos);
+            out.writeInt(entradas.size());
+            for (String clave : entradas.keySet()) out.writeUTF(clave);   // de menos a más reciente
+            out.writeInt(porMetadatos.size());
+            for (Map.Entry<String, String> e : porMetadatos.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeUTF(e.getValue());
+            }
+        });
+    }
+
+    private interface Escritura {
+        void escribir(DataOutputStream out) throws IOException;
+    }
+
+    private void escribirAtomico(Path destino, Escritura escritura) throws IOException {
+        Path temporal = Files.createTempFile(directorio, "tmp-", ".part");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal)))) {
+                escritura.escribir(out);
+            }
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    // Llamado desde removeEldestEntry: borra el histograma y las claves
+    // de metadatos que lo referencian.
+    private void expulsar(String clave) {
+        porMetadatos.values().removeIf(clave::equals);
+        try {
+            Files.deleteIfExists(directorio.resolve(clave + EXTENSION));
+        } catch (IOException e) {
+            System.err.println("[cache] no se pudo borrar " + clave + ": " + e.getMessage());
+        }
+    }
+
+
+    // Escribe el índice si quedan aciertos de metadatos sin guardar.
+    @Override
+    public synchronized void close() throws IOException {
+        if (cambiosSinGuardar > 0) guardarIndice();
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 4: ESTADÍSTICAS
+       ───────────────────────────────────────────────────────────── */
+    public synchronized long aciertos() {
+        return aciertosMetadatos + aciertosContenido;
+    }
+
+    public synchronized long fallos() {
+        return fallos;
+    }
+
+    public synchronized int entradas() {
+        return entradas.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        long consultas = aciertos() + fallos;
+        long historico = historicoAciertos + historicoFallos + consultas;
+        return String.format("cache %s: %d/%d entradas | esta ejecución: %d aciertos (%d metadatos, %d contenido), "
+                        + "%d fallos | histórico: %.1f%% de aciertos en %d consultas",
+                directorio, entradas.size(), capacidad, aciertos(), aciertosMetadatos, aciertosContenido, fallos,
+                historico == 0 ? 0.0 : 100.0 * (historicoAciertos + aciertos()) / historico, historico);
+    }
+}
@@ -0,0 +1,246 @@
+package edu.thepower.u1programacion.multiproceso;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL
+// ----------------------------------------------------------------
+// Canal de CONTROL entre el padre y un proceso trabajador de larga
+// duración, sobre un socket de dominio Unix (UnixDomainSocketAddress).
+//
+// Frente a las alternativas:
+//  - Relanzar el proceso por trabajo cuesta un arranque de JVM.
+//  - TCP por loopback pasa por toda la pila de red.
+//  - stdin/stdout (modo --worker) mezcla el protocolo con cualquier
+//    cosa que el hijo imprima y solo admite texto.
+// Un socket Unix es un fichero del sistema: local, sin puertos, y el
+// hijo conserva stdout/stderr para sus mensajes.
+//
+// Arranque:
+//  1) El padre abre un ServerSocketChannel en un fichero temporal.
+//  2) Lanza el hijo con "--control <ruta>" y espera a que se conecte.
+//  3) Borra el fichero: la conexión ya establecida sigue funcionando.
+//
+// Protocolo (DataOutputStream, big-endian):
+//   padre → hijo:  byte TRABAJO, int id, UTF petición
+//                  byte APAGAR,  int id
+//   hijo → padre:  int id, byte OK,    trama (CanalResultados)
+//                  int id, byte FALLO, UTF mensaje
+//
+// Los trabajos se pueden encadenar sin esperar respuesta (pipelining):
+// cada envío devuelve un CompletableFuture que se completa cuando llega
+// la respuesta con su id. APAGAR se responde con una trama vacía y el
+// hijo termina después de atender todo lo anterior (apagado ordenado).
+// ───────────────────────────────────────────────────────────────
+class CanalControl implements AutoCloseable {
+
+    static final String MODO_CONTROL = "--control";
+
+    private static final byte TRABAJO = 1;
+    private static final byte APAGAR = 2;
+    private static final byte OK = 0;
+    private static final byte FALLO = 1;
+
+    // Tiempo máximo para que el hijo arranque y se conecte.
+    private static final long ESPERA_CONEXION_MS = 30_000;
+
+    private final Process proceso;
+    private final SocketChannel canal;
+    private final DataOutputStream salida;
+    private final DataInputStream entrada;
+    private final Map<Integer, CompletableFuture<CanalResultados.Trama>> pendientes = new ConcurrentHashMap<>();
+    private final AtomicInteger siguienteId = new AtomicInteger();
+    private final Thread lector;
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: LADO PADRE – ARRANCAR UN TRABAJADOR
+       ----------------------------------------------------------------
+       - accept() se hace en modo no bloqueante y sondeando, para no
+         quedarse esperando para siempre si el hijo muere al arrancar.
+       - Un hilo virtual lee las respuestas y completa los futuros.
+       ───────────────────────────────────────────────────────────── */
+    static CanalControl arrancar(String clase) throws IOException {
+        Path ruta = Files.createTempFile("psp-", ".sock");
+        Files.delete(ruta);   // bind() necesita que el fichero no exista
+
+        try (ServerSocketChannel servidor = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            servidor.bind(UnixDomainSocketAddress.of(ruta));
+            servidor.configureBlocking(false);
+
+            ProcessBuilder pb = new ProcessBuilder(SupervisorProcesos.comandoJava(clase, MODO_CONTROL, ruta.toString()));
+            pb.inheritIO();
+            Process p = pb.start();
+
+            long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ESPERA_CONEXION_MS);
+            SocketChannel canal;
+            while ((canal = servidor.accept()) == null) {
+                if (!p.isAlive() || System.nanoTime() > limite) {
+                    p.destroyForcibly();
+                    throw new IOException("El trabajador " + p.pid() + " no se conectó a " + ruta);
+                }
+                Thread.onSpinWait();
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    p.destroyForcibly();
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+            canal.configureBlocking(true);
+            return new CanalControl(p, canal);
+        } finally {
+            Files.deleteIfExists(ruta);
+        }
+    }
+
+    private CanalControl(Process proceso, SocketChannel canal) {
+        this.proceso = proceso;
+        this.canal = canal;
+        this.salida = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(canal)));
+        this.entrada = new DataInputStream(new BufferedInputStream(Channels.newInputStream(canal)));
+        this.lector = Thread.ofVirtual().name("control-" + proceso.pid()).start(this::leerRespuestas);
+    }
+
+    private void leerRespuestas() {
+        try {
+            while (true) {
+                int id = entrada.readInt();
+                byte estado = entrada.readByte();
+                CompletableFuture<CanalResultados.Trama> f = pendientes.remove(id);
+                if (estado == OK) {
+                    CanalResultados.Trama trama = CanalResultados.leer(entrada);
+                    if (f != null) f.complete(trama);
+                } else {
+                    String mensaje = entrada.readUTF();
+                    if (f != null) f.completeExceptionally(new IllegalStateException(mensaje));
+                }
+            }
+        } catch (IOException e) {
+            // Canal cerrado: ninguna respuesta pendiente va a llegar ya.
+            IOException cerrado = new EOFException("Canal de control cerrado (trabajador " + proceso.pid() + ")");
+            pendientes.values().forEach(f -> f.completeExceptionally(cerrado));
+            pendientes.clear();
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: LADO PADRE – ENVIAR TRABAJOS Y APAGAR
+       ───────────────────────────────────────────────────────────── */
+    CompletableFuture<CanalResultados.Trama> enviar(String peticion) {
+        return enviar(TRABAJO, peticion);
+    }
+
+    private CompletableFuture<CanalResultados.Trama> enviar(byte tipo, String peticion) {
+        int id = siguienteId.getAndIncrement();
+        CompletableFuture<CanalResultados.Trama> f = new CompletableFuture<>();
+        pendientes.put(id, f);
+        try {
+            synchronized (salida) {
+                salida.writeByte(tipo);
+                salida.writeInt(id);
+                if (tipo == TRABAJO) salida.writeUTF(peticion);
+                salida.flush();
+            }
+        } catch (IOException e) {
+            pendientes.remove(id);
+            f.completeExceptionally(e);
+        }
+        return f;
+    }
+
+    // Número de trabajos enviados cuya respuesta aún no ha llegado.
+    int pendientes() {
+        return pendientes.size();
+    }
+
+    long pid() {
+        return proceso.pid();
+    }
+
+    // Apagado ordenado: el hijo acaba lo pendiente, confirma y termina.
+    // Si no lo hace en 'espera', se le mata.
+    void apagar(Duration espera) {
+        try {
+            enviar(APAGAR, null).get(espera.toMillis(), TimeUnit.MILLISECONDS);
+            if (!proceso.waitFor(espera.toMillis(), TimeUnit.MILLISECONDS))
+                proceso.destroyForcibly();
+        } catch (InterruptedException e) {
+            proceso.destroyForcibly();
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            proceso.destroyForcibly();
+        } finally {
+            try {
+                canal.close();
+                lector.join();
+            } catch (IOException | InterruptedException e) {
+                proceso.destroyForcibly();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        apagar(Duration.ofSeconds(5));
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 3: LADO HIJO – ATENDER PETICIONES
+       ----------------------------------------------------------------
+       - Se conecta al socket del padre y atiende las peticiones en
+         orden con 'atender'.
+       - Una excepción en un trabajo se responde como FALLO y el
+         trabajador sigue vivo para el siguiente.
+       - Termina al recibir APAGAR o si el padre cierra el canal.
+       ───────────────────────────────────────────────────────────── */
+    static void servir(String ruta, Function<String, CanalResultados.Trama> atender) throws IOException {
+        try (SocketChannel canal = SocketChannel.open(UnixDomainSocketAddress.of(ruta))) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(canal)));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(canal)));
+
+            while (true) {
+                byte tipo;
+                try {
+                    tipo = in.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                int id = in.readInt();
+                out.writeInt(id);
+
+                if (tipo == APAGAR) {
+                    out.writeByte(OK);
+                    CanalResultados.escribir(out, CanalResultados.TIPO_CONTROL);
+                    return;
+                }
+
+                String peticion = in.readUTF();
+                try {
+                    CanalResultados.Trama t = atender.apply(peticion);
+                    out.writeByte(OK);
+                    CanalResultados.escribir(out, t.tipo(), t.valores());
+                } catch (RuntimeException e) {
+                    out.writeByte(FALLO);
+                    out.writeUTF(String.valueOf(e.getMessage()));
+                    out.flush();
+                }
+            }
+        }
+    }
+}
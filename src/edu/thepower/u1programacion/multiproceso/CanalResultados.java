@@ -0,0 +1,129 @@
+package edu.thepower.u1programacion.multiproceso;
+
+import java.io.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL
+// ----------------------------------------------------------------
+// Protocolo binario con el que un proceso hijo devuelve su resultado
+// al padre POR SU SALIDA ESTÁNDAR (la tubería que ya existe entre
+// ambos), en lugar de escribir un fichero en ./salida/ que el padre
+// tiene que volver a abrir y parsear.
+//
+// Formato de una trama (big-endian, como DataOutputStream):
+//
+//   ┌────────┬──────┬────────┬──────────────────────┐
+//   │ MAGIA  │ TIPO │   N    │ N valores            │
+//   │ int 4B │ 1 B  │ int 4B │ long 8B × N          │
+//   └────────┴──────┴────────┴──────────────────────┘
+//
+//  - MAGIA: 0x50535031 ("PSP1"). Si el hijo imprime cualquier otra cosa
+//    por stdout, el padre lo detecta en lugar de leer basura.
+//  - TIPO: qué contiene la trama (constantes TIPO_*).
+//  - N y los valores: el resultado propiamente dicho.
+//
+// Lo usan U1P04ContadorVocal y U1P03Sumador (lado hijo, con la opción
+// --binario) y U1P04EjecutarContadorVocal / U1P03ExecSumador (lado padre),
+// además de las tareas de MapReduce.
+// ───────────────────────────────────────────────────────────────
+class CanalResultados {
+
+    // Opción de línea de comandos que activa la salida binaria en los hijos.
+    static final String MODO_BINARIO = "--binario";
+
+    static final int MAGIA = 0x50535031;
+
+    // Conteo de una sola vocal: [conteo]
+    static final byte TIPO_CONTEO = 1;
+
+    // Conteo de las 5 vocales, en el orden de U1P04ContadorVocal.ORDEN.
+    static final byte TIPO_VOCALES = 2;
+
+    // Resultado del sumador: [num1, num2, suma]
+    static final byte TIPO_SUMA = 3;
+
+    // Estadísticas de una tarea de MapReduce (map: [líneas, volcados]; reduce: [claves]).
+    static final byte TIPO_MAPREDUCE = 4;
+
+    // Confirmación sin valores (p.ej. del apagado en CanalControl).
+    static final byte TIPO_CONTROL = 5;
+
+    // Límite defensivo para N: una trama corrupta no debe reservar gigas.
+    private static final int MAX_VALORES = 1 << 20;
+
+    // Una trama ya leída: su tipo y sus valores.
+    record Trama(byte tipo, long[] valores) {}
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: ESCRITURA (lado hijo)
+       ----------------------------------------------------------------
+       Escribe una trama completa y hace flush: el padre no debe
+       quedarse esperando datos que siguen en un buffer del hijo.
+       ───────────────────────────────────────────────────────────── */
+    static void escribir(OutputStream destino, byte tipo, long... valores) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(destino));
+        out.writeInt(MAGIA);
+        out.writeByte(tipo);
+        out.writeInt(valores.length);
+        for (long v : valores)
+            out.writeLong(v);
+        out.flush();
+    }
+
+    // Atajo para los hijos: escribe la trama en su stdout.
+    static void escribirEnSalidaEstandar(byte tipo, long... valores) {
+        try {
+            escribir(System.out, tipo, valores);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: LECTURA (lado padre)
+       ----------------------------------------------------------------
+       - leer(): bloquea hasta tener una trama completa. Si el hijo
+         termina sin escribirla (p.ej. por una excepción), se lanza
+         EOFException en lugar de devolver un resultado vacío.
+       - leerAsincrono(): lanza la lectura en el ejecutor indicado y
+         devuelve un CompletableFuture que se completa en cuanto el hijo
+         ha escrito su resultado, sin esperar a los demás hijos.
+       ───────────────────────────────────────────────────────────── */
+    static Trama leer(InputStream origen) throws IOException {
+        return leer(new DataInputStream(new BufferedInputStream(origen)));
+    }
+
+    // Para flujos con VARIAS tramas (p.ej. CanalControl): se reutiliza el
+    // mismo DataInputStream, porque un buffer nuevo por trama se tragaría
+    // bytes de la siguiente.
+    static Trama leer(DataInputStream in) throws IOException {
+        int magia = in.readInt();
+        if (magia != MAGIA)
+            throw new StreamCorruptedException(String.format("Trama no válida (magia %08X)", magia));
+
+        byte tipo = in.readByte();
+        int n = in.readInt();
+        if (n < 0 || n > MAX_VALORES)
+            throw new StreamCorruptedException("Número de valores no válido: " + n);
+
+        long[] valores = new long[n];
+        for (int i = 0; i < n; i++)
+            valores[i] = in.readLong();
+        return new Trama(tipo, valores);
+    }
+
+    static CompletableFuture<Trama> leerAsincrono(Process proceso, Executor ejecutor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (InputStream in = proceso.getInputStream()) {
+                return leer(in);
+            } catch (IOException e) {
+                throw new CompletionException("Sin resultado del proceso " + proceso.pid(), e);
+            }
+        }, ejecutor);
+    }
+}
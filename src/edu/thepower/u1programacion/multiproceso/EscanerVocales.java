@@ -0,0 +1,268 @@
+package edu.thepower.u1programacion.multiproceso;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL
+// ----------------------------------------------------------------
+// Escáner de vocales sobre los BYTES UTF-8 de un texto, sin decodificar
+// a char ni consultar mapas por carácter.
+//
+// Cuenta, para a, e, i, o, u (en el orden de ORDEN): la minúscula, la
+// mayúscula y sus versiones con tilde (á Á é É ...). En UTF-8:
+//   - 'a' = 61, 'A' = 41 (un byte),
+//   - 'á' = C3 A1, 'Á' = C3 81 (dos bytes, siempre con líder C3).
+//
+// Dos implementaciones con el MISMO resultado:
+//
+//  - SWAR ("SIMD within a register"): procesa 8 bytes por operación
+//    dentro de un long. Como las mayúsculas y minúsculas difieren solo
+//    en el bit 0x20 (tanto 41/61 como 81/A1), y = x | 0x2020...20 las
+//    iguala, y una comparación por byte da a la vez 'a' y 'A', o A1 y 81.
+//    Una máscara de bytes C3 desplazada un byte marca qué bytes son
+//    segundo byte de una vocal con tilde.
+//
+//  - Escalar: una tabla de 256 entradas por byte, con el mismo estado
+//    "el byte anterior era C3". Se usa para las colas de menos de 8
+//    bytes y como referencia para comprobar el SWAR.
+//
+// Se eligió SWAR y no jdk.incubator.vector porque este último es un
+// módulo incubador que exige --add-modules al compilar y al ejecutar,
+// también en cada proceso hijo; SWAR usa solo Java estándar.
+//
+// main(): comprueba que ambas implementaciones coinciden y mide GB/s.
+// ───────────────────────────────────────────────────────────────
+public final class EscanerVocales {
+
+    // Orden de las vocales en los long[] de conteos.
+    public static final char[] ORDEN = {'a', 'e', 'i', 'o', 'u'};
+
+    // Segundo byte UTF-8 de la vocal con tilde en MINÚSCULA (líder C3).
+    private static final int[] SEGUNDO = new int[ORDEN.length];
+
+    private static final int LIDER = 0xC3;
+
+    private static final long UNOS = 0x0101010101010101L;
+    private static final long BAJOS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long MINUSCULA = 0x2020202020202020L;
+
+    // Tabla escalar: índice+1 de la vocal para un byte ASCII (0 = no es vocal)
+    // y para el segundo byte tras un C3.
+    private static final byte[] ASCII = new byte[256];
+    private static final byte[] TRAS_LIDER = new byte[256];
+
+    // Ventana máxima de cada proyección en memoria (un MappedByteBuffer
+    // no puede pasar de 2 GB).
+    private static final long VENTANA = 256L * 1024 * 1024;
+
+    static {
+        String conTilde = "áéíóú";
+        for (int i = 0; i < ORDEN.length; i++) {
+            char acentuada = conTilde.charAt(i);
+            byte[] min = String.valueOf(acentuada).getBytes(StandardCharsets.UTF_8);
+            byte[] may = String.valueOf(Character.toUpperCase(acentuada)).getBytes(StandardCharsets.UTF_8);
+
+            // El truco de |0x20 solo vale si mayúscula y minúscula comparten
+            // líder y sus segundos bytes difieren solo en ese bit.
+            if (min.length != 2 || may.length != 2 || (min[0] & 0xFF) != LIDER || (may[0] & 0xFF) != LIDER
+                    || ((may[1] & 0xFF) | 0x20) != (min[1] & 0xFF))
+                throw new IllegalStateException("Vocal no soportada por el escáner: " + acentuada);
+            SEGUNDO[i] = min[1] & 0xFF;
+
+            ASCII[ORDEN[i]] = (byte) (i + 1);
+            ASCII[Character.toUpperCase(ORDEN[i])] = (byte) (i + 1);
+            TRAS_LIDER[min[1] & 0xFF] = (byte) (i + 1);
+            TRAS_LIDER[may[1] & 0xFF] = (byte) (i + 1);
+        }
+    }
+
+    private EscanerVocales() {
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: PRIMITIVAS SWAR
+       ----------------------------------------------------------------
+       iguales(x, b): máscara con el bit alto (0x80) encendido en cada
+       byte de x que vale b, y apagado en los demás. Es exacta (sin
+       falsos positivos): primero se ponen a cero los bytes iguales con
+       XOR y luego se detectan los bytes cero sin acarreos entre bytes.
+       ───────────────────────────────────────────────────────────── */
+    private static long iguales(long x, int b) {
+        long t = x ^ (UNOS * b);
+        return ~(((t & BAJOS) + BAJOS) | t | BAJOS);
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: RECORRIDO SWAR DE UN BUFFER
+       ----------------------------------------------------------------
+       - Lee 8 bytes por iteración (little-endian: el byte i queda en
+         los bits 8i..8i+7, así que "el byte siguiente" es << 8).
+       - lider: máscara de bytes C3. (lider << 8) | acarreo marca los
+         bytes que siguen a un C3; el acarreo es el C3 del último byte
+         de la palabra anterior.
+       - Un byte no puede ser a la vez ASCII y segundo byte, así que se
+         puede hacer un solo bitCount por vocal.
+       - liderPendiente: el byte anterior al buffer era C3 (el buffer
+         continúa otro). Devuelve si el último byte del buffer es C3.
+       ───────────────────────────────────────────────────────────── */
+    public static boolean contar(ByteBuffer datos, long[] cuentas, boolean liderPendiente) {
+        ByteBuffer b = datos.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int pos = b.position();
+        int limite = b.limit();
+
+        long c0 = 0, c1 = 0, c2 = 0, c3 = 0, c4 = 0;
+        long acarreo = liderPendiente ? 0x80L : 0;
+
+        for (; pos + Long.BYTES <= limite; pos += Long.BYTES) {
+            long x = b.getLong(pos);
+            long y = x | MINUSCULA;
+
+            long lider = iguales(x, LIDER);
+            long tras = (lider << 8) | acarreo;
+            acarreo = lider >>> 56;
+
+            c0 += Long.bitCount(iguales(y, 'a') | (iguales(y, SEGUNDO[0]) & tras));
+            c1 += Long.bitCount(iguales(y, 'e') | (iguales(y, SEGUNDO[1]) & tras));
+            c2 += Long.bitCount(iguales(y, 'i') | (iguales(y, SEGUNDO[2]) & tras));
+            c3 += Long.bitCount(iguales(y, 'o') | (iguales(y, SEGUNDO[3]) & tras));
+            c4 += Long.bitCount(iguales(y, 'u') | (iguales(y, SEGUNDO[4]) & tras));
+        }
+
+        cuentas[0] += c0;
+        cuentas[1] += c1;
+        cuentas[2] += c2;
+        cuentas[3] += c3;
+        cuentas[4] += c4;
+
+        // Cola de menos de 8 bytes: camino escalar con el mismo estado.
+        return contarEscalar(b.position(pos), cuentas, acarreo != 0);
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 3: RECORRIDO ESCALAR (referencia)
+       ───────────────────────────────────────────────────────────── */
+    public static boolean contarEscalar(ByteBuffer datos, long[] cuentas, boolean liderPendiente) {
+        int limite = datos.limit();
+        for (int pos = datos.position(); pos < limite; pos++) {
+            int b = datos.get(pos) & 0xFF;
+            // ASCII y TRAS_LIDER no se solapan (< 0x80 y >= 0x80): igual que en SWAR,
+            // un byte ASCII cuenta aunque siga a un C3 (UTF-8 mal formado).
+            int vocal = ASCII[b] != 0 ? ASCII[b] : liderPendiente ? TRAS_LIDER[b] : 0;
+            if (vocal != 0) cuentas[vocal - 1]++;
+            liderPendiente = b == LIDER;
+        }
+        return liderPendiente;
+    }
+
+    // Atajo: conteos de un array completo.
+    public static long[] contar(byte[] datos) {
+        long[] cuentas = new long[ORDEN.length];
+        contar(ByteBuffer.wrap(datos), cuentas, false);
+        return cuentas;
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 4: RECORRIDO DE UN ARCHIVO
+       ----------------------------------------------------------------
+       Proyecta [inicio, fin) en ventanas de VENTANA bytes y arrastra de
+       una a otra el estado "el último byte era C3".
+       ───────────────────────────────────────────────────────────── */
+    public static long[] contarArchivo(Path archivo, long inicio, long fin) throws IOException {
+        long[] cuentas = new long[ORDEN.length];
+        contarArchivo(archivo, inicio, fin, cuentas, false);
+        return cuentas;
+    }
+
+    // Versión acumulativa para recorridos por partes (p.ej. lo que se ha
+    // añadido a un archivo desde la última vez): suma en 'cuentas' y
+    // devuelve si el último byte leído era C3.
+    public static boolean contarArchivo(Path archivo, long inicio, long fin, long[] cuentas, boolean liderPendiente) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            fin = Math.min(fin, canal.size());
+            for (long posicion = inicio; posicion < fin; posicion += VENTANA) {
+                MappedByteBuffer ventana = canal.map(FileChannel.MapMode.READ_ONLY, posicion, Math.min(VENTANA, fin - posicion));
+                liderPendiente = contar(ventana, cuentas, liderPendiente);
+            }
+        }
+        return liderPendiente;
+    }
+
+    public static long[] contarArchivo(Path archivo) throws IOException {
+        return contarArchivo(archivo, 0, Long.MAX_VALUE);
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 5: COMPROBACIÓN Y BENCHMARK
+       ----------------------------------------------------------------
+       - Verifica SWAR == escalar con datos aleatorios ricos en vocales,
+         C3 y cortes en posiciones arbitrarias (acarreo entre buffers).
+       - Mide GB/s de ambas sobre el archivo (cargado en memoria para no
+         medir el disco), mejor de REPETICIONES pasadas.
+       Uso: EscanerVocales [archivo=./resources/vocales.txt]
+       ───────────────────────────────────────────────────────────── */
+    private static final int REPETICIONES = 10;
+
+    private interface Recorrido {
+        boolean contar(ByteBuffer datos, long[] cuentas, boolean liderPendiente);
+    }
+
+    private static double gbPorSegundo(Recorrido r, ByteBuffer datos, long[] cuentas) {
+        long mejor = Long.MAX_VALUE;
+        for (int i = 0; i < REPETICIONES; i++) {
+            Arrays.fill(cuentas, 0);
+            long t = System.nanoTime();
+            r.contar(datos, cuentas, false);
+            mejor = Math.min(mejor, System.nanoTime() - t);
+        }
+        return datos.remaining() / (double) mejor;
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        // 1) Equivalencia con texto aleatorio (vocales, tildes, ñ) y con bytes
+        //    aleatorios (UTF-8 mal formado), cortado en posiciones arbitrarias.
+        String alfabeto = "aAeEiIoOuUáÁéÉíÍóÓúÚñÑxyz \n";
+        Random r = new Random(7);
+        StringBuilder texto = new StringBuilder();
+        while (texto.length() < 1 << 19) texto.append(alfabeto.charAt(r.nextInt(alfabeto.length())));
+        byte[] prueba = (texto + texto.toString()).getBytes(StandardCharsets.UTF_8);
+        for (int i = prueba.length / 2; i < prueba.length; i += 3) prueba[i] = (byte) r.nextInt(256);
+
+        for (int corte = 0; corte < 64; corte++) {
+            long[] swar = new long[ORDEN.length], escalar = new long[ORDEN.length];
+            boolean p = contar(ByteBuffer.wrap(prueba, 0, corte * 13 + 1).slice(), swar, false);
+            contar(ByteBuffer.wrap(prueba, corte * 13 + 1, prueba.length - corte * 13 - 1).slice(), swar, p);
+            contarEscalar(ByteBuffer.wrap(prueba), escalar, false);
+            if (!Arrays.equals(swar, escalar))
+                throw new IllegalStateException("SWAR y escalar no coinciden: " + Arrays.toString(swar) + " / " + Arrays.toString(escalar));
+        }
+        System.out.println("SWAR y escalar coinciden en 64 cortes aleatorios");
+
+        // 2) Rendimiento sobre el archivo.
+        Path archivo = Path.of(args.length > 0 ? args[0] : "./resources/vocales.txt");
+        ByteBuffer datos = ByteBuffer.wrap(Files.readAllBytes(archivo));
+        long[] cuentasSwar = new long[ORDEN.length], cuentasEscalar = new long[ORDEN.length];
+
+        double escalar = gbPorSegundo(EscanerVocales::contarEscalar, datos, cuentasEscalar);
+        double swar = gbPorSegundo(EscanerVocales::contar, datos, cuentasSwar);
+
+        System.out.printf("%s (%d MB): %s%n", archivo, datos.remaining() >> 20, Arrays.toString(cuentasSwar));
+        System.out.printf("escalar %.2f GB/s   SWAR %.2f GB/s   (x%.1f)%s%n", escalar, swar, swar / escalar,
+                Arrays.equals(cuentasSwar, cuentasEscalar) ? "" : "  ¡RESULTADOS DISTINTOS!");
+    }
+}
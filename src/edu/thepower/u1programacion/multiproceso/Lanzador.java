@@ -0,0 +1,86 @@
+package edu.thepower.u1programacion.multiproceso;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL
+// ----------------------------------------------------------------
+// Abstracción para "ejecutar el main() de una clase Java como si fuera
+// un programa aparte" con dos implementaciones intercambiables:
+//
+//  - LanzadorProceso: arranca una JVM nueva con ProcessBuilder, como
+//    hacen U1P02, U1P03 y U1P04. Aislamiento total, pero cada trabajo
+//    paga el arranque de la JVM (del orden de 100 ms).
+//
+//  - LanzadorAislado: ejecuta el main() en un hilo de un pool de la
+//    MISMA JVM, cargando la clase con un ClassLoader nuevo (estado
+//    estático propio) y capturando lo que escribe por stdout/stderr.
+//    Sin arranque de JVM, pero sin aislamiento de memoria ni de
+//    System.exit().
+//
+// Ambas devuelven el mismo Resultado, así que quien lanza no necesita
+// saber cuál se está usando. U1P07BenchmarkLanzadores compara la
+// latencia por lanzamiento de las dos.
+//
+// U1P02, U1P03 y U1P04 reciben el Lanzador con segun(args): con el
+// argumento --aislado usan LanzadorAislado; si no, LanzadorProceso.
+// ───────────────────────────────────────────────────────────────
+interface Lanzador extends AutoCloseable {
+
+    /* ─────────────────────────────────────────────────────────────
+       RESULTADO DE UN LANZAMIENTO
+       ----------------------------------------------------------------
+       - pid: el del proceso hijo, o -1 si no hubo proceso propio (aislado).
+       - codigoSalida: 0 si main() terminó bien (o el código del proceso).
+       - salida / error: bytes escritos por stdout y stderr.
+       - latencia: desde la llamada a lanzar() hasta que terminó (tiempo
+         de pared, incluida la espera de turno).
+       - cpu: tiempo de CPU del proceso hijo (ProcessHandle.Info), o
+         Duration.ZERO si no hay proceso o el sistema no lo facilita.
+       ───────────────────────────────────────────────────────────── */
+    record Resultado(long pid, int codigoSalida, byte[] salida, byte[] error, Duration latencia, Duration cpu) {
+
+        String salidaTexto() {
+            return new String(salida, StandardCharsets.UTF_8);
+        }
+
+        String errorTexto() {
+            return new String(error, StandardCharsets.UTF_8);
+        }
+
+        // Trama de CanalResultados que el trabajo escribió por stdout (--binario).
+        CanalResultados.Trama trama() throws IOException {
+            return CanalResultados.leer(new ByteArrayInputStream(salida));
+        }
+    }
+
+    // Argumento que elige LanzadorAislado en los programas que lanzan hijos.
+    String MODO_AISLADO = "--aislado";
+
+    // LanzadorAislado si args contiene --aislado; LanzadorProceso si no.
+    // Como mucho 'maxConcurrentes' trabajos en marcha a la vez.
+    static Lanzador segun(String[] args, int maxConcurrentes) {
+        return Arrays.asList(args).contains(MODO_AISLADO)
+                ? new LanzadorAislado(maxConcurrentes)
+                : new LanzadorProceso(maxConcurrentes);
+    }
+
+    // args sin --aislado, para que el resto de argumentos no cambie de posición.
+    static String[] sinModo(String[] args) {
+        return Arrays.stream(args).filter(a -> !a.equals(MODO_AISLADO)).toArray(String[]::new);
+    }
+
+    // Ejecuta clase.main(args) y completa el futuro cuando termina.
+    // Si quien lanza completa antes el futuro (orTimeout, cancel...), se
+    // detiene el trabajo: LanzadorProceso mata el árbol de procesos y
+    // LanzadorAislado interrumpe su hilo (o lo saca de la cola).
+    CompletableFuture<Resultado> lanzar(String clase, String... args);
+
+    @Override
+    void close();
+}
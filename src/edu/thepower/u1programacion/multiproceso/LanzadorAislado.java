@@ -0,0 +1,211 @@
+package edu.thepower.u1programacion.multiproceso;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL
+// ----------------------------------------------------------------
+// Lanzador que ejecuta el main() de la clase DENTRO de esta JVM:
+//
+//  - Cada trabajo carga la clase con un URLClassLoader nuevo sobre el
+//    classpath del padre, cuyo padre es el ClassLoader de plataforma.
+//    Así las clases de la aplicación se cargan de nuevo y sus campos
+//    static empiezan limpios en cada lanzamiento, como en un proceso.
+//  - El main() se ejecuta en un hilo de un pool de tamaño fijo.
+//  - System.out y System.err se sustituyen (una sola vez) por un
+//    PrintStream que "enruta por hilo": si el hilo actual (o un hilo
+//    que él haya creado) está ejecutando un trabajo, escribe en los
+//    buffers de ese trabajo; si no, en la consola original.
+//
+// Limitaciones frente a un proceso real:
+//  - System.exit() dentro del trabajo termina TODA la JVM.
+//  - No hay stdin propio: el trabajo ve el System.in del padre.
+//  - Memoria y CPU son compartidas; un trabajo que no termina ni
+//    atiende a la interrupción ocupa su hilo del pool para siempre.
+// ───────────────────────────────────────────────────────────────
+class LanzadorAislado implements Lanzador {
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: CAPTURA DE stdout/stderr POR HILO
+       ----------------------------------------------------------------
+       InheritableThreadLocal: los hilos que cree el main() del trabajo
+       heredan sus buffers y su salida también queda capturada.
+       ───────────────────────────────────────────────────────────── */
+    private record Capturas(PrintStream salida, PrintStream error) {}
+
+    private static final InheritableThreadLocal<Capturas> CAPTURA = new InheritableThreadLocal<>();
+
+    private static final PrintStream SALIDA_ORIGINAL = System.out;
+    private static final PrintStream ERROR_ORIGINAL = System.err;
+
+    static {
+        System.setOut(new PrintStream(new Enrutador(true), true));
+        System.setErr(new PrintStream(new Enrutador(false), true));
+    }
+
+    private static class Enrutador extends OutputStream {
+        private final boolean esSalida;
+
+        Enrutador(boolean esSalida) {
+            this.esSalida = esSalida;
+        }
+
+        private PrintStream destino() {
+            Capturas c = CAPTURA.get();
+            if (c == null) return esSalida ? SALIDA_ORIGINAL : ERROR_ORIGINAL;
+            return esSalida ? c.salida() : c.error();
+        }
+
+        @Override
+        public void write(int b) {
+            destino().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            destino().write(b, off, len);
+        }
+
+        @Override
+        public void flush() {
+            destino().flush();
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: CONSTRUCCIÓN
+       ───────────────────────────────────────────────────────────── */
+    private static final URL[] CLASSPATH = Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+            .map(LanzadorAislado::aUrl)
+            .toArray(URL[]::new);
+
+    private final ExecutorService pool;
+
+    // Futuros aún sin completar: al cerrar, los que queden se cancelan.
+    private final Set<CompletableFuture<Resultado>> pendientes = ConcurrentHashMap.newKeySet();
+
+    LanzadorAislado() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    LanzadorAislado(int hilos) {
+        if (hilos < 1)
+            throw new IllegalArgumentException("hilos debe ser al menos 1");
+        this.pool = Executors.newFixedThreadPool(hilos, r -> {
+            Thread t = new Thread(r, "aislado-" + r.hashCode());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static URL aUrl(String entrada) {
+        try {
+            return Path.of(entrada).toUri().toURL();
+        } catch (MalformedURLException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 3: LANZAR
+       ----------------------------------------------------------------
+       - Código de salida 0 si main() vuelve con normalidad, 1 si lanza
+         una excepción (su traza va al stderr capturado, igual que haría
+         la JVM de un proceso hijo).
+       - Los hilos que el main() deje en marcha no se esperan: es lo
+         mismo que ocurre con los hilos daemon en un proceso.
+       ───────────────────────────────────────────────────────────── */
+    @Override
+    public CompletableFuture<Resultado> lanzar(String clase, String... args) {
+        long inicio = System.nanoTime();
+        CompletableFuture<Resultado> resultado = new CompletableFuture<>();
+        pendientes.add(resultado);
+        Future<?> tarea = pool.submit(() -> {
+            try {
+                resultado.complete(ejecutar(clase, args, inicio));
+            } catch (Throwable t) {
+                resultado.completeExceptionally(t);
+            }
+        });
+        // Abandonado por quien lanzó (timeout...): fuera de la cola o interrumpido.
+        resultado.whenComplete((r, e) -> {
+            pendientes.remove(resultado);
+            if (e != null) tarea.cancel(true);
+        });
+        return resultado;
+    }
+
+    private Resultado ejecutar(String clase, String[] args, long inicio) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ByteArrayOutputStream error = new ByteArrayOutputStream();
+        PrintStream err = new PrintStream(error, true);
+        CAPTURA.set(new Capturas(new PrintStream(salida, true), err));
+
+        int codigo = 0;
+        try (URLClassLoader cargador = new URLClassLoader(CLASSPATH, ClassLoader.getPlatformClassLoader())) {
+            Class<?> c = Class.forName(clase, true, cargador);
+            MethodHandle main = MethodHandles.publicLookup()
+                    .findStatic(c, "main", MethodType.methodType(void.class, String[].class));
+            main.invoke((Object) args.clone());
+        } catch (Throwable t) {
+            codigo = 1;
+            err.print("Exception in thread \"main\" ");
+            t.printStackTrace(new PrintWriter(err, true));
+        } finally {
+            System.out.flush();
+            System.err.flush();
+            CAPTURA.remove();
+        }
+
+        return new Resultado(-1, codigo, salida.toByteArray(), error.toByteArray(),
+                Duration.ofNanos(System.nanoTime() - inicio), Duration.ZERO);
+    }
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 4: CIERRE
+       ----------------------------------------------------------------
+       Al salir del try-with-resources no debe quedar ningún trabajo
+       vivo: los encolados se cancelan (su futuro falla) y los que se
+       están ejecutando se interrumpen y se esperan un tiempo acotado.
+       Un main() que ignore la interrupción se queda en su hilo daemon:
+       se avisa, pero no se bloquea el cierre para siempre.
+       ───────────────────────────────────────────────────────────── */
+    private static final long ESPERA_CIERRE_MS = 5_000;
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+        for (CompletableFuture<Resultado> f : pendientes)
+            f.completeExceptionally(new CancellationException("LanzadorAislado cerrado"));
+        try {
+            if (!pool.awaitTermination(ESPERA_CIERRE_MS, TimeUnit.MILLISECONDS))
+                ERROR_ORIGINAL.println("[aislado] quedan trabajos que no atienden la interrupción");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package edu.thepower.u1programacion.multiproceso;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL
+// ----------------------------------------------------------------
+// Lanzador que arranca una JVM nueva por trabajo:
+//   java -cp <classpath del padre> <clase> args...
+//
+// Nada espera bloqueado al hijo: el Resultado se compone con futuros,
+//   lectura de stdout (hilo virtual) ┐
+//   lectura de stderr (hilo virtual) ├─ thenCombine → Resultado
+//   Process.onExit()                 ┘
+// stdout y stderr se leen a la vez: si se leyera uno detrás de otro, un
+// hijo que llene la tubería de stderr se quedaría bloqueado mientras el
+// padre espera en stdout.
+//
+// El tiempo de CPU se muestrea al terminar de leer stdout (el hijo ya
+// ha acabado o está acabando): una vez que el proceso se recoge, el
+// sistema operativo ya no da información sobre él.
+//
+// Con 'maxConcurrentes' hay como mucho ese número de JVMs vivas; los
+// demás trabajos esperan su turno en un hilo virtual (un semáforo), sin
+// bloquear a quien llama a lanzar(). El hueco se libera en onExit().
+// ───────────────────────────────────────────────────────────────
+class LanzadorProceso implements Lanzador {
+
+    private final ExecutorService lectores = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore huecos;
+
+    LanzadorProceso() {
+        this(Integer.MAX_VALUE);
+    }
+
+    LanzadorProceso(int maxConcurrentes) {
+        if (maxConcurrentes < 1)
+            throw new IllegalArgumentException("maxConcurrentes debe ser al menos 1");
+        this.huecos = new Semaphore(maxConcurrentes);
+    }
+
+    @Override
+    public CompletableFuture<Resultado> lanzar(String clase, String... args) {
+        long inicio = System.nanoTime();
+        List<String> comando = SupervisorProcesos.comandoJava(clase, args);
+        CompletableFuture<Resultado> resultado = new CompletableFuture<>();
+
+        // Solo la espera de turno ocupa un hilo (virtual); lo demás son futuros.
+        lectores.execute(() -> {
+            try {
+                huecos.acquire();
+            } catch (InterruptedException e) {
+                resultado.completeExceptionally(e);
+                return;
+            }
+            if (resultado.isDone()) {               // abandonado mientras esperaba turno
+                huecos.release();
+                return;
+            }
+            arrancar(comando, inicio, resultado).whenComplete((r, e) -> {
+                huecos.release();
+                if (e != null) resultado.completeExceptionally(e);
+                else resultado.complete(r);
+            });
+        });
+        return resultado;
+    }
+
+    private CompletableFuture<Resultado> arrancar(List<String> comando, long inicio,
+                                                  CompletableFuture<Resultado> resultado) {
+        Process p;
+        try {
+            p = new ProcessBuilder(comando).start();
+            p.getOutputStream().close();            // Sin stdin: el hijo ve fin de fichero
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        // Abandonado por quien lanzó (timeout...): se mata el árbol del hijo.
+        resultado.whenComplete((r, e) -> {
+            if (e != null) {
+                p.descendants().forEach(ProcessHandle::destroyForcibly);
+                p.destroyForcibly();
+            }
+        });
+
+        CompletableFuture<byte[]> salida = CompletableFuture.supplyAsync(() -> leerTodo(p.getInputStream()), lectores);
+        CompletableFuture<byte[]> error = CompletableFuture.supplyAsync(() -> leerTodo(p.getErrorStream()), lectores);
+        CompletableFuture<Duration> cpu = salida.thenApply(s -> p.info().totalCpuDuration().orElse(Duration.ZERO));
+
+        return salida.thenCombine(error, (out, err) -> new byte[][]{out, err})
+                .thenCombine(cpu, Flujos::new)
+                .thenCombine(p.onExit(), (f, proceso) -> new Resultado(proceso.pid(), proceso.exitValue(),
+                        f.salida(), f.error(), Duration.ofNanos(System.nanoTime() - inicio), f.cpu()));
+    }
+
+    private record Flujos(byte[] salida, byte[] error, Duration cpu) {
+        Flujos(byte[][] flujos, Duration cpu) {
+            this(flujos[0], flujos[1], cpu);
+        }
+    }
+
+    private static byte[] leerTodo(InputStream in) {
+        try (in) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        lectores.close();
+    }
+}
@@ -0,0 +1,459 @@
+package edu.thepower.u1programacion.multiproceso;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL
+// ----------------------------------------------------------------
+// Pequeño motor MapReduce MULTIPROCESO: generaliza lo que hace
+// U1P04EjecutarContadorVocal (repartir el archivo entre hijos y sumar)
+// para cualquier Mapeador / Reductor: vocales, palabras, n-gramas,
+// análisis de logs...
+//
+// Fases:
+//  1) DIVISIÓN: cada entrada se corta en trozos de TAM_TROZO bytes.
+//     Una línea pertenece al trozo en el que EMPIEZA, así que ninguna
+//     se parte ni se cuenta dos veces.
+//  2) MAP (un proceso hijo por trozo, como mucho uno por núcleo a la
+//     vez gracias a SupervisorProcesos):
+//       - lee su trozo línea a línea (nunca entero en memoria),
+//       - pasa cada línea al Mapeador,
+//       - COMBINA en memoria los pares de la misma clave con el Reductor,
+//       - cuando hay MAX_CLAVES_EN_MEMORIA claves, VUELCA a disco un
+//         fichero ordenado por clave para cada partición (hash % R).
+//  3) REDUCE (un proceso hijo por partición): mezcla en streaming
+//     (k-way merge) los volcados ordenados de su partición, reduce las
+//     claves iguales y escribe part-<r>.txt ("clave<TAB>valor").
+//
+// La memoria de cada hijo está acotada (MAX_CLAVES_EN_MEMORIA y como
+// mucho MAX_FUSION cursores abiertos), así que la entrada puede ser
+// mayor que la RAM.
+//
+// Ficheros en el directorio de trabajo:
+//   map-<tarea>-p<particion>-v<volcado>.bin   (se borran al final)
+//   part-<particion>.txt                       (resultado)
+//
+// Formato de un volcado (DataOutputStream): pares (UTF clave, long
+// valor) en orden creciente de clave, hasta el fin del fichero.
+//
+// Uso:
+//   java MapReduce <Mapeador> <Reductor> <dirTrabajo> <entrada>...
+// ───────────────────────────────────────────────────────────────
+public class MapReduce {
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: CONFIGURACIÓN
+       ───────────────────────────────────────────────────────────── */
+
+    // Argumentos con los que se arrancan los hijos.
+    static final String MODO_MAP = "--map";
+    static final String MODO_REDUCE = "--reduce";
+
+    // Tamaño de cada trozo de entrada (una tarea map por trozo).
+    static final long TAM_TROZO = 64L * 1024 * 1024;
+
+    // Claves distintas que el combinador mantiene antes de volcar a disco.
+    static final int MAX_CLAVES_EN_MEMORIA = 200_000;
+
+    // Descripción de un trabajo.
+    //  - opcionesJvm: para los hijos (p.ej. "-Xmx256m", "-Dngramas=2").
+    //  - particiones: número de tareas reduce (y de ficheros part-*).
+    record Trabajo(String mapeador, String reductor, List<Path> entradas, Path directorio,
+                   int particiones, int maxConcurrentes, List<String> opcionesJvm) {
+
+        Trabajo(Class<? extends Mapeador> mapeador, Class<? extends Reductor> reductor, List<Path> entradas, Path directorio) {
+            this(mapeador.getName(), reductor.getName(), entradas, directorio,
+                    Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors(), List.of());
+        }
+    }
+
+    // Estadísticas que devuelve ejecutar().
+    record Resumen(int tareasMap, long lineas, long volcados, long claves, long msMap, long msReduce) {}
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: ORQUESTACIÓN (proceso padre)
+       ----------------------------------------------------------------
+       - Si falla cualquier hijo, se lanza IllegalStateException: un
+         resultado parcial de MapReduce no sirve para nada.
+       - Cada hijo map devuelve por su trama [líneas, volcados] y cada
+         hijo reduce [claves].
+       ───────────────────────────────────────────────────────────── */
+    static Resumen ejecutar(Trabajo t) {
+        try {
+            Files.createDirectories(t.directorio());
+            borrar(t.directorio(), "{map-*.bin,part-*.txt}");
+
+            List<String[]> trozos = dividir(t.entradas());
+            long lineas = 0, volcados = 0, claves = 0;
+            long inicio = System.nanoTime();
+            long msMap;
+
+            try (SupervisorProcesos supervisor = new SupervisorProcesos(t.maxConcurrentes())) {
+
+                List<CompletableFuture<SupervisorProcesos.EjecucionHijo>> maps = new ArrayList<>();
+                for (int i = 0; i < trozos.size(); i++) {
+                    String[] trozo = trozos.get(i);
+                    maps.add(supervisor.lanzar(SupervisorProcesos.comandoJava(t.opcionesJvm(), MapReduce.class.getName(),
+                            MODO_MAP, t.mapeador(), t.reductor(), trozo[0], trozo[1], trozo[2],
+                            String.valueOf(t.particiones()), t.directorio().toString(), String.valueOf(i))));
+                }
+                for (long[] v : valores(maps, "map")) {
+                    lineas += v[0];
+                    volcados += v[1];
+                }
+                msMap = (System.nanoTime() - inicio) / 1_000_000;
+
+                List<CompletableFuture<SupervisorProcesos.EjecucionHijo>> reduces = new ArrayList<>();
+                for (int r = 0; r < t.particiones(); r++) {
+                    reduces.add(supervisor.lanzar(SupervisorProcesos.comandoJava(t.opcionesJvm(), MapReduce.class.getName(),
+                            MODO_REDUCE, t.reductor(), t.directorio().toString(), String.valueOf(r))));
+                }
+                for (long[] v : valores(reduces, "reduce"))
+                    claves += v[0];
+            }
+
+            borrar(t.directorio(), "map-*.bin");
+            return new Resumen(trozos.size(), lineas, volcados, claves, msMap,
+                    (System.nanoTime() - inicio) / 1_000_000 - msMap);
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<long[]> valores(List<CompletableFuture<SupervisorProcesos.EjecucionHijo>> hijos, String fase) {
+        List<long[]> valores = new ArrayList<>();
+        for (CompletableFuture<SupervisorProcesos.EjecucionHijo> f : hijos) {
+            SupervisorProcesos.EjecucionHijo e = f.join();
+            if (!e.correcta() || e.trama() == null)
+                throw new IllegalStateException("Falló una tarea " + fase + " (código " + e.codigoSalida() + "): " + e.error());
+            valores.add(e.trama().valores());
+        }
+        return valores;
+    }
+
+    // Trozos [archivo, inicio, fin) de TAM_TROZO bytes de cada entrada.
+    private static List<String[]> dividir(List<Path> entradas) throws IOException {
+        List<String[]> trozos = new ArrayList<>();
+        for (Path entrada : entradas) {
+            long tam = Files.size(entrada);
+            for (long inicio = 0; inicio < tam; inicio += TAM_TROZO)
+                trozos.add(new String[]{entrada.toString(), String.valueOf(inicio), String.valueOf(Math.min(tam, inicio + TAM_TROZO))});
+        }
+        return trozos;
+    }
+
+    private static void borrar(Path dir, String patron) throws IOException {
+        try (DirectoryStream<Path> ficheros = Files.newDirectoryStream(dir, patron)) {
+            for (Path f : ficheros) Files.delete(f);
+        }
+    }
+
+    // Recorre el resultado (todas las particiones) sin cargarlo en memoria.
+    static void recorrerResultado(Path dir, int particiones, BiConsumer<String, Long> accion) {
+        for (int r = 0; r < particiones; r++) {
+            try (BufferedReader in = Files.newBufferedReader(dir.resolve("part-" + r + ".txt"))) {
+                String linea;
+                while ((linea = in.readLine()) != null) {
+                    int tab = linea.lastIndexOf('\t');
+                    accion.accept(linea.substring(0, tab), Long.parseLong(linea.substring(tab + 1)));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 3: COMBINADOR CON VOLCADO A DISCO (lado hijo map)
+       ----------------------------------------------------------------
+       - Es el Emisor que recibe el Mapeador: reduce en memoria los
+         valores de la misma clave.
+       - volcar(): escribe un fichero ordenado por partición y vacía el
+         mapa. Se llama al llenarse y al terminar la tarea.
+       ───────────────────────────────────────────────────────────── */
+    private static class Combinador implements Mapeador.Emisor {
+        private final Reductor reductor;
+        private final int particiones;
+        private final Path dir;
+        private final int tarea;
+        private final Map<String, long[]> mapa = new HashMap<>();
+        private int volcados = 0;
+
+        Combinador(Reductor reductor, int particiones, Path dir, int tarea) {
+            this.reductor = reductor;
+            this.particiones = particiones;
+            this.dir = dir;
+            this.tarea = tarea;
+        }
+
+        @Override
+        public void emitir(String clave, long valor) {
+            long[] acumulado = mapa.get(clave);
+            if (acumulado == null) {
+                mapa.put(clave, new long[]{valor});
+                if (mapa.size() >= MAX_CLAVES_EN_MEMORIA) volcar();
+            } else {
+                acumulado[0] = reductor.reducir(acumulado[0], valor);
+            }
+        }
+
+        void volcar() {
+            if (mapa.isEmpty()) return;
+
+            List<List<String>> porParticion = new ArrayList<>();
+            for (int r = 0; r < particiones; r++) porParticion.add(new ArrayList<>());
+            for (String clave : mapa.keySet())
+                porParticion.get(particion(clave, particiones)).add(clave);
+
+            for (int r = 0; r < particiones; r++) {
+                List<String> claves = porParticion.get(r);
+                if (claves.isEmpty()) continue;
+                Collections.sort(claves);
+
+                Path f = dir.resolve("map-" + tarea + "-p" + r + "-v" + volcados + ".bin");
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(f)))) {
+                    for (String clave : claves) {
+                        out.writeUTF(clave);
+                        out.writeLong(mapa.get(clave)[0]);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            volcados++;
+            mapa.clear();
+        }
+    }
+
+    static int particion(String clave, int particiones) {
+        return (clave.hashCode() & Integer.MAX_VALUE) % particiones;
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 4: TAREA MAP (proceso hijo)
+       ----------------------------------------------------------------
+       - Si el trozo no empieza en 0, se retrocede un byte y se descarta
+         hasta el primer '\n': esa línea es del trozo anterior (o, si el
+         byte anterior ya era '\n', la primera línea empieza justo en
+         'inicio' y es nuestra).
+       - Se procesan las líneas que EMPIEZAN antes de 'fin', aunque
+         terminen después.
+       - '\n' nunca forma parte de un carácter UTF-8 multibyte, así que
+         cortar por líneas es seguro.
+       ───────────────────────────────────────────────────────────── */
+    private static long[] tareaMap(Mapeador mapeador, Reductor reductor, Path archivo, long inicio, long fin,
+                                   int particiones, Path dir, int tarea) throws IOException {
+
+        Combinador combinador = new Combinador(reductor, particiones, dir, tarea);
+        long lineas = 0;
+
+        try (FileChannel canal = FileChannel.open(archivo)) {
+            long pos = Math.max(0, inicio - 1);
+            canal.position(pos);
+            InputStream in = new BufferedInputStream(Channels.newInputStream(canal), 1 << 16);
+
+            int b = 0;
+            if (inicio > 0) {
+                while ((b = in.read()) != -1) {
+                    pos++;
+                    if (b == '\n') break;
+                }
+            }
+
+            ByteArrayOutputStream linea = new ByteArrayOutputStream();
+            while (b != -1 && pos < fin) {
+                linea.reset();
+                while ((b = in.read()) != -1) {
+                    pos++;
+                    if (b == '\n') break;
+                    linea.write(b);
+                }
+                if (b == -1 && linea.size() == 0) break;
+
+                String texto = linea.toString(StandardCharsets.UTF_8);
+                if (texto.endsWith("\r")) texto = texto.substring(0, texto.length() - 1);
+                mapeador.mapear(texto, combinador);
+                lineas++;
+            }
+        }
+
+        mapeador.terminar(combinador);
+        combinador.volcar();
+        return new long[]{lineas, combinador.volcados};
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 5: TAREA REDUCE (proceso hijo)
+       ----------------------------------------------------------------
+       - Mezcla k-way con una cola de prioridad de cursores, uno por
+         volcado: en memoria solo está la clave actual de cada volcado,
+         no el volcado entero.
+       - Cada cursor es un fichero abierto; si hay más de MAX_FUSION
+         volcados se mezclan por grupos en ficheros intermedios (mismo
+         formato) hasta que quedan MAX_FUSION o menos.
+       - Los volcados ya mezclados se borran para liberar disco.
+       ───────────────────────────────────────────────────────────── */
+    private static final int MAX_FUSION = 64;
+
+    // Destino de la mezcla: un volcado intermedio o el fichero part-*.
+    private interface Destino {
+        void escribir(String clave, long valor) throws IOException;
+    }
+
+    private static class Cursor implements Closeable {
+        private final DataInputStream in;
+        String clave;
+        long valor;
+
+        Cursor(Path f) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(f)));
+        }
+
+        boolean avanzar() throws IOException {
+            try {
+                clave = in.readUTF();
+            } catch (EOFException fin) {
+                return false;
+            }
+            valor = in.readLong();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static long fusionar(List<Path> volcados, Reductor reductor, Destino destino) throws IOException {
+        List<Cursor> cursores = new ArrayList<>();
+        PriorityQueue<Cursor> cola = new PriorityQueue<>(Comparator.comparing((Cursor c) -> c.clave));
+        long claves = 0;
+
+        try {
+            for (Path f : volcados) {
+                Cursor c = new Cursor(f);
+                cursores.add(c);
+                if (c.avanzar()) cola.add(c);
+            }
+
+            while (!cola.isEmpty()) {
+                Cursor c = cola.poll();
+                String clave = c.clave;
+                long valor = c.valor;
+                if (c.avanzar()) cola.add(c);
+
+                while (!cola.isEmpty() && cola.peek().clave.equals(clave)) {
+                    c = cola.poll();
+                    valor = reductor.reducir(valor, c.valor);
+                    if (c.avanzar()) cola.add(c);
+                }
+
+                destino.escribir(clave, valor);
+                claves++;
+            }
+        } finally {
+            for (Cursor c : cursores) c.close();
+        }
+
+        for (Path f : volcados) Files.delete(f);
+        return claves;
+    }
+
+    private static long tareaReduce(Reductor reductor, Path dir, int particion) throws IOException {
+        List<Path> volcados = new ArrayList<>();
+        try (DirectoryStream<Path> ficheros = Files.newDirectoryStream(dir, "map-*-p" + particion + "-v*.bin")) {
+            ficheros.forEach(volcados::add);
+        }
+
+        // Rondas de mezcla parcial mientras haya demasiados ficheros.
+        for (int ronda = 0; volcados.size() > MAX_FUSION; ronda++) {
+            List<Path> siguientes = new ArrayList<>();
+            for (int i = 0; i < volcados.size(); i += MAX_FUSION) {
+                Path f = dir.resolve("map-fusion" + ronda + "." + i / MAX_FUSION + "-p" + particion + "-v0.bin");
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(f)))) {
+                    fusionar(volcados.subList(i, Math.min(volcados.size(), i + MAX_FUSION)), reductor, (clave, valor) -> {
+                        out.writeUTF(clave);
+                        out.writeLong(valor);
+                    });
+                }
+                siguientes.add(f);
+            }
+            volcados = siguientes;
+        }
+
+        try (BufferedWriter out = Files.newBufferedWriter(dir.resolve("part-" + particion + ".txt"))) {
+            return fusionar(volcados, reductor, (clave, valor) -> {
+                out.write(clave);
+                out.write('\t');
+                out.write(Long.toString(valor));
+                out.newLine();
+            });
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 6: MÉTDO PRINCIPAL
+       ----------------------------------------------------------------
+       - "--map ..." / "--reduce ...": modos de los hijos; devuelven sus
+         estadísticas como trama binaria por stdout (CanalResultados).
+       - En otro caso: ejecuta un trabajo y muestra las primeras claves.
+       ───────────────────────────────────────────────────────────── */
+    private static <T> T instanciar(String clase, Class<T> tipo) {
+        try {
+            return tipo.cast(Class.forName(clase).getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("No se puede instanciar " + clase, e);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        if (args.length > 0 && args[0].equals(MODO_MAP)) {
+            long[] stats = tareaMap(instanciar(args[1], Mapeador.class), instanciar(args[2], Reductor.class),
+                    Path.of(args[3]), Long.parseLong(args[4]), Long.parseLong(args[5]),
+                    Integer.parseInt(args[6]), Path.of(args[7]), Integer.parseInt(args[8]));
+            CanalResultados.escribirEnSalidaEstandar(CanalResultados.TIPO_MAPREDUCE, stats);
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals(MODO_REDUCE)) {
+            long claves = tareaReduce(instanciar(args[1], Reductor.class), Path.of(args[2]), Integer.parseInt(args[3]));
+            CanalResultados.escribirEnSalidaEstandar(CanalResultados.TIPO_MAPREDUCE, claves);
+            return;
+        }
+
+        if (args.length < 4) {
+            System.err.println("Uso: MapReduce <Mapeador> <Reductor> <dirTrabajo> <entrada>...");
+            return;
+        }
+
+        List<Path> entradas = new ArrayList<>();
+        for (int i = 3; i < args.length; i++) entradas.add(Path.of(args[i]));
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        Trabajo t = new Trabajo(args[0], args[1], entradas, Path.of(args[2]), nucleos, nucleos, List.of());
+
+        Resumen r = ejecutar(t);
+        System.out.println(r);
+
+        int[] mostradas = {0};
+        recorrerResultado(t.directorio(), t.particiones(), (clave, valor) -> {
+            if (mostradas[0]++ < 20) System.out.println(clave + "\t" + valor);
+        });
+    }
+}
@@ -0,0 +1,30 @@
+package edu.thepower.u1programacion.multiproceso;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL
+// ----------------------------------------------------------------
+// Fase MAP de MapReduce: transforma cada línea de la entrada en pares
+// (clave, valor) que se emiten por el Emisor.
+//
+// Las implementaciones deben ser clases públicas con constructor sin
+// argumentos: MapReduce las instancia por nombre dentro de cada proceso
+// hijo (una instancia por tarea, así que pueden tener estado propio).
+//
+// Ejemplos: U1P04ContadorVocal (vocales) y MapeadorPalabras (palabras
+// y n-gramas).
+// ───────────────────────────────────────────────────────────────
+public interface Mapeador {
+
+    // Destino de los pares emitidos (el combinador de la tarea).
+    interface Emisor {
+        void emitir(String clave, long valor);
+    }
+
+    // Se llama una vez por cada línea del trozo, sin el salto de línea.
+    void mapear(String linea, Emisor emisor);
+
+    // Se llama al acabar el trozo: permite emitir lo acumulado en la
+    // propia instancia en lugar de emitir un par por línea.
+    default void terminar(Emisor emisor) {
+    }
+}
@@ -0,0 +1,35 @@
+package edu.thepower.u1programacion.multiproceso;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL
+// ----------------------------------------------------------------
+// Mapeador de ejemplo: cuenta palabras (en minúsculas) de cada línea.
+// Una palabra es una secuencia de letras o dígitos.
+//
+// Con la propiedad -Dngramas=N (N > 1) emite n-gramas de N palabras
+// consecutivas de la misma línea en lugar de palabras sueltas. La
+// propiedad se pasa a los hijos con MapReduce.Trabajo.opcionesJvm.
+// ───────────────────────────────────────────────────────────────
+public class MapeadorPalabras implements Mapeador {
+
+    private final int n = Integer.getInteger("ngramas", 1);
+
+    @Override
+    public void mapear(String linea, Emisor emisor) {
+        String[] palabras = linea.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+
+        // split() deja una cadena vacía al principio si la línea empieza por un separador.
+        int primera = palabras.length > 0 && palabras[0].isEmpty() ? 1 : 0;
+
+        for (int i = primera; i + n <= palabras.length; i++) {
+            if (n == 1) {
+                emisor.emitir(palabras[i], 1);
+            } else {
+                emisor.emitir(String.join(" ", Arrays.copyOfRange(palabras, i, i + n)), 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package edu.thepower.u1programacion.multiproceso;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL
+// ----------------------------------------------------------------
+// Canal de MEMORIA COMPARTIDA entre un proceso padre y sus hijos.
+//
+// En lugar de pasar los datos por argumentos o por la tubería de
+// stdout, el padre crea un fichero, lo proyecta en memoria con
+// FileChannel.map() (MAP_SHARED) y pasa solo su RUTA a los hijos. Todos
+// ven las mismas páginas: los datos de entrada no se copian ni se
+// serializan, y cada hijo deja su resultado en su propia ranura.
+//
+// Distribución del fichero (orden de bytes nativo):
+//
+//   ┌──────────── CABECERA (64 B) ────────────┐
+//   │  0  int  MAGIA ("PSM1")                 │
+//   │  4  int  operación (OP_*)               │
+//   │  8  int  hijos                          │
+//   │ 12  int  ancho: longs de resultado/hijo │
+//   │ 16  long elementos de entrada           │
+//   │ 24  long offset de los resultados       │
+//   │ 32  long offset de los datos            │
+//   ├──────────── ESTADOS ────────────────────┤
+//   │ 64  int × hijos: LIBRE/EN_CURSO/HECHO/ERROR
+//   ├──────────── RESULTADOS ─────────────────┤
+//   │ long × ancho × hijos                    │
+//   ├──────────── DATOS ──────────────────────┤
+//   │ OP_SUMA: long × elementos               │
+//   │ OP_HISTOGRAMA: char × elementos (UTF-16)│
+//   └─────────────────────────────────────────┘
+//
+// Bandera de finalización: el hijo escribe su resultado y DESPUÉS
+// publica HECHO en su estado con semántica release (VarHandle); el
+// padre lo lee con acquire. Así, si el padre ve HECHO, también ve el
+// resultado completo.
+//
+// Proyección: el fichero se proyecta como MemorySegment dentro de un
+// Arena (API estable desde la JDK 22; el proyecto usa la 25). close()
+// cierra el Arena y DESPROYECTA en ese momento, sin esperar al GC como
+// con un MappedByteBuffer: en Windows un fichero proyectado no se puede
+// borrar, y quien crea la zona la borra nada más cerrarla.
+//
+// Límite: las vistas son ByteBuffer (índices int), así que la zona
+// direcciona como mucho 2 GB. Para más, habría que proyectar por
+// ventanas (como U1P04ContadorVocal) o acceder al MemorySegment con
+// VarHandles de ValueLayout en lugar de ByteBuffer.
+// ───────────────────────────────────────────────────────────────
+class MemoriaCompartida implements AutoCloseable {
+
+    static final int MAGIA = 0x50534D31;
+
+    static final int OP_SUMA = 1;
+    static final int OP_HISTOGRAMA = 2;
+
+    static final int LIBRE = 0;
+    static final int EN_CURSO = 1;
+    static final int HECHO = 2;
+    static final int ERROR = 3;
+
+    private static final int CABECERA = 64;
+
+    // Acceso atómico (acquire/release) a un int dentro del buffer.
+    private static final VarHandle ENTERO = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel canal;
+    private final Arena arena;
+    private final ByteBuffer mapa;
+    private final int operacion;
+    private final int hijos;
+    private final int ancho;
+    private final long elementos;
+    private final int offsetResultados;
+    private final int offsetDatos;
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: CREAR (padre) Y ABRIR (hijo)
+       ----------------------------------------------------------------
+       - crear(): calcula la distribución, dimensiona el fichero y
+         escribe la cabecera. Los estados empiezan en LIBRE (ceros).
+       - abrir(): proyecta un fichero existente y valida la MAGIA.
+       ───────────────────────────────────────────────────────────── */
+    static MemoriaCompartida crear(Path ruta, int operacion, int hijos, long elementos, int ancho) {
+        long offsetResultados = alinear8(CABECERA + 4L * hijos);
+        long offsetDatos = offsetResultados + 8L * hijos * ancho;
+        long total = offsetDatos + elementos * (operacion == OP_SUMA ? Long.BYTES : Character.BYTES);
+        if (total > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("La zona compartida no puede superar 2 GB: " + total + " bytes");
+
+        FileChannel canal = null;
+        Arena arena = Arena.ofShared();
+        try {
+            canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ByteBuffer mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, total, arena).asByteBuffer();
+            mapa.order(ByteOrder.nativeOrder());
+            mapa.putInt(0, MAGIA);
+            mapa.putInt(4, operacion);
+            mapa.putInt(8, hijos);
+            mapa.putInt(12, ancho);
+            mapa.putLong(16, elementos);
+            mapa.putLong(24, offsetResultados);
+            mapa.putLong(32, offsetDatos);
+            return new MemoriaCompartida(canal, arena, mapa);
+        } catch (IOException e) {
+            liberar(canal, arena);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            liberar(canal, arena);
+            throw e;
+        }
+    }
+
+    static MemoriaCompartida abrir(Path ruta) {
+        FileChannel canal = null;
+        Arena arena = Arena.ofShared();
+        try {
+            canal = FileChannel.open(ruta, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ByteBuffer mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, canal.size(), arena).asByteBuffer();
+            mapa.order(ByteOrder.nativeOrder());
+            if (mapa.getInt(0) != MAGIA)
+                throw new IllegalStateException("No es una zona compartida válida: " + ruta);
+            return new MemoriaCompartida(canal, arena, mapa);
+        } catch (IOException e) {
+            liberar(canal, arena);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            liberar(canal, arena);
+            throw e;
+        }
+    }
+
+    private MemoriaCompartida(FileChannel canal, Arena arena, ByteBuffer mapa) {
+        this.canal = canal;
+        this.arena = arena;
+        this.mapa = mapa;
+        this.operacion = mapa.getInt(4);
+        this.hijos = mapa.getInt(8);
+        this.ancho = mapa.getInt(12);
+        this.elementos = mapa.getLong(16);
+        this.offsetResultados = (int) mapa.getLong(24);
+        this.offsetDatos = (int) mapa.getLong(32);
+    }
+
+    private static long alinear8(long n) {
+        return (n + 7) & ~7L;
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: VISTAS SOBRE LAS ZONAS
+       ----------------------------------------------------------------
+       Vistas tipadas (LongBuffer / CharBuffer) sobre el mismo mapa: no
+       copian nada, leen y escriben directamente en las páginas compartidas.
+       ───────────────────────────────────────────────────────────── */
+    LongBuffer datosLong() {
+        return mapa.slice(offsetDatos, (int) (elementos * Long.BYTES)).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    CharBuffer datosChar() {
+        return mapa.slice(offsetDatos, (int) (elementos * Character.BYTES)).order(ByteOrder.nativeOrder()).asCharBuffer();
+    }
+
+    LongBuffer resultado(int hijo) {
+        return mapa.slice(offsetResultados + hijo * ancho * Long.BYTES, ancho * Long.BYTES)
+                .order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    // Rango [desde, hasta) de elementos que le toca al hijo indicado.
+    long desde(int hijo) {
+        return elementos * hijo / hijos;
+    }
+
+    long hasta(int hijo) {
+        return elementos * (hijo + 1) / hijos;
+    }
+
+    int operacion() { return operacion; }
+    int hijos() { return hijos; }
+    long elementos() { return elementos; }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 3: BANDERAS DE ESTADO
+       ----------------------------------------------------------------
+       - publicar(): release → todo lo escrito antes es visible para
+         quien lea el estado con acquire.
+       - estado(): acquire.
+       ───────────────────────────────────────────────────────────── */
+    void publicar(int hijo, int estado) {
+        ENTERO.setRelease(mapa, CABECERA + 4 * hijo, estado);
+    }
+
+    int estado(int hijo) {
+        return (int) ENTERO.getAcquire(mapa, CABECERA + 4 * hijo);
+    }
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 4: CIERRE
+       ----------------------------------------------------------------
+       Primero el Arena (desproyecta: las vistas dejan de ser válidas y
+       un acceso posterior lanza IllegalStateException en vez de leer
+       memoria liberada) y después el canal. Al volver, el fichero ya
+       se puede borrar en cualquier sistema.
+       ───────────────────────────────────────────────────────────── */
+    @Override
+    public void close() {
+        arena.close();
+        try {
+            canal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Si crear()/abrir() fallan a medias, no se deja nada proyectado ni abierto.
+    private static void liberar(FileChannel canal, Arena arena) {
+        arena.close();
+        if (canal != null) {
+            try {
+                canal.close();
+            } catch (IOException ignorada) {
+                // ya se está propagando el error original
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package edu.thepower.u1programacion.multiproceso;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL
+// ----------------------------------------------------------------
+// Fase REDUCE de MapReduce: combina dos valores de la misma clave.
+//
+// La operación debe ser ASOCIATIVA y CONMUTATIVA (suma, máximo...),
+// porque MapReduce la aplica en dos sitios:
+//  - como combinador, dentro de cada tarea map, antes de volcar a disco;
+//  - en la reducción final, al mezclar los volcados de todas las tareas.
+//
+// Igual que los Mapeador, se instancian por nombre en los procesos
+// hijo: clases públicas con constructor sin argumentos.
+// ───────────────────────────────────────────────────────────────
+public interface Reductor {
+
+    long reducir(long a, long b);
+
+    // Suma: conteos (vocales, palabras, n-gramas, líneas de log...).
+    class Suma implements Reductor {
+        @Override
+        public long reducir(long a, long b) {
+            return a + b;
+        }
+    }
+
+    // Máximo: p.ej. mayor latencia por endpoint en un log.
+    class Maximo implements Reductor {
+        @Override
+        public long reducir(long a, long b) {
+            return Math.max(a, b);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package edu.thepower.u1programacion.multiproceso;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL
+// ----------------------------------------------------------------
+// Supervisor reutilizable de procesos hijo con PARALELISMO ACOTADO.
+//
+// Lanzar N JVMs a la vez sin límite (como hacía U1P03ExecSumador)
+// satura la máquina cuando N es mayor que el número de núcleos: todas
+// compiten por la CPU y la memoria y ninguna termina antes.
+//
+// El supervisor:
+//  - Ejecuta como máximo 'maxConcurrentes' hijos a la vez (por defecto,
+//    uno por núcleo); el resto espera en la cola del pool de hilos.
+//  - Construye el comando "java -cp <classpath> <clase> args..." con la
+//    JVM y el classpath del propio padre (java.home / java.class.path).
+//  - Recoge de cada hijo: código de salida, trama de resultado (ver
+//    CanalResultados), tiempo de pared y tiempo de CPU (ProcessHandle.Info).
+//  - resumen(): trabajos/segundo y tiempos por hijo.
+// ───────────────────────────────────────────────────────────────
+class SupervisorProcesos implements AutoCloseable {
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: RESULTADO DE UNA EJECUCIÓN
+       ----------------------------------------------------------------
+       - trama: resultado enviado por el hijo, o null si no envió nada.
+       - muro: tiempo real desde que arrancó hasta que terminó.
+       - cpu: tiempo de CPU consumido por el hijo (Duration.ZERO si el
+         sistema operativo no lo facilita).
+       ───────────────────────────────────────────────────────────── */
+    record EjecucionHijo(List<String> comando, long pid, int codigoSalida,
+                         CanalResultados.Trama trama, Duration muro, Duration cpu, Throwable error) {
+
+        boolean correcta() {
+            return error == null && codigoSalida == 0;
+        }
+    }
+
+    private static final String JAVA = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    private static final String CP = "-cp";
+    private static final String CLASSPATH = System.getProperty("java.class.path");
+
+    private final int maxConcurrentes;
+    private final ExecutorService pool;
+    private final List<EjecucionHijo> terminadas = new CopyOnWriteArrayList<>();
+    private final AtomicLong primerLanzamiento = new AtomicLong();
+    private final AtomicLong ultimaFinalizacion = new AtomicLong();
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: CONSTRUCCIÓN
+       ----------------------------------------------------------------
+       Un pool de tamaño fijo hace de límite: cada hilo del pool lanza
+       un hijo y lo espera, así que nunca hay más hijos vivos que hilos.
+       Las peticiones que sobran quedan en la cola del pool.
+       ───────────────────────────────────────────────────────────── */
+    SupervisorProcesos() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    SupervisorProcesos(int maxConcurrentes) {
+        if (maxConcurrentes < 1)
+            throw new IllegalArgumentException("maxConcurrentes debe ser al menos 1");
+        this.maxConcurrentes = maxConcurrentes;
+        this.pool = Executors.newFixedThreadPool(maxConcurrentes, r -> {
+            Thread t = new Thread(r, "supervisor-" + r.hashCode());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Comando para ejecutar una clase Java con la misma JVM y classpath que el padre.
+    static List<String> comandoJava(String clase, String... args) {
+        return comandoJava(List.of(), clase, args);
+    }
+
+    // Igual, con opciones para la JVM hija (p.ej. "-Xmx256m", "-Dpropiedad=valor").
+    static List<String> comandoJava(List<String> opcionesJvm, String clase, String... args) {
+        List<String> comando = new ArrayList<>(List.of(JAVA));
+        comando.addAll(opcionesJvm);
+        comando.addAll(List.of(CP, CLASSPATH, clase));
+        comando.addAll(List.of(args));
+        return comando;
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 3: LANZAR (ENCOLAR) UN HIJO
+       ----------------------------------------------------------------
+       - Devuelve enseguida un futuro; el hijo arranca cuando haya hueco.
+       - El hijo debe escribir su resultado con CanalResultados por stdout;
+         stderr se hereda para ver sus errores.
+       - El tiempo de CPU se muestrea cuando llega la trama, porque una
+         vez que el proceso termina y se recoge, el sistema operativo ya
+         no da información sobre él.
+       ───────────────────────────────────────────────────────────── */
+    CompletableFuture<EjecucionHijo> lanzar(List<String> comando) {
+        return CompletableFuture.supplyAsync(() -> ejecutar(comando), pool);
+    }
+
+    private EjecucionHijo ejecutar(List<String> comando) {
+
+        primerLanzamiento.compareAndSet(0, System.nanoTime());
+        long inicio = System.nanoTime();
+        Process p = null;
+        CanalResultados.Trama trama = null;
+        Duration cpu = Duration.ZERO;
+        Throwable error = null;
+        int codigo = -1;
+
+        try {
+            ProcessBuilder pb = new ProcessBuilder(comando);
+            pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+            p = pb.start();
+
+            try {
+                trama = CanalResultados.leer(p.getInputStream());
+            } catch (IOException e) {
+                error = e;
+            }
+            cpu = p.info().totalCpuDuration().orElse(cpu);
+            codigo = p.waitFor();
+            cpu = p.info().totalCpuDuration().orElse(cpu);
+
+        } catch (IOException e) {
+            error = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = e;
+        } finally {
+            if (p != null && p.isAlive()) p.destroyForcibly();
+        }
+
+        Duration muro = Duration.ofNanos(System.nanoTime() - inicio);
+        EjecucionHijo ejecucion = new EjecucionHijo(comando, p == null ? -1 : p.pid(), codigo, trama, muro, cpu, error);
+        terminadas.add(ejecucion);
+        ultimaFinalizacion.accumulateAndGet(System.nanoTime(), Math::max);
+        return ejecucion;
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 4: INFORME
+       ----------------------------------------------------------------
+       Trabajos por segundo entre el primer lanzamiento y la última
+       finalización y, por hijo, pid, código de salida, tiempo de pared
+       y de CPU.
+       ───────────────────────────────────────────────────────────── */
+    String resumen() {
+        StringBuilder sb = new StringBuilder();
+        double segundos = (ultimaFinalizacion.get() - primerLanzamiento.get()) / 1e9;
+
+        sb.append(String.format("Hijos terminados: %d (máx. %d a la vez) en %.2f s → %.1f trabajos/s%n",
+                terminadas.size(), maxConcurrentes, segundos, segundos == 0 ? 0 : terminadas.size() / segundos));
+        for (EjecucionHijo e : terminadas) {
+            sb.append(String.format("  pid %-7d código %-3d muro %5d ms  cpu %5d ms%s%n",
+                    e.pid(), e.codigoSalida(), e.muro().toMillis(), e.cpu().toMillis(),
+                    e.correcta() ? "" : "  ERROR: " + e.error()));
+        }
+        return sb.toString();
+    }
+
+    List<EjecucionHijo> getTerminadas() {
+        return List.copyOf(terminadas);
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 5: CIERRE
+       ----------------------------------------------------------------
+       Deja terminar a los hijos encolados y en marcha.
+       ───────────────────────────────────────────────────────────── */
+    @Override
+    public void close() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
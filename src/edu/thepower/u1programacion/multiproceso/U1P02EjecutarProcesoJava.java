@@ -1,9 +1,9 @@
 package edu.thepower.u1programacion.multiproceso;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.util.Arrays;
 
 // ───────────────────────────────────────────────────────────────
 // COMENTARIO GENERAL DEL PROGRAMA
@@ -22,8 +22,14 @@ import java.io.InputStreamReader;
 //
 // Métodos mostrados:
 //   - Redirección directa (INHERIT).
-//   - Lectura de la salida con BufferedReader.
+//   - Captura concurrente de stdout y stderr con BombaFlujos.
 //   - Redirección a archivos de texto (salida y error).
+//   - A través de un Lanzador (opción 4): LanzadorProceso o, con
+//     --aislado, LanzadorAislado (sin arrancar otra JVM). Un Lanzador
+//     ejecuta el main() de una clase, no un comando como java -version:
+//     el hijo de esta opción es U1P03Sumador.
+//
+// Uso: U1P02EjecutarProcesoJava [1|2|3|4] [--aislado]
 // ───────────────────────────────────────────────────────────────
 public class U1P02EjecutarProcesoJava {
 
@@ -42,81 +48,110 @@ public class U1P02EjecutarProcesoJava {
     private static final String VERSION = "-version";
 
 
+    // Líneas que se retienen de cada flujo en la opción 2 (tail -N).
+    private static final int LINEAS_RETENIDAS = 20;
+
+    // Hijo de la opción 4 y sus argumentos: suma de 1 a 100, en texto.
+    private static final String CLASE_SUMADOR = "edu.thepower.u1programacion.multiproceso.U1P03Sumador";
+    private static final String[] ARGS_SUMADOR = {"1", "100"};
+
+
     /* ─────────────────────────────────────────────────────────────
        BLOQUE 2: MÉTDO PRINCIPAL
        ----------------------------------------------------------------
        Contiene tres posibles formas de redirigir o capturar la salida
-       de un proceso hijo. Solo una está activa (la tercera, a fichero),
-       las otras dos se dejan comentadas como demostración.
+       de un proceso hijo. Se elige con el primer argumento (1, 2 o 3);
+       sin argumentos se usa la tercera, a fichero. La 4 lanza con un
+       Lanzador, elegido con --aislado.
        ───────────────────────────────────────────────────────────── */
     public static void main(String[] args) {
 
+        String[] resto = Lanzador.sinModo(args);
+        int opcion = resto.length > 0 ? Integer.parseInt(resto[0]) : 3;
+        if (opcion == 4) {
+            conLanzador(args);
+            return;
+        }
+
         // Se crea un ProcessBuilder con los argumentos necesarios.
         // Esto equivale a escribir en consola:
         // > java -version
         ProcessBuilder pb = new ProcessBuilder(JAVA, VERSION);
 
-        /* =========================================================
-           OPCIÓN 1 – Heredar la salida del proceso hijo
-           ---------------------------------------------------------
-           Si se descomenta este bloque, el proceso hijo (java -version)
-           mostrará su salida directamente en la consola del programa padre.
-           Esto se hace con redirectOutput / redirectError y Redirect.INHERIT.
-           ========================================================= */
+        switch (opcion) {
+            case 1 -> heredarSalida(pb);
+            case 2 -> capturarSalida(pb);
+            default -> redirigirAFichero(pb);
+        }
+    }
+
 
-        // pb.redirectOutput(ProcessBuilder.Redirect.INHERIT);
-        // pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+    /* =========================================================
+       OPCIÓN 1 – Heredar la salida del proceso hijo
+       ---------------------------------------------------------
+       El proceso hijo (java -version) muestra su salida directamente
+       en la consola del programa padre.
+       Esto se hace con redirectOutput / redirectError y Redirect.INHERIT.
+       ========================================================= */
+    private static void heredarSalida(ProcessBuilder pb) {
+        pb.redirectOutput(ProcessBuilder.Redirect.INHERIT);
+        pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+        try {
+            pb.start().waitFor();
+        } catch (IOException | InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
 
-        /* =========================================================
-           OPCIÓN 2 – Capturar la salida del proceso hijo
-           ---------------------------------------------------------
-           En lugar de redirigir directamente, aquí se leen las salidas
-           del proceso hijo (standard output y error) a través de flujos
-           de entrada (InputStream), usando un BufferedReader.
-           ========================================================= */
+    /* =========================================================
+       OPCIÓN 2 – Capturar la salida del proceso hijo
+       ---------------------------------------------------------
+       Antes se leía stdout con un BufferedReader en el hilo main.
+       Si el hijo escribía mucho por stderr sin que nadie lo leyera,
+       la tubería se llenaba y padre e hijo se quedaban bloqueados.
 
-        /*
-        try {
-            // *1 redirige el flujo de error (stderr) al de salida (stdout)
-            // así solo necesitamos leer un flujo.
-            pb.redirectErrorStream(true);
+       Ahora BombaFlujos vacía stdout y stderr A LA VEZ en hilos
+       virtuales, retiene solo las últimas LINEAS_RETENIDAS líneas de
+       cada flujo (memoria constante) y copia todo a ficheros (tee).
+       ========================================================= */
+    private static void capturarSalida(ProcessBuilder pb) {
+        try (BombaFlujos bomba = new BombaFlujos()) {
 
             // Se lanza el proceso y se obtiene un objeto Process,
             // que representa la ejecución del proceso hijo.
             Process p = pb.start();
 
-            // Se crea un BufferedReader para leer la salida del proceso.
-            // InputStreamReader adapta el flujo binario a texto (UTF-8).
-            BufferedReader br = new BufferedReader(
-                    new InputStreamReader(p.getInputStream())
-            );
-
-            // Se leen las líneas generadas por el proceso hijo.
-            String line;
-            while ((line = br.readLine()) != null) {
-                System.out.println(line);  // Muestra la salida del hijo.
-            }
-
-            // (Alternativa sin redirectErrorStream:)
-            // Si no redirigimos los errores, tendríamos que leer otro
-            // flujo aparte: p.getErrorStream().
-            // BufferedReader brError = new BufferedReader(new InputStreamReader(p.getErrorStream()));
-            // ...
+            // Se empieza a bombear enseguida, antes de esperar al hijo.
+            BombaFlujos.Bombeo bombeo = bomba.bombear(p, LINEAS_RETENIDAS,
+                    Path.of("./resources/salida.txt"), Path.of("./resources/error.txt"));
+
+            int codigo = p.waitFor();
+            bombeo.terminado().join();
+
+            System.out.println("Código de salida: " + codigo);
+            System.out.println("stdout (" + bombeo.salida().total() + " líneas):");
+            bombeo.salida().ultimas().forEach(l -> System.out.println("  " + l));
+            System.out.println("stderr (" + bombeo.error().total() + " líneas):");
+            bombeo.error().ultimas().forEach(l -> System.out.println("  " + l));
+
         } catch (IOException e) {
             System.err.println("Error al iniciar el proceso");
             e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        */
+    }
 
 
-        /* =========================================================
-           OPCIÓN 3 – Redirigir la salida y el error a ficheros
-           ---------------------------------------------------------
-           Esta es la versión activa. En lugar de mostrar en consola,
-           el programa guarda la salida y los errores del proceso
-           en archivos dentro de la carpeta "resources".
-           ========================================================= */
+    /* =========================================================
+       OPCIÓN 3 – Redirigir la salida y el error a ficheros
+       ---------------------------------------------------------
+       En lugar de mostrar en consola, el programa guarda la salida y
+       los errores del proceso en archivos dentro de la carpeta
+       "resources".
+       ========================================================= */
+    private static void redirigirAFichero(ProcessBuilder pb) {
 
         // Redirige la salida estándar (stdout) del proceso hijo
         // al fichero "./resources/salida.txt".
@@ -135,4 +170,32 @@ public class U1P02EjecutarProcesoJava {
             throw new RuntimeException(e);
         }
     }
+
+
+    /* =========================================================
+       OPCIÓN 4 – A través de un Lanzador
+       ---------------------------------------------------------
+       El Lanzador elegido (--aislado o no) ejecuta el main() de
+       U1P03Sumador y entrega stdout y stderr ya capturados en el
+       Resultado. Después se lanza lo mismo con el OTRO Lanzador y se
+       comparan código de salida y bytes de stdout: deben coincidir.
+       ========================================================= */
+    private static void conLanzador(String[] args) {
+        boolean aislado = args.length != Lanzador.sinModo(args).length;
+        try (Lanzador elegido = Lanzador.segun(args, 1);
+             Lanzador otro = aislado ? new LanzadorProceso(1) : new LanzadorAislado(1)) {
+
+            Lanzador.Resultado r = elegido.lanzar(CLASE_SUMADOR, ARGS_SUMADOR).join();
+            System.out.println("Lanzador: " + elegido.getClass().getSimpleName()
+                    + " (pid " + r.pid() + ", " + r.latencia().toMillis() + " ms)");
+            System.out.println("Código de salida: " + r.codigoSalida());
+            System.out.print("stdout:\n" + r.salidaTexto());
+            System.out.print("stderr:\n" + r.errorTexto());
+
+            Lanzador.Resultado c = otro.lanzar(CLASE_SUMADOR, ARGS_SUMADOR).join();
+            boolean iguales = r.codigoSalida() == c.codigoSalida() && Arrays.equals(r.salida(), c.salida());
+            System.out.println("Con " + otro.getClass().getSimpleName() + " (" + c.latencia().toMillis() + " ms): "
+                    + (iguales ? "misma salida" : "SALIDA DISTINTA (código " + c.codigoSalida() + "):\n" + c.salidaTexto()));
+        }
+    }
 }
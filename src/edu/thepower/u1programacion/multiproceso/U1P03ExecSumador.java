@@ -1,7 +1,10 @@
 package edu.thepower.u1programacion.multiproceso;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 public class U1P03ExecSumador {
 
@@ -19,116 +22,141 @@ public class U1P03ExecSumador {
        (múltiples instancias de la JVM ejecutando otra clase) y el paso
        de parámetros al proceso hijo.
 
-       En total, el programa genera 5 procesos, cada uno con dos números
-       aleatorios entre 0 y 100, y hereda su salida estándar y de error.
+       Por defecto el programa genera 5 procesos, cada uno con dos números
+       aleatorios entre 0 y 100. Cada hijo devuelve su resultado como
+       trama binaria por su salida estándar (CanalResultados).
+
+       Los hijos se lanzan a través de un Lanzador que limita cuántos
+       hay en marcha a la vez (por defecto, uno por núcleo), encola el
+       resto y devuelve de cada hijo su pid, tiempo de pared y tiempo de
+       CPU (ProcessHandle.Info), como hacía SupervisorProcesos:
+         - LanzadorProceso (por defecto): una JVM nueva por hijo.
+         - LanzadorAislado (--aislado): el main() de U1P03Sumador en un
+           ClassLoader nuevo dentro de esta JVM, sin pagar su arranque.
+       El resultado es el mismo con los dos; cambia la latencia.
+
+       Uso: java U1P03ExecSumador [numProcesos] [maxConcurrentes] [--aislado]
        ─────────────────────────────────────────────────────────────── */
 
 
     /* ───────────────────────────────────────────────────────────────
        BLOQUE 1: CONSTANTES DE CONFIGURACIÓN DEL PROCESO
        ----------------------------------------------------------------
-       Se definen como constantes porque su valor no cambia y se usan
-       varias veces en la configuración de cada ProcessBuilder.
+       El ejecutable "java" y el classpath ya no se fijan aquí: los
+       resuelve el Lanzador a partir de la JVM del padre (java.home y
+       java.class.path), así funciona en cualquier equipo.
        ─────────────────────────────────────────────────────────────── */
 
-    // Nombre del ejecutable a invocar. En este caso "java" ejecuta
-    // el intérprete de Java para lanzar una clase ya compilada.
-    private static final String JAVA = "java";
-
     // Ruta completa (paquete + nombre) de la clase que se ejecutará
     // como proceso secundario. Esa clase debe tener su propio main().
     private static final String CLASE =
             "edu.thepower.u1programacion.multiproceso.U1P03Sumador";
 
-    // Parámetro que indica a la JVM qué classpath utilizar (-cp).
-    private static final String CP = "-cp";
-
-    // Ruta absoluta donde se encuentran los .class compilados.
-    // En el contexto de este proyecto, apunta a la carpeta /out/production.
-    // Es necesaria para que el proceso hijo encuentre la clase a ejecutar.
-    private static final String CLASSPATH =
-            "C:\\Users\\AlumnoAfternoon\\Documents\\Programacion-de-Procesos-y-Servicios\\Programacion-de-Procesos-y-Servicios\\out\\production\\Programacion-de-Procesos-y-Servicios";
-
-    // Número de procesos (subprogramas) que se lanzarán.
-    // Se usa en el bucle principal para repetir 5 veces la ejecución.
+    // Número de procesos (subprogramas) que se lanzarán si no se indica otro.
     private static final int NUM_PROCESOS = 5;
 
 
     /* ───────────────────────────────────────────────────────────────
        BLOQUE 2: MÉTDO PRINCIPAL – GENERACIÓN DE PROCESOS
        ----------------------------------------------------------------
-       Este main es el proceso “padre”. Dentro del bucle crea 5
+       Este main es el proceso “padre”. Dentro del bucle encola los
        procesos hijos que ejecutan la clase U1P03Sumador con dos números
        aleatorios como argumentos.
        ─────────────────────────────────────────────────────────────── */
     public static void main (String[] args){
 
+        // --aislado puede ir en cualquier posición; el resto se lee sin él.
+        String[] resto = Lanzador.sinModo(args);
+        int numProcesos = resto.length > 0 ? Integer.parseInt(resto[0]) : NUM_PROCESOS;
+        int maxConcurrentes = resto.length > 1
+                ? Integer.parseInt(resto[1])
+                : Runtime.getRuntime().availableProcessors();
+
         // Objeto Random: genera números aleatorios entre 0 y 100.
         // Dominio: simula que cada proceso recibe diferentes datos.
         Random r = new Random();
 
-        // Bucle que crea y lanza los 5 procesos.
-        for ( int i = 0; i < NUM_PROCESOS ; i++) {
+        long inicio = System.nanoTime();
+        try (Lanzador lanzador = Lanzador.segun(args, maxConcurrentes)) {
+
+            System.out.println("Lanzador: " + lanzador.getClass().getSimpleName()
+                    + " (máx. " + maxConcurrentes + " a la vez)");
+
+            // Un futuro por hijo: se completa cuando ese hijo ha terminado.
+            List<CompletableFuture<Lanzador.Resultado>> resultados = new ArrayList<>();
+
+            /* ---------------------------------------------------------
+               BLOQUE 2.1: CONSTRUCCIÓN Y ENCOLADO DE LOS PROCESOS
+               ---------------------------------------------------------
+               Cada lanzamiento equivale a:
+                 java -cp <classpath del padre> <clase> arg1 arg2 --binario
+               El lanzador lo arranca en cuanto hay hueco.
+               --------------------------------------------------------- */
+            for (int i = 0; i < numProcesos; i++) {
+                resultados.add(lanzador.lanzar(CLASE,
+                        String.valueOf(r.nextInt(0, 100)),     // Primer número aleatorio
+                        String.valueOf(r.nextInt(0, 100)),     // Segundo número aleatorio
+                        CanalResultados.MODO_BINARIO));        // Resultado como trama por stdout
+            }
 
             /* ---------------------------------------------------------
-               BLOQUE 2.1: CONSTRUCCIÓN DEL PROCESO
+               BLOQUE 2.2: RECOGIDA DE RESULTADOS
                ---------------------------------------------------------
-               ProcessBuilder permite crear procesos externos.
-               Recibe una lista de argumentos como si fuese una línea
-               de comandos. Ejemplo:
-                 java -cp <ruta> <clase> arg1 arg2
-               En este caso se pasa la ruta de la clase Sumador y dos
-               números aleatorios como argumentos.
+               Se muestra cada suma, su latencia y se acumula el total.
+               Un hijo que falle no bloquea al resto: se informa por stderr.
                --------------------------------------------------------- */
-            ProcessBuilder pb = new ProcessBuilder(
-                    JAVA,                     // Comando: ejecutable "java"
-                    CP,                       // Opción "-cp"
-                    CLASSPATH,                // Ruta donde buscar clases
-                    CLASE,                    // Clase a ejecutar (main del sumador)
-                    String.valueOf(r.nextInt(0,100)), // Primer número aleatorio
-                    String.valueOf(r.nextInt(0,100))  // Segundo número aleatorio
-            );
+            long total = 0;
+            for (int i = 0; i < resultados.size(); i++) {
+                Lanzador.Resultado e = resultados.get(i).join();
+                long[] v;
+                try {
+                    v = e.codigoSalida() == 0 ? e.trama().valores() : null;
+                } catch (IOException ex) {
+                    v = null;
+                }
+                if (v == null) {
+                    System.err.println("El sumador " + i + " falló (código " + e.codigoSalida() + "): "
+                            + e.errorTexto().strip());
+                    continue;
+                }
+                System.out.println("La suma de los numeros entre " + v[0] + " y " + v[1] + " es: " + v[2]
+                        + " (" + e.latencia().toMillis() + " ms)");
+                total += v[2];
+            }
+
+            System.out.println("Suma de todos los resultados: " + total);
 
             /* ---------------------------------------------------------
-               BLOQUE 2.2: CONFIGURACIÓN Y EJECUCIÓN DEL PROCESO
+               BLOQUE 2.3: INFORME DE LOS HIJOS
                ---------------------------------------------------------
-               redirectOutput y redirectError indican que el proceso hijo
-               usará la misma salida estándar y de error que el proceso padre,
-               permitiendo ver los resultados directamente en consola.
+               Trabajos por segundo y, por hijo, pid, código de salida,
+               tiempo de pared (desde que se encoló) y de CPU. Con
+               --aislado no hay proceso propio: pid -1 y CPU 0.
                --------------------------------------------------------- */
-            try {
-                pb.redirectOutput(ProcessBuilder.Redirect.INHERIT);
-                pb.redirectError(ProcessBuilder.Redirect.INHERIT);
-
-                // Lanza el proceso (asíncronamente, en paralelo).
-                // Cada ejecución crea una nueva JVM que ejecuta U1P03Sumador.
-                pb.start();
-
-            } catch (IOException e) {
-                // Si ocurre un error al iniciar el proceso, lo lanzamos
-                // como RuntimeException para detener la ejecución.
-                throw new RuntimeException(e);
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            System.out.printf("Hijos terminados: %d (máx. %d a la vez) en %.2f s → %.1f trabajos/s%n",
+                    numProcesos, maxConcurrentes, segundos, numProcesos / segundos);
+            for (CompletableFuture<Lanzador.Resultado> f : resultados) {
+                Lanzador.Resultado e = f.join();
+                System.out.printf("  pid %-7d código %-3d muro %5d ms  cpu %5d ms%n",
+                        e.pid(), e.codigoSalida(), e.latencia().toMillis(), e.cpu().toMillis());
             }
         }
 
-        /* ---------------------------------------------------------
-           BLOQUE 2.3: MENSAJE FINAL
-           ---------------------------------------------------------
-           Este mensaje se muestra cuando el proceso principal
-           termina de lanzar los 5 subprocesos.
-           Los procesos hijos pueden seguir ejecutándose en paralelo.
-           --------------------------------------------------------- */
         System.out.println("***Finalizado programa principal***");
 
 
         /* ---------------------------------------------------------
            BLOQUE 2.4: RESUMEN DE FUNCIONAMIENTO
            ---------------------------------------------------------
-           - Se lanzan 5 procesos en paralelo.
+           - Se encolan numProcesos hijos; como mucho maxConcurrentes
+             se ejecutan a la vez.
            - Cada uno ejecuta la clase U1P03Sumador con 2 argumentos.
            - Los argumentos son aleatorios (0–100).
-           - U1P03Sumador (no mostrado aquí) se encarga de sumar todos
-             los números comprendidos entre esos dos valores.
+           - U1P03Sumador devuelve la suma de todos los números
+             comprendidos entre esos dos valores como trama binaria.
+           - Con --aislado no se arranca ninguna JVM: los hijos son
+             main() en ClassLoaders nuevos de esta misma JVM.
            --------------------------------------------------------- */
     }
 }
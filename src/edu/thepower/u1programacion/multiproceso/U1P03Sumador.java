@@ -1,7 +1,12 @@
 package edu.thepower.u1programacion.multiproceso;
 
-import java.io.IOException;
-import java.util.Scanner;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongUnaryOperator;
 
 public class U1P03Sumador {
 
@@ -15,48 +20,226 @@ public class U1P03Sumador {
        → Recibe dos números como argumentos (args[0] y args[1])
        → Calcula la suma de todos los enteros comprendidos entre ellos,
          incluyendo los extremos.
-       → Muestra el resultado en pantalla.
+       → Muestra el resultado en pantalla, o bien, con un tercer
+         argumento "--binario", lo devuelve al padre como trama binaria
+         por la tubería de stdout (ver CanalResultados).
 
        Cada proceso creado por U1P03ExecSumador ejecuta esta clase de forma
        independiente, por lo que se pueden tener varios sumadores ejecutándose
        en paralelo, cada uno con sus propios argumentos.
+
+       Motor de suma:
+       → La suma de un rango se calcula con la fórmula cerrada
+         (a + b)·(b − a + 1)/2 en long, y en BigInteger si no cabe: O(1)
+         y sin el desbordamiento del antiguo acumulador int.
+       → Cuando cada elemento requiere trabajo propio (Funcion), el rango
+         se puede trocear en un ForkJoinPool (sumarParalelo) o entre
+         varios procesos hijo (sumarMultiproceso), que ejecutan esta
+         misma clase con "--trozo a b funcion --binario".
+       → U1P06BenchmarkSumador mide a partir de qué tamaño compensa
+         repartir entre procesos.
        ─────────────────────────────────────────────────────────────── */
 
 
     /* ───────────────────────────────────────────────────────────────
        BLOQUE 1: MÉTDO PRIVADO sumar()
        ----------------------------------------------------------------
-       Este métdo realiza la lógica principal de cálculo. No es estático
-       porque se invoca desde una instancia de la clase (en el main).
+       Este métdo muestra el resultado del cálculo (lo hace sumaRango()).
+       No es estático porque se invoca desde una instancia de la clase (en el main).
+       ─────────────────────────────────────────────────────────────── */
+    private void sumar(long num1, long num2){
+
+        // Al finalizar, se imprime el resultado formateado.
+        // Ejemplo: “La suma de los numeros entre 3 y 6 es: 18”
+        System.out.println("La suma de los numeros entre " + Math.min(num1, num2) +
+                " y " + Math.max(num1, num2) + " es: " + sumaRango(num1, num2));
+    }
+
+
+    /* ───────────────────────────────────────────────────────────────
+       BLOQUE 1.1: FÓRMULA CERRADA
+       ----------------------------------------------------------------
+       - La suma de los enteros de a a b (ambos incluidos) es
+             (a + b) · (b − a + 1) / 2
+         Uno de los dos factores siempre es par, así que se divide ese
+         antes de multiplicar y el resultado es exacto.
+       - sumaRangoLong(): camino rápido en long. Lanza ArithmeticException
+         si algún paso se desborda (Math.*Exact).
+       - sumaRango(): intenta el camino rápido y, si no cabe, repite el
+         cálculo en BigInteger.
        ─────────────────────────────────────────────────────────────── */
-    private void sumar(int num1, int num2){
-        // Variable local que almacenará el resultado acumulado.
-        // Dominio: se usa como acumulador de la suma de todos los números
-        // entre num1 y num2 (inclusive).
-        int suma = 0;
-
-        // Aseguramos que el primer número sea el menor.
-        // Si los argumentos llegan invertidos, se intercambian.
-        // Así el bucle for podrá ir de menor a mayor sin errores.
-        if (num1 > num2){
-            int aux = num1;  // Variable auxiliar para intercambio de valores.
-            num1 = num2;
-            num2 = aux;
+    static long sumaRangoLong(long a, long b){
+        if (a > b) { long aux = a; a = b; b = aux; }
+
+        long extremos = Math.addExact(a, b);
+        long cantidad = Math.addExact(Math.subtractExact(b, a), 1);
+
+        return (extremos % 2 == 0)
+                ? Math.multiplyExact(extremos / 2, cantidad)
+                : Math.multiplyExact(extremos, cantidad / 2);
+    }
+
+    static BigInteger sumaRango(long a, long b){
+        try {
+            return BigInteger.valueOf(sumaRangoLong(a, b));
+        } catch (ArithmeticException desbordamiento) {
+            BigInteger ba = BigInteger.valueOf(Math.min(a, b));
+            BigInteger bb = BigInteger.valueOf(Math.max(a, b));
+            return ba.add(bb).multiply(bb.subtract(ba).add(BigInteger.ONE)).shiftRight(1);
         }
+    }
+
 
-        // Bucle que recorre todos los enteros desde num1 hasta num2.
-        // En cada iteración, añade el valor actual al acumulador "suma".
-        for (int i = num1; i <= num2; i++) {
-            suma += i;
+    /* ───────────────────────────────────────────────────────────────
+       BLOQUE 1.2: FUNCIONES POR ELEMENTO
+       ----------------------------------------------------------------
+       Para sumar f(i) en lugar de i ya no hay fórmula cerrada: hay que
+       recorrer el rango. Estas funciones simulan trabajo real por
+       elemento con resultados que caben holgadamente en un long:
+       - IDENTIDAD: f(i) = i (la suma clásica, para comparar).
+       - PRIMOS:    f(i) = i si i es primo, 0 si no (O(√i) por elemento).
+       - DIVISORES: f(i) = nº de divisores de |i| (O(√i) por elemento).
+       ─────────────────────────────────────────────────────────────── */
+    enum Funcion {
+        IDENTIDAD(i -> i),
+        PRIMOS(i -> esPrimo(i) ? i : 0),
+        DIVISORES(U1P03Sumador::numDivisores);
+
+        final LongUnaryOperator f;
+
+        Funcion(LongUnaryOperator f) {
+            this.f = f;
         }
+    }
 
-        // Al finalizar, se imprime el resultado formateado.
-        // Ejemplo: “La suma de los numeros entre 3 y 6 es: 18”
-        System.out.println("La suma de los numeros entre " + num1 +
-                " y " + num2 + " es: " + suma);
+    private static boolean esPrimo(long n){
+        if (n < 2) return false;
+        if (n % 2 == 0) return n == 2;
+        for (long d = 3; d * d <= n; d += 2)
+            if (n % d == 0) return false;
+        return true;
+    }
+
+    private static long numDivisores(long n){
+        n = Math.abs(n);
+        if (n == 0) return 0;
+        long divisores = 0;
+        for (long d = 1; d * d <= n; d++)
+            if (n % d == 0) divisores += (d * d == n) ? 1 : 2;
+        return divisores;
+    }
+
+    // Recorrido secuencial de [a, b] aplicando f: la unidad de trabajo de
+    // cada trozo, tanto en un hilo del ForkJoinPool como en un proceso hijo.
+    // Se sale con i == b ANTES de incrementar: con "i <= b" el bucle no
+    // terminaría nunca si b es Long.MAX_VALUE (i++ daría la vuelta).
+    // La suma usa Math.addExact: si no cabe en un long, ArithmeticException
+    // en vez de un resultado que ha dado la vuelta en silencio.
+    static long sumarSecuencial(long a, long b, Funcion funcion){
+        if (a > b) return 0;
+        long suma = 0;
+        long i = a;
+        do {
+            suma = Math.addExact(suma, funcion.f.applyAsLong(i));
+        } while (i++ != b);
+        return suma;
     }
 
 
+    /* ───────────────────────────────────────────────────────────────
+       BLOQUE 1.3: MODO TROCEADO EN EL MISMO PROCESO (ForkJoinPool)
+       ----------------------------------------------------------------
+       - SumaTrozo divide el rango por la mitad hasta que los trozos
+         tienen UMBRAL elementos o menos, que se suman secuencialmente.
+       - fork()/join() reparte los trozos entre los hilos del pool y
+         reduce las sumas parciales al volver de la recursión.
+       - b − a no cabe en un long con signo si el rango pasa de 2^63
+         elementos: se compara sin signo, y la mitad se calcula como
+         (a & b) + ((a ^ b) >> 1), que nunca se desborda.
+       ─────────────────────────────────────────────────────────────── */
+    private static final long UMBRAL = 10_000;
+
+    private static class SumaTrozo extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final long a, b;
+        private final Funcion funcion;
+
+        SumaTrozo(long a, long b, Funcion funcion) {
+            this.a = a;
+            this.b = b;
+            this.funcion = funcion;
+        }
+
+        @Override
+        protected Long compute() {
+            if (Long.compareUnsigned(b - a, UMBRAL) < 0)
+                return sumarSecuencial(a, b, funcion);
+
+            long mitad = (a & b) + ((a ^ b) >> 1);   // media redondeada hacia abajo: a <= mitad < b
+            SumaTrozo izquierda = new SumaTrozo(a, mitad, funcion);
+            izquierda.fork();
+            long derecha = new SumaTrozo(mitad + 1, b, funcion).compute();
+            return Math.addExact(izquierda.join(), derecha);
+        }
+    }
+
+    static long sumarParalelo(long a, long b, Funcion funcion){
+        return ForkJoinPool.commonPool().invoke(new SumaTrozo(Math.min(a, b), Math.max(a, b), funcion));
+    }
+
+
+    /* ───────────────────────────────────────────────────────────────
+       BLOQUE 1.4: MODO TROCEADO ENTRE PROCESOS
+       ----------------------------------------------------------------
+       - Divide [a, b] en 'trozos' subrangos contiguos.
+       - Cada subrango lo suma un proceso hijo que ejecuta esta clase con
+         "--trozo inicio fin FUNCION --binario"; el supervisor limita
+         cuántos hay vivos a la vez.
+       - El padre reduce las sumas parciales recibidas por las tramas.
+       - Un rango de más de Long.MAX_VALUE elementos no se puede contar
+         en un long: se rechaza con IllegalArgumentException.
+       ─────────────────────────────────────────────────────────────── */
+    static long sumarMultiproceso(SupervisorProcesos supervisor, long a, long b, Funcion funcion, int trozos){
+        long inicio = Math.min(a, b), fin = Math.max(a, b);
+        long total;
+        try {
+            total = Math.addExact(Math.subtractExact(fin, inicio), 1);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Rango demasiado grande para repartir: [" + inicio + ", " + fin + "]");
+        }
+        trozos = (int) Math.max(1, Math.min(trozos, total));
+
+        List<CompletableFuture<SupervisorProcesos.EjecucionHijo>> hijos = new ArrayList<>();
+        for (int t = 0; t < trozos; t++) {
+            // total * t / trozos se desbordaría con rangos grandes; así los
+            // primeros (total % trozos) trozos llevan un elemento más.
+            long desde = inicio + offsetTrozo(total, trozos, t);
+            long hasta = inicio + offsetTrozo(total, trozos, t + 1) - 1;
+            hijos.add(supervisor.lanzar(SupervisorProcesos.comandoJava(U1P03Sumador.class.getName(),
+                    MODO_TROZO, String.valueOf(desde), String.valueOf(hasta), funcion.name(),
+                    CanalResultados.MODO_BINARIO)));
+        }
+
+        long suma = 0;
+        for (CompletableFuture<SupervisorProcesos.EjecucionHijo> h : hijos) {
+            SupervisorProcesos.EjecucionHijo e = h.join();
+            if (!e.correcta() || e.trama() == null)
+                throw new IllegalStateException("Un trozo no devolvió resultado: " + e.error());
+            suma = Math.addExact(suma, e.trama().valores()[2]);
+        }
+        return suma;
+    }
+
+    // Primer elemento (relativo al inicio) del trozo t de 'trozos'.
+    private static long offsetTrozo(long total, int trozos, int t){
+        return total / trozos * t + Math.min(t, total % trozos);
+    }
+
+    // Argumento del modo trozo (lo usa sumarMultiproceso para los hijos).
+    static final String MODO_TROZO = "--trozo";
+
+
     /* ───────────────────────────────────────────────────────────────
        BLOQUE 2: MÉTDO PRINCIPAL (main)
        ----------------------------------------------------------------
@@ -69,10 +252,36 @@ public class U1P03Sumador {
         // que no es estático.
         U1P03Sumador test = new U1P03Sumador();
 
-        // Convierte los argumentos de tipo String a int y llama al método.
-        // Integer.parseInt() lanza excepción si no son números válidos.
+        // Con "--binario" como último argumento, el resultado se envía al
+        // padre como trama binaria por stdout (ver CanalResultados).
+        boolean binario = args.length > 0 && args[args.length - 1].equals(CanalResultados.MODO_BINARIO);
+
+        // Modo trozo: "--trozo a b FUNCION [--binario]" suma f(i) en [a, b].
+        if (args.length > 3 && args[0].equals(MODO_TROZO)) {
+            long a = Long.parseLong(args[1]);
+            long b = Long.parseLong(args[2]);
+            long suma = sumarSecuencial(Math.min(a, b), Math.max(a, b), Funcion.valueOf(args[3]));
+            if (binario)
+                CanalResultados.escribirEnSalidaEstandar(CanalResultados.TIPO_SUMA, Math.min(a, b), Math.max(a, b), suma);
+            else
+                System.out.println(suma);
+            return;
+        }
+
+        // Convierte los argumentos de tipo String a long y llama al método.
+        // Long.parseLong() lanza excepción si no son números válidos.
         // args[0] = primer número aleatorio
         // args[1] = segundo número aleatorio
-        test.sumar(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+        long num1 = Long.parseLong(args[0]);
+        long num2 = Long.parseLong(args[1]);
+
+        if (binario) {
+            // La trama lleva longs: si la suma no cabe en un long, se informa del error.
+            CanalResultados.escribirEnSalidaEstandar(CanalResultados.TIPO_SUMA,
+                    Math.min(num1, num2), Math.max(num1, num2), sumaRangoLong(num1, num2));
+            return;
+        }
+
+        test.sumar(num1, num2);
     }
 }
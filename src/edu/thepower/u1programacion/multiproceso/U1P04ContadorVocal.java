@@ -1,6 +1,11 @@
 package edu.thepower.u1programacion.multiproceso;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -21,8 +26,25 @@ import java.util.Map;
 //    java U1P04ContadorVocal a ./resources/texto.txt
 //
 // Resultado: muestra en consola cuántas veces aparece 'a' o 'á'.
+//
+// Modo trabajador (para procesos de larga duración):
+//    java U1P04ContadorVocal --worker
+// El proceso queda esperando peticiones "<vocal> <archivo>" o
+// "--todas <archivo>" por stdin y responde cada conteo por stdout
+// (ver BLOQUE 2.2).
+//
+// Modo todas las vocales (una sola lectura del archivo):
+//    java U1P04ContadorVocal --todas ./resources/texto.txt
+// Resultado: una línea compacta, p.ej. "a=120,e=98,i=45,o=77,u=30".
+// Con dos argumentos más se cuenta solo un trozo del archivo:
+//    java U1P04ContadorVocal --todas ./resources/texto.txt 0 1048576
+//
+// También es un Mapeador de MapReduce (ver BLOQUE 2.5).
+//
+// Modo trabajador por socket Unix (ver BLOQUE 2.6):
+//    java U1P04ContadorVocal --control /tmp/psp-123.sock
 // ───────────────────────────────────────────────────────────────
-public class U1P04ContadorVocal {
+public class U1P04ContadorVocal implements Mapeador {
 
     /* ─────────────────────────────────────────────────────────────
        BLOQUE 1: ESTRUCTURA DE DATOS ESTÁTICA (MAPA DE VOCALES)
@@ -43,6 +65,23 @@ public class U1P04ContadorVocal {
         VOCALES.put('u', 'ú');
     }
 
+    // Argumento que arranca el proceso en modo trabajador (ver BLOQUE 2.2).
+    static final String MODO_TRABAJADOR = "--worker";
+
+    // Mensajes del protocolo del modo trabajador. Son package-private porque
+    // el pool de procesos (U1P05PoolContadorVocal) habla el mismo protocolo.
+    static final String PING = "PING";
+    static final String PONG = "PONG";
+    static final String FIN = "FIN";
+    static final String ERROR = "ERROR";
+
+    // Argumento que arranca el modo "todas las vocales en una pasada" (ver BLOQUE 2.3).
+    static final String MODO_TODAS = "--todas";
+
+    // Orden fijo de las vocales en los resultados del modo --todas.
+    // El índice de cada vocal en este array es su posición en el long[] de conteos.
+    static final char[] ORDEN = EscanerVocales.ORDEN;
+
 
     /* ─────────────────────────────────────────────────────────────
        BLOQUE 2: MÉTDO contarVocal()
@@ -52,51 +91,202 @@ public class U1P04ContadorVocal {
        - Recibe:
            → char vocal: vocal base a buscar ('a', 'e', etc.)
            → String archivo: ruta al archivo de texto.
-       - Abre el archivo con BufferedReader y lo recorre línea por línea.
-       - Convierte cada línea a minúsculas para evitar errores
-         de coincidencia con mayúsculas.
-       - Incrementa un contador cada vez que encuentra la vocal.
-       - Si el archivo no existe o no se puede leer, muestra el error.
+       - Delega el conteo en contar() y muestra el resultado por consola.
        ───────────────────────────────────────────────────────────── */
     private void contarVocal(char vocal, String archivo) {
 
-        // Variable local que acumula el número de apariciones.
-        int contador = 0;
+        // Muestra el resultado final del conteo por consola.
+        System.out.println(contar(vocal, archivo));
+    }
 
-        // try-with-resources: garantiza que el archivo se cierre automáticamente
-        // después de usarlo, incluso si ocurre una excepción.
-        try (BufferedReader in = new BufferedReader(new FileReader(archivo))) {
 
-            String line;
-            // Se lee el archivo línea por línea hasta que no haya más.
-            while ((line = in.readLine()) != null) {
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2.1: MÉTDO contar()
+       ----------------------------------------------------------------
+       - Antes recorría el archivo con BufferedReader, pasaba cada línea
+         a minúsculas y comparaba carácter a carácter.
+       - Ahora cuenta sobre los bytes UTF-8 con EscanerVocales (8 bytes
+         por operación) a través de contarTodas(), y devuelve la vocal
+         pedida. Cuenta lo mismo: minúsculas, mayúsculas y tildes.
+       - Si el archivo no existe o no se puede leer, muestra el error.
+       - Devuelve el conteo en lugar de imprimirlo, para que lo puedan
+         reutilizar tanto el modo clásico como el modo trabajador.
+       - El recorrido cuenta las cinco a la vez: quien necesite varias
+         vocales del mismo archivo debe pedir --todas, no una a una.
+       ───────────────────────────────────────────────────────────── */
+    private int contar(char vocal, String archivo) {
+
+        int indice = new String(ORDEN).indexOf(vocal);
+        if (indice < 0)
+            throw new IllegalArgumentException("No es una vocal: " + vocal);
+
+        return Math.toIntExact(contarTodas(archivo, 0, Long.MAX_VALUE)[indice]);
+    }
 
-                // Convertimos tdo el texto a minúsculas
-                // para comparar sin distinguir entre mayúsculas y minúsculas.
-                line = line.toLowerCase();
 
-                // Recorremos cada carácter de la línea
-                for (int i = 0; i < line.length(); i++) {
-                    // Si el carácter actual coincide con la vocal base
-                    // o con su versión acentuada, aumentamos el contador.
-                    if (line.charAt(i) == vocal || line.charAt(i) == VOCALES.get(vocal))
-                        contador++;
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2.2: MODO TRABAJADOR (--worker)
+       ----------------------------------------------------------------
+       - El proceso no termina tras un conteo: se queda leyendo
+         peticiones por su entrada estándar, una por línea, y responde
+         por su salida estándar, también una línea por petición.
+       - Así el padre (U1P05PoolContadorVocal) paga el arranque de la
+         JVM una sola vez y reutiliza el proceso para muchos archivos.
+       - Protocolo (texto, UTF-8):
+           → "PING"            responde "PONG" (comprobación de salud)
+           → "<vocal> <ruta>"  responde el conteo, p.ej. "1234"
+           → "--todas <ruta>"  responde las 5 vocales en una sola pasada,
+                               p.ej. "a=120,e=98,i=45,o=77,u=30"
+           → "FIN"             el trabajador termina
+         Si una petición falla se responde "ERROR <mensaje>" y el
+         trabajador sigue vivo para la siguiente.
+       ───────────────────────────────────────────────────────────── */
+    private void trabajar() {
+
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), false, StandardCharsets.UTF_8);
+
+        try {
+            String peticion;
+            while ((peticion = in.readLine()) != null && !peticion.equals(FIN)) {
+
+                if (peticion.equals(PING)) {
+                    out.println(PONG);
+                } else if (peticion.startsWith(MODO_TODAS + " ")) {
+                    try {
+                        String ruta = peticion.substring(MODO_TODAS.length() + 1);
+                        out.println(formatear(contarTodas(ruta, 0, Long.MAX_VALUE)));
+                    } catch (RuntimeException e) {
+                        out.println(ERROR + " " + e.getMessage());
+                    }
+                } else {
+                    try {
+                        // La vocal es el primer carácter; la ruta, todo lo que va
+                        // detrás del primer espacio (admite rutas con espacios).
+                        char vocal = peticion.charAt(0);
+                        if (!VOCALES.containsKey(vocal) || peticion.length() < 3 || peticion.charAt(1) != ' ')
+                            throw new IllegalArgumentException("petición no válida: " + peticion);
+                        out.println(contar(vocal, peticion.substring(2)));
+                    } catch (RuntimeException e) {
+                        out.println(ERROR + " " + e.getMessage());
+                    }
                 }
+                // Sin flush el padre se quedaría esperando la respuesta en el buffer.
+                out.flush();
             }
+        } catch (IOException e) {
+            // El padre ha cerrado la tubería: no hay nadie a quien responder.
+            System.err.println("Trabajador sin canal de entrada: " + e.getMessage());
+        }
+    }
 
-        } catch (FileNotFoundException e) {
-            // Se lanza si el archivo no existe.
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2.3: MODO TODAS LAS VOCALES EN UNA PASADA (--todas)
+       ----------------------------------------------------------------
+       - Lanzar un proceso por vocal recorre el archivo una vez POR VOCAL.
+       - contarTodas() lo lee UNA sola vez: EscanerVocales mapea el
+         archivo en memoria con FileChannel.map() y clasifica 8 bytes
+         por operación, acumulando las 5 vocales a la vez en un long[].
+       - inicio/fin delimitan el rango de bytes [inicio, fin) a contar;
+         con 0 y Long.MAX_VALUE se cuenta el archivo completo.
+       - Devuelve un long[] indexado según ORDEN.
+       ───────────────────────────────────────────────────────────── */
+    static long[] contarTodas(String archivo, long inicio, long fin) {
+
+        try {
+            return EscanerVocales.contarArchivo(Path.of(archivo), inicio, fin);
+
+        } catch (NoSuchFileException e) {
             System.err.println("Archivo no encontrado: " + archivo);
             throw new RuntimeException(e);
 
         } catch (IOException e) {
-            // Error general de lectura (por ejemplo, permisos, encoding...).
             System.err.println("Error en lectura de archivo: " + archivo);
             throw new RuntimeException(e);
         }
+    }
 
-        // Muestra el resultado final del conteo por consola.
-        System.out.println(contador);
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2.4: REGISTRO COMPACTO DE RESULTADOS
+       ----------------------------------------------------------------
+       - El modo --todas imprime una sola línea con las 5 vocales:
+           a=120,e=98,i=45,o=77,u=30
+       - formatear() y parsear() son inversos; el padre usa parsear()
+         para recuperar el long[] del proceso hijo.
+       ───────────────────────────────────────────────────────────── */
+    static String formatear(long[] cuentas) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < ORDEN.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(ORDEN[i]).append('=').append(cuentas[i]);
+        }
+        return sb.toString();
+    }
+
+    static long[] parsear(String registro) {
+        long[] cuentas = new long[ORDEN.length];
+        for (String campo : registro.trim().split(",")) {
+            int i = new String(ORDEN).indexOf(campo.charAt(0));
+            if (i < 0 || campo.charAt(1) != '=')
+                throw new IllegalArgumentException("Registro de vocales no válido: " + registro);
+            cuentas[i] = Long.parseLong(campo.substring(2));
+        }
+        return cuentas;
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2.5: MAPEADOR DE MapReduce
+       ----------------------------------------------------------------
+       - Como Mapeador, cada línea se pasa por el mismo EscanerVocales
+         que usa --todas, así ambos modos cuentan igual.
+       - Las cuentas se acumulan en la instancia y se emiten una sola
+         vez por tarea en terminar() (5 pares en lugar de 5 por línea).
+       - Uso: java MapReduce edu...U1P04ContadorVocal
+              edu...Reductor$Suma <dirTrabajo> <archivo>...
+       ───────────────────────────────────────────────────────────── */
+    private final long[] cuentasMapa = new long[ORDEN.length];
+
+    @Override
+    public void mapear(String linea, Emisor emisor) {
+        EscanerVocales.contar(ByteBuffer.wrap(linea.getBytes(StandardCharsets.UTF_8)), cuentasMapa, false);
+    }
+
+    @Override
+    public void terminar(Emisor emisor) {
+        for (int i = 0; i < ORDEN.length; i++)
+            emisor.emitir(String.valueOf(ORDEN[i]), cuentasMapa[i]);
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2.6: TRABAJADOR POR CANAL DE CONTROL (--control)
+       ----------------------------------------------------------------
+       - Igual que el modo --worker, pero las peticiones llegan por un
+         socket de dominio Unix (ver CanalControl) y las respuestas son
+         tramas binarias.
+       - Peticiones admitidas:
+           "<vocal> <ruta>"                → TIPO_CONTEO   [conteo]
+           "--todas <ruta> <inicio> <fin>" → TIPO_VOCALES  [a, e, i, o, u]
+       ───────────────────────────────────────────────────────────── */
+    static CanalResultados.Trama atender(String peticion) {
+        if (peticion.startsWith(MODO_TODAS + " ")) {
+            // La ruta puede tener espacios: inicio y fin son los dos últimos campos.
+            String[] campos = peticion.substring(MODO_TODAS.length() + 1).split(" ");
+            if (campos.length < 3)
+                throw new IllegalArgumentException("petición no válida: " + peticion);
+            String ruta = String.join(" ", Arrays.copyOf(campos, campos.length - 2));
+            return new CanalResultados.Trama(CanalResultados.TIPO_VOCALES, contarTodas(ruta,
+                    Long.parseLong(campos[campos.length - 2]), Long.parseLong(campos[campos.length - 1])));
+        }
+
+        char vocal = peticion.isEmpty() ? ' ' : peticion.charAt(0);
+        if (!VOCALES.containsKey(vocal) || peticion.length() < 3 || peticion.charAt(1) != ' ')
+            throw new IllegalArgumentException("petición no válida: " + peticion);
+        return new CanalResultados.Trama(CanalResultados.TIPO_CONTEO,
+                new long[]{new U1P04ContadorVocal().contar(vocal, peticion.substring(2))});
     }
 
 
@@ -106,6 +296,15 @@ public class U1P04ContadorVocal {
        - Recibe los argumentos de línea de comandos:
          args[0] → vocal a contar
          args[1] → nombre o ruta del archivo.
+       - O bien un único argumento "--worker" para arrancar el modo
+         trabajador de larga duración (ver BLOQUE 2.2), o "--control
+         <socket>" para el mismo modo sobre socket Unix (BLOQUE 2.6).
+       - O bien "--todas <archivo> [inicio fin]" para contar las 5 vocales
+         en una sola pasada (ver BLOQUE 2.3), opcionalmente solo en el
+         rango de bytes [inicio, fin) que le asigna el padre.
+       - Cualquiera de los dos modos de conteo admite "--binario" como
+         último argumento: el resultado sale como trama binaria por
+         stdout (CanalResultados) en lugar de como texto.
        - Crea una instancia de la clase y llama a contarVocal().
        - Este main se usa cuando se ejecuta esta clase de forma individual
          o desde otro proceso (por ejemplo, con ProcessBuilder).
@@ -115,6 +314,44 @@ public class U1P04ContadorVocal {
         // Se crea un objeto de la clase (porque el métdo contarVocal no es estático)
         U1P04ContadorVocal test = new U1P04ContadorVocal();
 
+        if (args.length > 0 && args[0].equals(MODO_TRABAJADOR)) {
+            test.trabajar();
+            return;
+        }
+
+        if (args.length > 1 && args[0].equals(CanalControl.MODO_CONTROL)) {
+            try {
+                CanalControl.servir(args[1], U1P04ContadorVocal::atender);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return;
+        }
+
+        // Si el último argumento es "--binario", el resultado se devuelve
+        // como trama binaria por stdout (ver CanalResultados) en lugar de texto.
+        boolean binario = args.length > 0 && args[args.length - 1].equals(CanalResultados.MODO_BINARIO);
+        if (binario)
+            args = Arrays.copyOf(args, args.length - 1);
+
+        if (args.length > 1 && args[0].equals(MODO_TODAS)) {
+            // Opcionalmente, un rango de bytes [inicio, fin) del archivo.
+            long inicio = args.length > 3 ? Long.parseLong(args[2]) : 0;
+            long fin = args.length > 3 ? Long.parseLong(args[3]) : Long.MAX_VALUE;
+            long[] cuentas = contarTodas(args[1], inicio, fin);
+            if (binario)
+                CanalResultados.escribirEnSalidaEstandar(CanalResultados.TIPO_VOCALES, cuentas);
+            else
+                System.out.println(formatear(cuentas));
+            return;
+        }
+
+        if (binario) {
+            CanalResultados.escribirEnSalidaEstandar(CanalResultados.TIPO_CONTEO,
+                    test.contar(args[0].charAt(0), args[1]));
+            return;
+        }
+
         // Se llama al métdo contarVocal, pasando:
         // - la primera letra del primer argumento como vocal,
         // - la ruta del archivo como segundo argumento.
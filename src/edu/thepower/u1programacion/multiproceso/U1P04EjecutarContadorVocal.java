@@ -1,27 +1,63 @@
 package edu.thepower.u1programacion.multiproceso;
 
 import java.io.*;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 // ───────────────────────────────────────────────────────────────
 // COMENTARIO GENERAL DEL PROGRAMA
 // ----------------------------------------------------------------
 // Este programa lanza 5 procesos hijos (uno por vocal a, e, i, o, u)
-// que ejecutan la clase U1P04ContadorVocal como proceso independiente,
-// redirigiendo la salida de cada proceso a un archivo distinto.
+// que ejecutan la clase U1P04ContadorVocal como proceso independiente.
+// Cada hijo devuelve su conteo por la tubería de su salida estándar,
+// como trama binaria (ver CanalResultados): no se usan ficheros
+// intermedios, así que dos ejecuciones simultáneas no se pisan.
 //
 // Flujo:
-//  1) Prepara constantes para construir el comando: java -cp <ruta> <Clase> <vocal> <archivo>
-//  2) Crea el directorio "salida/" si no existe.
-//  3) Lanza 5 procesos (uno por cada vocal) con ProcessBuilder, redirigiendo su salida a ./salida/<vocal>.txt
-//  4) Espera a que terminen TODOS los procesos (waitFor()).
-//  5) Lee los ficheros generados, muestra los conteos y calcula el total.
+//  1) Prepara los argumentos de cada hijo: <vocal> <archivo> --binario
+//  2) Lanza 5 hijos (uno por cada vocal) con un Lanzador:
+//     LanzadorProceso (una JVM por hijo) o, con --aislado,
+//     LanzadorAislado (el main() del hijo dentro de esta JVM).
+//  3) Cada hijo es un CompletableFuture (LanzadorProceso lo compone con
+//     Process.onExit() y la lectura de su stdout/stderr): sin waitFor()
+//     en orden de lanzamiento, cada hijo se procesa en cuanto termina y
+//     se muestra el total parcial acumulado.
+//  4) Si un hijo supera TIMEOUT_HIJO_MS se abandona: el Lanzador mata su
+//     árbol de procesos (o interrumpe su hilo, si es aislado).
+//  5) Al final muestra los conteos, el total y la latencia de cada hijo.
+//
+// --aislado sirve para el modo por vocal, --rangos y --cache. Los modos
+// --mapreduce y --socket necesitan procesos de verdad y lo ignoran.
 //
 // Objetivo didáctico:
 //  - Practicar multiproceso con ProcessBuilder
-//  - Redirección de stdout/stderr a ficheros
-//  - Sincronización padre–hijo con waitFor()
+//  - Comunicación padre–hijo por tuberías (stdout del hijo)
+//  - Sincronización padre–hijo con futuros (Process.onExit() dentro de
+//    LanzadorProceso + CompletableFuture aquí)
+//
+// Modo por rangos (java U1P04EjecutarContadorVocal --rangos [n]):
+//  Un proceso por vocal limita el paralelismo a 5 aunque haya más
+//  núcleos. En este modo el archivo se divide en n trozos de bytes
+//  (por defecto, uno por núcleo) y cada hijo cuenta LAS 5 VOCALES de
+//  su trozo con U1P04ContadorVocal --todas. El padre suma los parciales.
+//
+// Modo MapReduce (java U1P04EjecutarContadorVocal --mapreduce):
+//  El mismo conteo con el motor genérico MapReduce, usando
+//  U1P04ContadorVocal como Mapeador.
+//
+// Modo socket (java U1P04EjecutarContadorVocal --socket [n] [rondas]):
+//  Arranca n trabajadores UNA vez y les envía muchos trabajos por un
+//  socket de dominio Unix (CanalControl), sin relanzar procesos.
+//
+// Modo caché (java U1P04EjecutarContadorVocal --cache [n]):
+//  Consulta primero CacheHistogramas; solo si el archivo ha cambiado
+//  (o nunca se contó) se cuenta con --rangos y se guarda el resultado.
 // ───────────────────────────────────────────────────────────────
 public class U1P04EjecutarContadorVocal {
 
@@ -29,18 +65,10 @@ public class U1P04EjecutarContadorVocal {
        BLOQUE 1: CONSTANTES DE CONFIGURACIÓN DEL PROCESO
        ----------------------------------------------------------------
        Todas son final porque no cambian durante la ejecución y se
-       usan para ensamblar el comando y las rutas de salida.
+       usan para ensamblar el comando de cada proceso hijo.
        ───────────────────────────────────────────────────────────── */
 
-    // Ejecutable de la JVM para lanzar el proceso hijo.
-    private static final String JAVA = "java";
-
-    // Opción de la JVM para indicar el classpath que usará el proceso hijo.
-    private static final String CP = "-cp";
-
-    // Ruta a los .class compilados para que el proceso hijo encuentre la clase a ejecutar.
-    // Dominio: sin un classpath correcto, el hijo no podría cargar U1P04ContadorVocal.
-    private static final String CLASSPATH = "C:\\Users\\AlumnoAfternoon\\Documents\\PSP\\out\\production\\PSP";
+    // La JVM y el classpath del hijo los pone el Lanzador (los del padre).
 
     // Clase con main() que contará las vocales. Se ejecuta en el proceso hijo.
     private static final String CLASE = "edu.thepower.u1programacion.multiproceso.U1P04ContadorVocal";
@@ -51,105 +79,403 @@ public class U1P04EjecutarContadorVocal {
     // Conjunto de vocales a procesar (un proceso por cada entrada).
     private static final String[] VOCALES = {"a","e","i","o","u"};
 
-    // Carpeta donde se volcarán los resultados de cada proceso hijo.
-    private static final String SALIDA = "./salida/";
+    // Argumento del modo por rangos.
+    private static final String MODO_RANGOS = "--rangos";
+
+    // Argumento del modo MapReduce y directorio de trabajo que usa.
+    private static final String MODO_MAPREDUCE = "--mapreduce";
+    private static final String DIR_MAPREDUCE = "./salida/mapreduce";
+
+    // Argumento del modo con trabajadores permanentes por socket Unix.
+    private static final String MODO_SOCKET = "--socket";
+
+    // Modo caché: resultados guardados entre ejecuciones.
+    private static final String MODO_CACHE = "--cache";
+    private static final String DIR_CACHE = "./salida/cache";
+    private static final int CAPACIDAD_CACHE = 256;
+
+    // Tamaño mínimo de un trozo: por debajo no compensa arrancar otra JVM.
+    private static final long TROZO_MINIMO = 1024 * 1024;
+
+    // Tiempo máximo que se espera a cada hijo. Pasado este tiempo se le mata
+    // (a él y a todos sus descendientes) y se continúa con los demás.
+    private static final long TIMEOUT_HIJO_MS = 60_000;
+
 
-    // Extensión de los archivos de resultado. Cada proceso escribe un número en <vocal>.txt
-    private static final String EXTENSION = ".txt";
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1.1: RESULTADO DE UN HIJO
+       ----------------------------------------------------------------
+       - indice: posición del trabajo (vocal o rango) que lo lanzó.
+       - pid: el del proceso hijo (-1 si es aislado o se abandonó).
+       - trama: resultado recibido, o null si el hijo falló.
+       - codigoSalida: el del hijo, o -1 si hubo que abandonarlo.
+       - latenciaMs: desde el lanzamiento hasta que se tuvo el resultado.
+       - error: causa del fallo (timeout, sin trama...), o null.
+       ───────────────────────────────────────────────────────────── */
+    record ResultadoHijo(int indice, long pid, CanalResultados.Trama trama,
+                         int codigoSalida, long latenciaMs, Throwable error) {
+
+        boolean correcto() {
+            return error == null && codigoSalida == 0;
+        }
+    }
 
 
     /* ─────────────────────────────────────────────────────────────
-       BLOQUE 2: MÉTDO PRINCIPAL – ORQUESTA LOS PROCESOS HIJOS
+       BLOQUE 2: MÉTDO PRINCIPAL – ELIGE EL MODO
        ----------------------------------------------------------------
-       - Crea el directorio de salida si no existe.
-       - Lanza un proceso por vocal.
-       - Espera a que todos terminen.
-       - Lee los ficheros de salida y suma los resultados.
+       - Sin argumentos: un proceso por vocal (BLOQUE 3).
+       - "--rangos [n]": un proceso por trozo del archivo (BLOQUE 4).
+       - "--mapreduce": el mismo conteo con el motor MapReduce (BLOQUE 6).
+       - "--socket [n] [rondas]": n trabajadores permanentes a los que se
+         envían trabajos por socket Unix (BLOQUE 7).
+       - "--cache [n]": como --rangos, pero reutilizando el resultado de
+         ejecuciones anteriores si el archivo no ha cambiado (BLOQUE 8).
+       "--aislado", en cualquier posición, elige LanzadorAislado.
        ───────────────────────────────────────────────────────────── */
     public static void main(String[] args) {
 
-        // Lista para retener los objetos Process devueltos por pb.start().
-        // Dominio: necesitamos esperar a que todos acaben → waitFor() a cada uno.
-        List<Process> procesos = new ArrayList<>();
-
-        // ───── Paso 1: crear/validar el directorio de salida ─────
-        File directorioSalida = new File("salida");
-        if (directorioSalida.mkdir())
-            System.out.println("El directorio de salida se ha creado satisfactoriamente");
-        else
-            System.err.println("El directorio de salida ya existe, melón");
-
-        // ───── Paso 2: lanzar un proceso por cada vocal ─────
-        for (int i = 0; i < VOCALES.length; i++) {
-            // Construye el comando:
-            // java -cp <CLASSPATH> <CLASE> <vocal> <archivo>
-            ProcessBuilder pb = new ProcessBuilder(JAVA, CP, CLASSPATH, CLASE, VOCALES[i], ARCHIVO);
-
-            // Redirige la salida estándar del hijo a un fichero: ./salida/<vocal>.txt
-            // Cada proceso escribirá un entero (el conteo) en su propio archivo.
-            pb.redirectOutput(new File(SALIDA + VOCALES[i] + EXTENSION));
-
-            // Redirige la salida de error del hijo a la consola del padre (útil para ver fallos).
-            pb.redirectError(ProcessBuilder.Redirect.INHERIT);
-
-            try {
-                // Lanza el proceso hijo de forma asíncrona y guarda el handle.
-                procesos.add(pb.start());
-            } catch (IOException e) {
-                // Si no se puede lanzar el proceso (classpath mal, clase no encontrada, etc.), abortamos.
-                throw new RuntimeException(e);
-            }
+        // Como mucho un hijo por núcleo a la vez; el resto espera turno.
+        try (Lanzador lanzador = Lanzador.segun(args, Runtime.getRuntime().availableProcessors())) {
+            elegirModo(Lanzador.sinModo(args), lanzador);
+        }
+    }
+
+    private static void elegirModo(String[] args, Lanzador lanzador) {
+
+        if (args.length > 0 && args[0].equals(MODO_RANGOS)) {
+            int procesos = args.length > 1
+                    ? Integer.parseInt(args[1])
+                    : Runtime.getRuntime().availableProcessors();
+            contarPorRangos(lanzador, procesos);
+        } else if (args.length > 0 && args[0].equals(MODO_MAPREDUCE)) {
+            contarConMapReduce();
+        } else if (args.length > 0 && args[0].equals(MODO_SOCKET)) {
+            int trabajadores = args.length > 1
+                    ? Integer.parseInt(args[1])
+                    : Runtime.getRuntime().availableProcessors();
+            int rondas = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+            contarConTrabajadores(trabajadores, rondas);
+        } else if (args.length > 0 && args[0].equals(MODO_CACHE)) {
+            int procesos = args.length > 1
+                    ? Integer.parseInt(args[1])
+                    : Runtime.getRuntime().availableProcessors();
+            contarConCache(lanzador, procesos);
+        } else {
+            contarUnProcesoPorVocal(lanzador);
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 3: UN PROCESO POR VOCAL – ORQUESTA LOS PROCESOS HIJOS
+       ----------------------------------------------------------------
+       - Lanza un proceso por vocal en modo --binario.
+       - Muestra cada vocal y el total acumulado según van terminando
+         los hijos (no en el orden en que se lanzaron).
+       ───────────────────────────────────────────────────────────── */
+    private static void contarUnProcesoPorVocal(Lanzador lanzador) {
+
+        List<String[]> trabajos = new ArrayList<>();
+        for (String vocal : VOCALES)
+            trabajos.add(new String[]{vocal, ARCHIVO, CanalResultados.MODO_BINARIO});
+
+        // Total acumulado. Solo lo toca el callback, que ejecutar() serializa.
+        long[] acumulador = {0};
+
+        List<ResultadoHijo> resultados = ejecutar(lanzador, trabajos, r -> {
+            long n = r.trama().valores()[0];
+            acumulador[0] += n;
+            System.out.println("El número de vocales " + VOCALES[r.indice()] + " es: " + n
+                    + " (" + r.latenciaMs() + " ms) → total parcial: " + acumulador[0]);
+        });
+
+        // Muestra el total de vocales (suma de todas las vocales contadas por los procesos).
+        System.out.println("El total de vocales es: " + acumulador[0]);
+        mostrarLatencias(resultados);
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 4: UN PROCESO POR TROZO DEL ARCHIVO (--rangos)
+       ----------------------------------------------------------------
+       - Divide el archivo en rangos de bytes (calcularRangos()).
+       - Lanza un hijo por rango:
+           java ... U1P04ContadorVocal --todas <archivo> <inicio> <fin> --binario
+       - Suma vocal a vocal los conteos parciales según llegan y muestra
+         el acumulado tras cada hijo.
+       El número de hijos escala con los núcleos, no con las vocales.
+       Devuelve los conteos finales (los usa el modo --cache). Si algún
+       hijo falla, el conteo está incompleto: se lanza una excepción en
+       lugar de devolverlo (la caché no debe guardar nunca un parcial).
+       ───────────────────────────────────────────────────────────── */
+    private static long[] contarPorRangos(Lanzador lanzador, int procesos) {
+
+        long[][] rangos;
+        try {
+            rangos = calcularRangos(ARCHIVO, procesos);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
 
-        System.out.println("Finalizado el conteo de vocales.");
+        List<String[]> trabajos = new ArrayList<>();
+        for (long[] rango : rangos)
+            trabajos.add(new String[]{U1P04ContadorVocal.MODO_TODAS, ARCHIVO,
+                    String.valueOf(rango[0]), String.valueOf(rango[1]), CanalResultados.MODO_BINARIO});
 
-        // ───── Paso 3: sincronización – esperar a que todos los hijos terminen ─────
-        for (Process proceso : procesos) {
-            try {
-                proceso.waitFor(); // Bloquea hasta que el proceso hijo finaliza.
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
+        // ───── Fusionar los conteos parciales según van llegando ─────
+        long[] total = new long[U1P04ContadorVocal.ORDEN.length];
+        List<ResultadoHijo> resultados = ejecutar(lanzador, trabajos, r -> {
+            for (int v = 0; v < total.length; v++)
+                total[v] += r.trama().valores()[v];
+            System.out.println("Trozo " + r.indice() + " listo (" + r.latenciaMs() + " ms) → acumulado: "
+                    + U1P04ContadorVocal.formatear(total));
+        });
+
+        long acumulador = 0;
+        for (int v = 0; v < total.length; v++) {
+            System.out.println("El número de vocales " + U1P04ContadorVocal.ORDEN[v] + " es: " + total[v]);
+            acumulador += total[v];
+        }
+        System.out.println("Procesos utilizados: " + rangos.length);
+        System.out.println("El total de vocales es: " + acumulador);
+        mostrarLatencias(resultados);
+
+        long fallidos = resultados.stream().filter(r -> !r.correcto()).count();
+        if (fallidos > 0)
+            throw new IllegalStateException(fallidos + " de " + rangos.length
+                    + " procesos han fallado: el conteo está incompleto");
+        return total;
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 4.1: ORQUESTACIÓN ASÍNCRONA DE LOS HIJOS
+       ----------------------------------------------------------------
+       - Lanza CLASE con los argumentos de cada trabajo a través del
+         Lanzador (stdout capturado, stderr se muestra si falla).
+       - Para cada hijo se compone:
+           lanzador.lanzar() → trama leída de su stdout → ResultadoHijo
+         con un orTimeout() de TIMEOUT_HIJO_MS. El futuro de lanzar() ya
+         combina Process.onExit() con la lectura de stdout y stderr (ver
+         LanzadorProceso): ningún hilo se queda esperando al hijo.
+       - Si un hijo se pasa de tiempo su futuro se completa con error y
+         el Lanzador lo detiene (en LanzadorProceso, destroyForcibly()
+         de él y de todos sus descendientes).
+       - alTerminar se llama con cada hijo CORRECTO en cuanto termina, en
+         orden de finalización. Las llamadas se serializan, así que el
+         callback puede acumular sin sincronización propia.
+       - Devuelve los resultados de todos los hijos en orden de trabajo.
+       ───────────────────────────────────────────────────────────── */
+    private static List<ResultadoHijo> ejecutar(Lanzador lanzador, List<String[]> trabajos,
+                                                Consumer<ResultadoHijo> alTerminar) {
+
+        List<CompletableFuture<ResultadoHijo>> pendientes = new ArrayList<>();
+        Object cerrojo = new Object();
+
+        for (int i = 0; i < trabajos.size(); i++) {
+            int indice = i;
+            long inicio = System.nanoTime();
+
+            CompletableFuture<ResultadoHijo> hijo = lanzador.lanzar(CLASE, trabajos.get(i))
+                    .orTimeout(TIMEOUT_HIJO_MS, TimeUnit.MILLISECONDS)
+                    .thenApply(r -> leerResultado(indice, r))
+                    .exceptionally(e -> new ResultadoHijo(indice, -1, null, -1, milisDesde(inicio),
+                            e instanceof CompletionException ? e.getCause() : e))
+                    .thenApply(r -> {
+                        synchronized (cerrojo) {
+                            if (r.correcto())
+                                alTerminar.accept(r);
+                            else
+                                System.err.println("El hijo " + r.indice() + " (pid " + r.pid() + ") ha fallado (código "
+                                        + r.codigoSalida() + "): " + r.error());
+                        }
+                        return r;
+                    });
+            pendientes.add(hijo);
+        }
+
+        CompletableFuture.allOf(pendientes.toArray(new CompletableFuture<?>[0])).join();
+
+        List<ResultadoHijo> resultados = new ArrayList<>();
+        for (CompletableFuture<ResultadoHijo> f : pendientes)
+            resultados.add(f.join());
+        return resultados;
+    }
+
+    // Trama del stdout del hijo. Sin trama (o con código distinto de 0)
+    // el hijo cuenta como fallido y su stderr va en el error.
+    private static ResultadoHijo leerResultado(int indice, Lanzador.Resultado r) {
+        long latencia = r.latencia().toMillis();
+        if (r.codigoSalida() != 0)
+            return new ResultadoHijo(indice, r.pid(), null, r.codigoSalida(), latencia,
+                    new IllegalStateException(r.errorTexto().strip()));
+        try {
+            return new ResultadoHijo(indice, r.pid(), r.trama(), 0, latencia, null);
+        } catch (IOException e) {
+            return new ResultadoHijo(indice, r.pid(), null, 0, latencia, e);
+        }
+    }
+
+    private static long milisDesde(long inicioNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicioNanos);
+    }
+
+    // Resumen final: latencia de cada hijo, en el orden en que se lanzaron.
+    private static void mostrarLatencias(List<ResultadoHijo> resultados) {
+        System.out.println("Latencia por hijo:");
+        for (ResultadoHijo r : resultados)
+            System.out.println("  [" + r.indice() + "] pid " + r.pid() + ": " + r.latenciaMs() + " ms"
+                    + (r.correcto() ? "" : " (FALLIDO)"));
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 5: CÁLCULO DE RANGOS SEGUROS PARA UTF-8
+       ----------------------------------------------------------------
+       - Reparte el tamaño del archivo en 'partes' rangos [inicio, fin)
+         contiguos que cubren todo el archivo sin solaparse.
+       - Un corte no puede caer en mitad de un carácter multibyte: si el
+         byte donde cae es de continuación (10xxxxxx) se avanza hasta el
+         inicio del siguiente carácter. Así ningún hijo ve media 'á'.
+       - Nunca genera trozos menores que TROZO_MINIMO (salvo si el archivo
+         entero es más pequeño), para no lanzar JVMs casi sin trabajo.
+       ───────────────────────────────────────────────────────────── */
+    static long[][] calcularRangos(String archivo, int partes) throws IOException {
+
+        try (RandomAccessFile raf = new RandomAccessFile(archivo, "r")) {
+
+            long tamano = raf.length();
+            partes = (int) Math.max(1, Math.min(partes, tamano / TROZO_MINIMO));
+
+            List<long[]> rangos = new ArrayList<>();
+            long inicio = 0;
+            for (int i = 1; i <= partes && inicio < tamano; i++) {
+                long fin = i == partes ? tamano : Math.max(inicio, tamano * i / partes);
+                fin = inicioDeCaracter(raf, fin, tamano);
+                if (fin > inicio) {
+                    rangos.add(new long[]{inicio, fin});
+                    inicio = fin;
+                }
             }
+            return rangos.toArray(new long[0][]);
         }
+    }
 
-        // ───── Paso 4: leer los ficheros de salida y acumular el total ─────
-        // Mostrar por consola el número total de cada vocal y, aparte, sumar el total.
-        int acumulador = 0;
+    // Avanza 'posicion' mientras apunte a un byte de continuación UTF-8.
+    private static long inicioDeCaracter(RandomAccessFile raf, long posicion, long tamano) throws IOException {
+        while (posicion < tamano) {
+            raf.seek(posicion);
+            if ((raf.read() & 0xC0) != 0x80) break;
+            posicion++;
+        }
+        return posicion;
+    }
 
-        for (int i = 0; i < VOCALES.length; i++) {
-            BufferedReader br = null;
-            try {
-                // Abre el archivo de salida generado por el proceso de esa vocal.
-                br = new BufferedReader(new FileReader(SALIDA + VOCALES[i] + EXTENSION));
 
-                // Cada fichero debe contener una sola línea con un número (conteo de esa vocal).
-                int n = Integer.parseInt(br.readLine());
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 6: MODO MAPREDUCE (--mapreduce)
+       ----------------------------------------------------------------
+       - U1P04ContadorVocal hace de Mapeador y Reductor.Suma de reductor.
+       - MapReduce se encarga de trocear, lanzar un hijo por trozo (uno
+         por núcleo a la vez), combinar, volcar a disco y reducir.
+       - Es más lento que --rangos para 5 claves, pero es el mismo motor
+         que sirve para palabras, n-gramas o logs mayores que la RAM.
+       ───────────────────────────────────────────────────────────── */
+    private static void contarConMapReduce() {
 
-                // Muestra el resultado por vocal.
-                System.out.println("El número de vocales " + VOCALES[i] + " es: " + n);
+        MapReduce.Trabajo trabajo = new MapReduce.Trabajo(U1P04ContadorVocal.class, Reductor.Suma.class,
+                List.of(Path.of(ARCHIVO)), Path.of(DIR_MAPREDUCE));
 
-                // Suma al acumulador global.
-                acumulador += n;
+        MapReduce.Resumen resumen = MapReduce.ejecutar(trabajo);
 
-            } catch (IOException e) {
-                // Errores de I/O: no se puede abrir/leer el fichero de salida.
-                throw new RuntimeException(e);
+        long[] acumulador = {0};
+        MapReduce.recorrerResultado(trabajo.directorio(), trabajo.particiones(), (vocal, n) -> {
+            System.out.println("El número de vocales " + vocal + " es: " + n);
+            acumulador[0] += n;
+        });
+        System.out.println("El total de vocales es: " + acumulador[0]);
+        System.out.println(resumen);
+    }
 
-            } catch (NumberFormatException e) {
-                // El archivo no contenía un número (posible error en el proceso hijo).
-                System.err.println("El archivo " + SALIDA + VOCALES[i] + EXTENSION + " no contenía un número.");
 
-            } finally {
-                // Cierra el lector si llegó a abrirse.
-                try {
-                    if (br != null) br.close();
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 7: TRABAJADORES PERMANENTES POR SOCKET UNIX (--socket)
+       ----------------------------------------------------------------
+       - Arranca 'trabajadores' hijos en modo --control (una JVM cada
+         uno, una sola vez).
+       - Cada ronda cuenta el archivo completo: lo divide en rangos y
+         envía cada rango al trabajador con menos trabajos pendientes,
+         sin esperar respuesta (los trabajos se encadenan por el socket).
+       - Al final se apagan los trabajadores de forma ordenada.
+       ───────────────────────────────────────────────────────────── */
+    private static void contarConTrabajadores(int trabajadores, int rondas) {
+
+        long[][] rangos;
+        try {
+            rangos = calcularRangos(ARCHIVO, trabajadores * 4);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        List<CanalControl> canales = new ArrayList<>();
+        try {
+            long arranque = System.nanoTime();
+            for (int i = 0; i < trabajadores; i++)
+                canales.add(CanalControl.arrancar(CLASE));
+            System.out.println(trabajadores + " trabajadores conectados en "
+                    + (System.nanoTime() - arranque) / 1_000_000 + " ms");
+
+            long inicio = System.nanoTime();
+            long[] total = new long[U1P04ContadorVocal.ORDEN.length];
+            for (int ronda = 0; ronda < rondas; ronda++) {
+                List<CompletableFuture<CanalResultados.Trama>> parciales = new ArrayList<>();
+                for (long[] rango : rangos) {
+                    CanalControl libre = canales.get(0);
+                    for (CanalControl c : canales)
+                        if (c.pendientes() < libre.pendientes()) libre = c;
+                    parciales.add(libre.enviar(U1P04ContadorVocal.MODO_TODAS + " " + ARCHIVO + " " + rango[0] + " " + rango[1]));
+                }
+                Arrays.fill(total, 0);
+                for (CompletableFuture<CanalResultados.Trama> f : parciales) {
+                    long[] v = f.join().valores();
+                    for (int i = 0; i < total.length; i++) total[i] += v[i];
                 }
             }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+
+            System.out.println("Última ronda: " + U1P04ContadorVocal.formatear(total)
+                    + " → total " + Arrays.stream(total).sum());
+            System.out.printf("%d trabajos en %d rondas: %.2f s → %.1f trabajos/s%n",
+                    rondas * rangos.length, rondas, segundos, rondas * rangos.length / segundos);
+
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            canales.forEach(CanalControl::close);
         }
+    }
 
-        // Muestra el total de vocales (suma de todas las vocales contadas por los procesos).
-        System.out.println("El total de vocales es: " + acumulador);
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 8: MODO CACHÉ (--cache)
+       ----------------------------------------------------------------
+       - Si el archivo no ha cambiado desde la última cuenta (mismos
+         tamaño y fecha, o mismo contenido), el resultado sale de disco
+         sin lanzar ningún hijo.
+       - Si no, se cuenta con --rangos y se guarda para la próxima vez.
+       ───────────────────────────────────────────────────────────── */
+    private static void contarConCache(Lanzador lanzador, int procesos) {
+
+        long inicio = System.nanoTime();
+        try (CacheHistogramas cache = new CacheHistogramas(Path.of(DIR_CACHE), CAPACIDAD_CACHE)) {
+            long[] total = cache.obtener(Path.of(ARCHIVO), "vocales", archivo -> contarPorRangos(lanzador, procesos));
+
+            System.out.println("Conteo: " + U1P04ContadorVocal.formatear(total) + " → total " + Arrays.stream(total).sum()
+                    + " (" + milisDesde(inicio) + " ms)");
+            System.out.println(cache);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
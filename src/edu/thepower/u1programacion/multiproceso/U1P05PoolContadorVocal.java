@@ -0,0 +1,413 @@
+package edu.thepower.u1programacion.multiproceso;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL DEL PROGRAMA
+// ----------------------------------------------------------------
+// U1P04EjecutarContadorVocal lanza una JVM nueva por cada vocal y por
+// cada archivo: con archivos pequeños casi todo el tiempo se va en
+// arrancar la máquina virtual, no en contar.
+//
+// Este programa mantiene un POOL de procesos trabajadores de larga
+// duración (U1P04ContadorVocal --worker). Cada trabajador recibe
+// peticiones por su stdin y responde por su stdout, así que la JVM
+// se arranca una vez y se reutiliza para todos los archivos.
+//
+// Funcionalidades:
+//  - Tamaño del pool configurable.
+//  - Comprobación de salud periódica (PING/PONG) y sustitución de
+//    los trabajadores caídos o que no responden.
+//  - Reutilización entre archivos: contarVocales(archivo) pide las 5
+//    vocales a un trabajador en una sola petición ("--todas"), que
+//    recorre el archivo una vez; contarVocales(archivos) reparte los
+//    archivos entre los trabajadores libres.
+//  - main(): benchmark que compara archivos/segundo del modelo clásico
+//    (un proceso por vocal) frente al pool.
+//
+// Ejemplo:
+//    java U1P05PoolContadorVocal 5 20 ./resources/vocales.txt
+//    (tamaño del pool, repeticiones, archivos...)
+// ───────────────────────────────────────────────────────────────
+public class U1P05PoolContadorVocal implements AutoCloseable {
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: CONSTANTES DE CONFIGURACIÓN
+       ───────────────────────────────────────────────────────────── */
+
+    // Ejecutable de la JVM actual: el hijo usa la misma versión de Java que el padre.
+    private static final String JAVA = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+    // Opción de la JVM para indicar el classpath que usará el proceso hijo.
+    private static final String CP = "-cp";
+
+    // Se hereda el classpath del padre en lugar de una ruta fija de un equipo concreto.
+    private static final String CLASSPATH = System.getProperty("java.class.path");
+
+    // Clase con main() que hará de trabajador.
+    private static final String CLASE = "edu.thepower.u1programacion.multiproceso.U1P04ContadorVocal";
+
+    // Archivo por defecto para el benchmark.
+    private static final String ARCHIVO = "./resources/vocales.txt";
+
+    // Vocales que se cuentan por archivo (un proceso por vocal en el modelo clásico).
+    private static final String[] VOCALES = {"a", "e", "i", "o", "u"};
+
+    // Tiempo máximo que se espera la respuesta a un PING.
+    private static final long TIMEOUT_SALUD_MS = 2_000;
+
+    // Cada cuánto se revisan los trabajadores libres por defecto.
+    private static final long INTERVALO_SALUD_MS = 5_000;
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: TRABAJADOR (un proceso hijo y sus tuberías)
+       ----------------------------------------------------------------
+       - Encapsula el Process y los dos extremos de la comunicación:
+         escritor hacia su stdin y lector desde su stdout.
+       - Un trabajador solo lo usa un hilo a la vez (lo garantiza la
+         cola de libres), por eso no necesita sincronización propia.
+       ───────────────────────────────────────────────────────────── */
+    private static class Trabajador {
+
+        private final Process proceso;
+        private final BufferedWriter peticiones;
+        private final BufferedReader respuestas;
+
+        Trabajador() throws IOException {
+            ProcessBuilder pb = new ProcessBuilder(JAVA, CP, CLASSPATH, CLASE, U1P04ContadorVocal.MODO_TRABAJADOR);
+            // Los errores del hijo se ven en la consola del padre.
+            pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+            proceso = pb.start();
+            peticiones = new BufferedWriter(new OutputStreamWriter(proceso.getOutputStream(), StandardCharsets.UTF_8));
+            respuestas = new BufferedReader(new InputStreamReader(proceso.getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        // Envía una línea y espera la línea de respuesta.
+        String peticion(String linea) throws IOException {
+            peticiones.write(linea);
+            peticiones.newLine();
+            peticiones.flush();
+            String respuesta = respuestas.readLine();
+            if (respuesta == null)
+                throw new IOException("El trabajador " + proceso.pid() + " ha terminado");
+            return respuesta;
+        }
+
+        // PING con límite de tiempo: se sondea ready() para no quedarse
+        // bloqueado en readLine() si el hijo está colgado.
+        boolean sano() {
+            if (!proceso.isAlive()) return false;
+            try {
+                peticiones.write(U1P04ContadorVocal.PING);
+                peticiones.newLine();
+                peticiones.flush();
+                long limite = System.currentTimeMillis() + TIMEOUT_SALUD_MS;
+                while (!respuestas.ready()) {
+                    if (System.currentTimeMillis() > limite || !proceso.isAlive()) return false;
+                    Thread.sleep(1);
+                }
+                return U1P04ContadorVocal.PONG.equals(respuestas.readLine());
+            } catch (IOException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        // Cierre ordenado (FIN) y, si no basta, forzado.
+        void cerrar() {
+            try {
+                if (proceso.isAlive()) {
+                    peticiones.write(U1P04ContadorVocal.FIN);
+                    peticiones.newLine();
+                    peticiones.flush();
+                }
+                if (!proceso.waitFor(1, TimeUnit.SECONDS))
+                    proceso.destroyForcibly();
+            } catch (IOException e) {
+                proceso.destroyForcibly();
+            } catch (InterruptedException e) {
+                proceso.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 3: ESTADO DEL POOL
+       ----------------------------------------------------------------
+       - libres: trabajadores disponibles. take() bloquea si todos
+         están ocupados, lo que limita la concurrencia al tamaño del pool.
+       - despachador: hilos que reparten los archivos entre los
+         trabajadores (uno por trabajador).
+       - vigilante: tarea periódica de comprobación de salud.
+       - reemplazos: cuántos trabajadores se han tenido que sustituir.
+       ───────────────────────────────────────────────────────────── */
+    private final BlockingQueue<Trabajador> libres;
+    private final ExecutorService despachador;
+    private final ScheduledExecutorService vigilante;
+    private final int tamano;
+    private final AtomicInteger reemplazos = new AtomicInteger();
+    private volatile boolean cerrado;
+
+    public U1P05PoolContadorVocal(int tamano) throws IOException {
+        this(tamano, INTERVALO_SALUD_MS);
+    }
+
+    public U1P05PoolContadorVocal(int tamano, long intervaloSaludMs) throws IOException {
+        if (tamano < 1)
+            throw new IllegalArgumentException("El tamaño del pool debe ser al menos 1");
+
+        this.tamano = tamano;
+        this.libres = new ArrayBlockingQueue<>(tamano);
+        for (int i = 0; i < tamano; i++)
+            libres.add(new Trabajador());
+
+        this.despachador = Executors.newFixedThreadPool(tamano);
+        this.vigilante = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "vigilante-pool");
+            t.setDaemon(true);
+            return t;
+        });
+        vigilante.scheduleWithFixedDelay(this::comprobarSalud, intervaloSaludMs, intervaloSaludMs, TimeUnit.MILLISECONDS);
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 4: CONTAR UNA VOCAL EN UN ARCHIVO
+       ----------------------------------------------------------------
+       - Toma un trabajador libre (espera si no hay ninguno).
+       - Si el proceso ha muerto mientras estaba libre, lo sustituye.
+       - Si la comunicación falla a mitad, el trabajador se descarta y
+         se sustituye; la excepción se propaga al llamante.
+       - Devuelve siempre el trabajador (o su sustituto) a la cola.
+       ───────────────────────────────────────────────────────────── */
+    public int contar(char vocal, String archivo) throws IOException, InterruptedException {
+        return Integer.parseInt(pedir(vocal + " " + archivo, "'" + vocal + "' en " + archivo));
+    }
+
+    private String pedir(String peticion, String descripcion) throws IOException, InterruptedException {
+
+        if (cerrado)
+            throw new IllegalStateException("El pool está cerrado");
+
+        Trabajador t = libres.take();
+        try {
+            if (!t.proceso.isAlive())
+                t = reemplazar(t);
+
+            String respuesta = t.peticion(peticion);
+            if (respuesta.startsWith(U1P04ContadorVocal.ERROR))
+                throw new RuntimeException("Fallo al contar " + descripcion + ": " + respuesta);
+            return respuesta;
+
+        } catch (IOException e) {
+            t = reemplazar(t);
+            throw e;
+        } finally {
+            libres.put(t);
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 5: CONTAR TODAS LAS VOCALES DE UN ARCHIVO
+       ----------------------------------------------------------------
+       - Una sola petición "--todas <archivo>": el trabajador recorre el
+         archivo una vez y devuelve las 5 vocales (antes eran 5
+         peticiones, y por tanto 5 recorridos del mismo archivo).
+       - Devuelve un mapa ordenado vocal → conteo.
+       - contarVocales(archivos) reparte los archivos en paralelo entre
+         los trabajadores del pool y devuelve los mapas en el mismo orden.
+       ───────────────────────────────────────────────────────────── */
+    public Map<String, Integer> contarVocales(String archivo) throws IOException, InterruptedException {
+
+        long[] cuentas = U1P04ContadorVocal.parsear(pedir(U1P04ContadorVocal.MODO_TODAS + " " + archivo, archivo));
+
+        Map<String, Integer> resultado = new LinkedHashMap<>();
+        for (int i = 0; i < cuentas.length; i++)
+            resultado.put(String.valueOf(U1P04ContadorVocal.ORDEN[i]), Math.toIntExact(cuentas[i]));
+        return resultado;
+    }
+
+    public List<Map<String, Integer>> contarVocales(List<String> archivos) throws IOException, InterruptedException {
+
+        List<Future<Map<String, Integer>>> pendientes = new ArrayList<>();
+        for (String archivo : archivos)
+            pendientes.add(despachador.submit(() -> contarVocales(archivo)));
+
+        List<Map<String, Integer>> resultado = new ArrayList<>();
+        for (Future<Map<String, Integer>> f : pendientes) {
+            try {
+                resultado.add(f.get());
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof IOException io) throw io;
+                throw new RuntimeException(ex.getCause());
+            }
+        }
+        return resultado;
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 6: SALUD Y SUSTITUCIÓN DE TRABAJADORES
+       ----------------------------------------------------------------
+       - comprobarSalud(): revisa solo los trabajadores LIBRES (los que
+         están ocupados se comprueban al devolverlos o al fallar).
+       - reemplazar(): mata el proceso viejo y arranca uno nuevo.
+       ───────────────────────────────────────────────────────────── */
+    private void comprobarSalud() {
+
+        List<Trabajador> revisados = new ArrayList<>();
+        libres.drainTo(revisados);
+
+        // Ningún trabajador sacado de la cola puede perderse: si se pierde,
+        // el pool encoge para siempre (y con 0, contar() espera sin fin).
+        // add() no bloquea: la cola tiene sitio para todos los trabajadores.
+        int i = 0;
+        try {
+            for (; i < revisados.size() && !Thread.currentThread().isInterrupted(); i++) {
+                Trabajador t = revisados.get(i);
+                if (!t.sano()) {
+                    try {
+                        t = reemplazar(t);
+                    } catch (IOException e) {
+                        // Vuelve el viejo: en la próxima revisión se intenta otra vez.
+                        System.err.println("No se pudo sustituir un trabajador: " + e.getMessage());
+                    }
+                }
+                libres.add(t);
+            }
+        } finally {
+            // Interrumpido o con un fallo inesperado: los no revisados vuelven tal cual.
+            for (; i < revisados.size(); i++) libres.add(revisados.get(i));
+        }
+    }
+
+    private Trabajador reemplazar(Trabajador viejo) throws IOException {
+        viejo.proceso.destroyForcibly();
+        System.err.println("Sustituyendo trabajador " + viejo.proceso.pid());
+        Trabajador nuevo = new Trabajador();
+        reemplazos.incrementAndGet();
+        return nuevo;
+    }
+
+    public int getTamano() {
+        return tamano;
+    }
+
+    public int getReemplazos() {
+        return reemplazos.get();
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 7: CIERRE DEL POOL
+       ----------------------------------------------------------------
+       - Detiene el vigilante y el despachador y espera a que terminen.
+       - Pide a cada trabajador que termine (FIN).
+       ───────────────────────────────────────────────────────────── */
+    @Override
+    public void close() {
+        cerrado = true;
+        // shutdown() y no shutdownNow(): interrumpir una revisión de salud
+        // a medias dejaría trabajadores fuera de la cola y sin cerrar
+        // (JVM hijas huérfanas). Se espera a que acabe la que esté en marcha.
+        vigilante.shutdown();
+        despachador.shutdown();
+        try {
+            vigilante.awaitTermination(10, TimeUnit.SECONDS);
+            despachador.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Trabajador> todos = new ArrayList<>();
+        libres.drainTo(todos);
+        todos.forEach(Trabajador::cerrar);
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 8: MODELO CLÁSICO (un proceso por vocal) PARA COMPARAR
+       ----------------------------------------------------------------
+       Reproduce lo que hace U1P04EjecutarContadorVocal, pero leyendo
+       el resultado por la tubería en vez de por ficheros, para medir
+       solo el coste de lanzar una JVM por trabajo.
+       ───────────────────────────────────────────────────────────── */
+    private static Map<String, Integer> contarUnProcesoPorVocal(String archivo) throws IOException, InterruptedException {
+
+        Map<String, Process> procesos = new LinkedHashMap<>();
+        for (String vocal : VOCALES) {
+            ProcessBuilder pb = new ProcessBuilder(JAVA, CP, CLASSPATH, CLASE, vocal, archivo);
+            pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+            procesos.put(vocal, pb.start());
+        }
+
+        Map<String, Integer> resultado = new LinkedHashMap<>();
+        for (Map.Entry<String, Process> e : procesos.entrySet()) {
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(e.getValue().getInputStream()))) {
+                resultado.put(e.getKey(), Integer.parseInt(br.readLine().trim()));
+            }
+            e.getValue().waitFor();
+        }
+        return resultado;
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 9: MÉTDO PRINCIPAL – BENCHMARK
+       ----------------------------------------------------------------
+       args[0] → tamaño del pool (por defecto: 5)
+       args[1] → repeticiones sobre la lista de archivos (por defecto: 10)
+       args[2..] → archivos (por defecto: ./resources/vocales.txt)
+       Muestra archivos/segundo de cada modelo y comprueba que ambos
+       devuelven los mismos conteos. El modelo clásico lanza 5 JVM por
+       archivo; el pool hace una petición por archivo y reparte los
+       archivos de cada repetición entre sus trabajadores.
+       ───────────────────────────────────────────────────────────── */
+    public static void main(String[] args) throws Exception {
+
+        int tamano = args.length > 0 ? Integer.parseInt(args[0]) : VOCALES.length;
+        int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        List<String> archivos = args.length > 2
+                ? Arrays.asList(args).subList(2, args.length)
+                : List.of(ARCHIVO);
+
+        int conteos = repeticiones * archivos.size();
+
+        // ───── Modelo clásico: una JVM nueva por vocal y archivo ─────
+        Map<String, Integer> referencia = null;
+        long inicio = System.nanoTime();
+        for (int r = 0; r < repeticiones; r++)
+            for (String archivo : archivos)
+                referencia = contarUnProcesoPorVocal(archivo);
+        double segClasico = (System.nanoTime() - inicio) / 1e9;
+
+        // ───── Pool: las JVM se arrancan una vez (fuera de la medición) ─────
+        Map<String, Integer> conPool = null;
+        double segPool;
+        try (U1P05PoolContadorVocal pool = new U1P05PoolContadorVocal(tamano)) {
+            inicio = System.nanoTime();
+            for (int r = 0; r < repeticiones; r++)
+                conPool = pool.contarVocales(archivos).getLast();
+            segPool = (System.nanoTime() - inicio) / 1e9;
+            System.out.println("Trabajadores sustituidos: " + pool.getReemplazos());
+        }
+
+        System.out.printf("Un proceso por vocal: %d archivos en %.2f s → %.1f archivos/s%n",
+                conteos, segClasico, conteos / segClasico);
+        System.out.printf("Pool de %d procesos:   %d archivos en %.2f s → %.1f archivos/s%n",
+                tamano, conteos, segPool, conteos / segPool);
+        System.out.println("Último archivo (clásico): " + referencia);
+        System.out.println("Último archivo (pool):    " + conPool);
+        System.out.println("¿Resultados iguales? " + Objects.equals(referencia, conPool));
+    }
+}
@@ -0,0 +1,82 @@
+package edu.thepower.u1programacion.multiproceso;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL
+// ----------------------------------------------------------------
+// Benchmark del motor de suma de U1P03Sumador: ¿a partir de qué tamaño
+// de rango compensa repartir el trabajo entre PROCESOS en lugar de
+// hacerlo dentro de la misma JVM?
+//
+// Para cada tamaño n (1e3, 1e4, ... hasta el máximo indicado) mide:
+//  - secuencial: un hilo recorre [1, n].
+//  - forkjoin:   U1P03Sumador.sumarParalelo() en el ForkJoinPool común.
+//  - procesos:   U1P03Sumador.sumarMultiproceso() con un hijo por núcleo.
+//
+// Los procesos pagan un coste fijo (arrancar una JVM por trozo) que
+// solo se amortiza cuando el trabajo por trozo es grande; el "cruce" es
+// el primer n en el que 'procesos' gana a 'secuencial'.
+//
+// Uso: U1P06BenchmarkSumador [funcion=PRIMOS] [nMax=10000000] [trozos=núcleos]
+// ───────────────────────────────────────────────────────────────
+public class U1P06BenchmarkSumador {
+
+    private static final int REPETICIONES = 3;
+
+    // Interfaz mínima para medir cada variante con el mismo código.
+    private interface Variante {
+        long sumar(long n);
+    }
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: MEDICIÓN
+       ----------------------------------------------------------------
+       Mejor tiempo de REPETICIONES ejecuciones (el mejor es el menos
+       afectado por el JIT y el ruido del sistema). Devuelve también el
+       resultado para comprobar que todas las variantes coinciden.
+       ───────────────────────────────────────────────────────────── */
+    private static long[] medir(Variante v, long n) {
+        long mejor = Long.MAX_VALUE, resultado = 0;
+        for (int r = 0; r < REPETICIONES; r++) {
+            long inicio = System.nanoTime();
+            resultado = v.sumar(n);
+            mejor = Math.min(mejor, System.nanoTime() - inicio);
+        }
+        return new long[]{mejor / 1_000_000, resultado};
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: MÉTDO PRINCIPAL
+       ───────────────────────────────────────────────────────────── */
+    public static void main(String[] args) {
+
+        U1P03Sumador.Funcion funcion = args.length > 0 ? U1P03Sumador.Funcion.valueOf(args[0]) : U1P03Sumador.Funcion.PRIMOS;
+        long nMax = args.length > 1 ? Long.parseLong(args[1]) : 10_000_000L;
+        int trozos = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("Función %s, %d trozos, %d núcleos%n", funcion, trozos, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%12s %12s %12s %12s%n", "n", "secuencial", "forkjoin", "procesos");
+
+        // Calentamiento: que el JIT compile el bucle antes de medir.
+        U1P03Sumador.sumarSecuencial(1, 100_000, funcion);
+
+        Long cruce = null;
+        try (SupervisorProcesos supervisor = new SupervisorProcesos(trozos)) {
+            for (long n = 1_000; n <= nMax; n *= 10) {
+                long[] sec = medir(x -> U1P03Sumador.sumarSecuencial(1, x, funcion), n);
+                long[] fj = medir(x -> U1P03Sumador.sumarParalelo(1, x, funcion), n);
+                long[] proc = medir(x -> U1P03Sumador.sumarMultiproceso(supervisor, 1, x, funcion, trozos), n);
+
+                if (sec[1] != fj[1] || sec[1] != proc[1])
+                    throw new IllegalStateException("Resultados distintos para n=" + n);
+
+                System.out.printf("%12d %9d ms %9d ms %9d ms%n", n, sec[0], fj[0], proc[0]);
+                if (cruce == null && proc[0] < sec[0]) cruce = n;
+            }
+        }
+
+        System.out.println(cruce == null
+                ? "Los procesos no llegan a compensar hasta n=" + nMax
+                : "Cruce: a partir de n≈" + cruce + " repartir entre procesos es más rápido");
+    }
+}
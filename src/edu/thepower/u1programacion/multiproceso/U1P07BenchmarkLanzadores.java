@@ -0,0 +1,80 @@
+package edu.thepower.u1programacion.multiproceso;
+
+import java.util.Arrays;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL
+// ----------------------------------------------------------------
+// Compara la latencia por lanzamiento de los dos Lanzador:
+//  - LanzadorProceso: una JVM nueva por trabajo.
+//  - LanzadorAislado: main() en un ClassLoader nuevo dentro de esta JVM.
+//
+// El trabajo es U1P03Sumador con dos números (un trabajo diminuto, en
+// el que casi todo el tiempo es el coste de lanzar). Cada trabajo se
+// lanza y se espera antes del siguiente, para medir latencia y no
+// rendimiento. Además se comprueba que ambos backends producen
+// exactamente los mismos bytes por stdout y el mismo código de salida.
+//
+// Uso: U1P07BenchmarkLanzadores [lanzamientos=20]
+// ───────────────────────────────────────────────────────────────
+public class U1P07BenchmarkLanzadores {
+
+    private static final String CLASE = U1P03Sumador.class.getName();
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: MEDICIÓN DE UN BACKEND
+       ----------------------------------------------------------------
+       Devuelve las latencias en microsegundos, ordenadas, y guarda la
+       salida de cada lanzamiento para compararla después.
+       ───────────────────────────────────────────────────────────── */
+    private static long[] medir(Lanzador lanzador, int lanzamientos, Lanzador.Resultado[] resultados) {
+        long[] latencias = new long[lanzamientos];
+        for (int i = 0; i < lanzamientos; i++) {
+            Lanzador.Resultado r = lanzador.lanzar(CLASE, String.valueOf(i), String.valueOf(i * 1000)).join();
+            resultados[i] = r;
+            latencias[i] = r.latencia().toNanos() / 1000;
+        }
+        Arrays.sort(latencias);
+        return latencias;
+    }
+
+    private static void mostrar(String nombre, long[] us) {
+        System.out.printf("%-10s media %8.2f ms  p50 %8.2f ms  p90 %8.2f ms  máx %8.2f ms%n", nombre,
+                Arrays.stream(us).average().orElse(0) / 1000,
+                us[us.length / 2] / 1000.0,
+                us[(int) (us.length * 0.9)] / 1000.0,
+                us[us.length - 1] / 1000.0);
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: MÉTDO PRINCIPAL
+       ───────────────────────────────────────────────────────────── */
+    public static void main(String[] args) {
+        int lanzamientos = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+
+        Lanzador.Resultado[] deProcesos = new Lanzador.Resultado[lanzamientos];
+        Lanzador.Resultado[] aislados = new Lanzador.Resultado[lanzamientos];
+
+        long[] latProcesos, latAislados;
+        try (Lanzador procesos = new LanzadorProceso(); Lanzador aislado = new LanzadorAislado()) {
+            latProcesos = medir(procesos, lanzamientos, deProcesos);
+            latAislados = medir(aislado, lanzamientos, aislados);
+        }
+
+        // Mismos bytes por stdout y mismo código de salida en ambos backends.
+        for (int i = 0; i < lanzamientos; i++) {
+            if (deProcesos[i].codigoSalida() != aislados[i].codigoSalida()
+                    || !Arrays.equals(deProcesos[i].salida(), aislados[i].salida()))
+                throw new IllegalStateException("Resultados distintos en el lanzamiento " + i + ":\n"
+                        + deProcesos[i].salidaTexto() + "\n" + aislados[i].salidaTexto());
+        }
+
+        System.out.println("Ejemplo de salida: " + aislados[lanzamientos - 1].salidaTexto().strip());
+        System.out.println(lanzamientos + " lanzamientos por backend, resultados idénticos");
+        mostrar("proceso", latProcesos);
+        mostrar("aislado", latAislados);
+        System.out.printf("El lanzador aislado es %.1fx más rápido por lanzamiento (p50)%n",
+                (double) latProcesos[lanzamientos / 2] / Math.max(1, latAislados[lanzamientos / 2]));
+    }
+}
@@ -0,0 +1,187 @@
+package edu.thepower.u1programacion.multiproceso;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.LongBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL DEL PROGRAMA
+// ----------------------------------------------------------------
+// Demostración de MemoriaCompartida: el padre deja los datos en una
+// zona de memoria proyectada y los hijos trabajan directamente sobre
+// ella, cada uno en su trozo, sin pasar nada por tuberías.
+//
+// Dos operaciones:
+//  1) OP_SUMA: suma de un array grande de long (el Sumador sobre arrays).
+//  2) OP_HISTOGRAMA: histograma por carácter (65536 contadores por hijo)
+//     del texto de ./resources/vocales.txt.
+//
+// En ambos casos el padre:
+//  - crea la zona y escribe los datos,
+//  - lanza un hijo por núcleo pasándole SOLO la ruta y su índice:
+//        java ... U1P08MemoriaCompartida --hijo <ruta> <indice>
+//  - espera a que terminen, comprueba la bandera HECHO de cada uno,
+//    reduce sus resultados y los compara con el cálculo en el padre.
+//
+// Uso: java U1P08MemoriaCompartida [elementos=20000000] [hijos=núcleos]
+// ───────────────────────────────────────────────────────────────
+public class U1P08MemoriaCompartida {
+
+    private static final String MODO_HIJO = "--hijo";
+    private static final String ARCHIVO = "./resources/vocales.txt";
+    private static final int CARACTERES = 1 << 16;
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: LADO HIJO
+       ----------------------------------------------------------------
+       - Publica EN_CURSO, calcula sobre su rango [desde, hasta),
+         escribe su ranura de resultado y publica HECHO.
+       - Si algo falla publica ERROR antes de terminar, para que el
+         padre no confunda un fallo con un resultado a cero.
+       ───────────────────────────────────────────────────────────── */
+    private static void hijo(Path ruta, int indice) {
+        try (MemoriaCompartida zona = MemoriaCompartida.abrir(ruta)) {
+            zona.publicar(indice, MemoriaCompartida.EN_CURSO);
+            try {
+                int desde = (int) zona.desde(indice), hasta = (int) zona.hasta(indice);
+                LongBuffer resultado = zona.resultado(indice);
+
+                if (zona.operacion() == MemoriaCompartida.OP_SUMA) {
+                    LongBuffer datos = zona.datosLong();
+                    long suma = 0;
+                    for (int i = desde; i < hasta; i++) suma += datos.get(i);
+                    resultado.put(0, suma);
+                } else {
+                    CharBuffer datos = zona.datosChar();
+                    long[] histograma = new long[CARACTERES];
+                    for (int i = desde; i < hasta; i++) histograma[datos.get(i)]++;
+                    resultado.put(0, histograma);
+                }
+                zona.publicar(indice, MemoriaCompartida.HECHO);
+            } catch (RuntimeException e) {
+                zona.publicar(indice, MemoriaCompartida.ERROR);
+                throw e;
+            }
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: LADO PADRE – LANZAR Y ESPERAR A LOS HIJOS
+       ----------------------------------------------------------------
+       - stdout/stderr de los hijos se heredan: ya no transportan datos.
+       - Se espera a que cada hijo termine (onExit) y después se lee su
+         bandera: si no es HECHO, el resultado no es válido.
+       ───────────────────────────────────────────────────────────── */
+    private static void ejecutarHijos(MemoriaCompartida zona, Path ruta) {
+        List<Process> procesos = new ArrayList<>();
+        try {
+            for (int k = 0; k < zona.hijos(); k++) {
+                procesos.add(new ProcessBuilder(SupervisorProcesos.comandoJava(U1P08MemoriaCompartida.class.getName(),
+                        MODO_HIJO, ruta.toString(), String.valueOf(k))).inheritIO().start());
+            }
+        } catch (IOException e) {
+            procesos.forEach(Process::destroyForcibly);
+            throw new UncheckedIOException(e);
+        }
+
+        for (int k = 0; k < procesos.size(); k++) {
+            int codigo = procesos.get(k).onExit().join().exitValue();
+            if (codigo != 0 || zona.estado(k) != MemoriaCompartida.HECHO)
+                throw new IllegalStateException("El hijo " + k + " no terminó bien (código " + codigo
+                        + ", estado " + zona.estado(k) + ")");
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 3: SUMA DE UN ARRAY GRANDE
+       ───────────────────────────────────────────────────────────── */
+    private static void sumar(int elementos, int hijos) throws IOException {
+        Path ruta = Files.createTempFile("psp-suma-", ".shm");
+        try (MemoriaCompartida zona = MemoriaCompartida.crear(ruta, MemoriaCompartida.OP_SUMA, hijos, elementos, 1)) {
+
+            LongBuffer datos = zona.datosLong();
+            Random r = new Random(42);
+            long esperado = 0;
+            for (int i = 0; i < elementos; i++) {
+                long v = r.nextInt(1_000_000);
+                datos.put(i, v);
+                esperado += v;
+            }
+
+            long inicio = System.nanoTime();
+            ejecutarHijos(zona, ruta);
+            long suma = 0;
+            for (int k = 0; k < hijos; k++) suma += zona.resultado(k).get(0);
+
+            System.out.printf("Suma de %d long (%d MB compartidos) con %d hijos: %d en %d ms → %s%n",
+                    elementos, elementos * 8L >> 20, hijos, suma, (System.nanoTime() - inicio) / 1_000_000,
+                    suma == esperado ? "correcta" : "INCORRECTA (esperado " + esperado + ")");
+        } finally {
+            // La zona ya está cerrada y desproyectada: se puede borrar también en Windows.
+            Files.deleteIfExists(ruta);
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 4: HISTOGRAMA POR CARÁCTER
+       ───────────────────────────────────────────────────────────── */
+    private static void histograma(int hijos) throws IOException {
+        String texto = Files.readString(Path.of(ARCHIVO));
+        Path ruta = Files.createTempFile("psp-histograma-", ".shm");
+        try (MemoriaCompartida zona = MemoriaCompartida.crear(ruta, MemoriaCompartida.OP_HISTOGRAMA, hijos,
+                texto.length(), CARACTERES)) {
+
+            zona.datosChar().put(texto);
+
+            long inicio = System.nanoTime();
+            ejecutarHijos(zona, ruta);
+            long[] total = new long[CARACTERES];
+            for (int k = 0; k < hijos; k++) {
+                LongBuffer parcial = zona.resultado(k);
+                for (int c = 0; c < CARACTERES; c++) total[c] += parcial.get(c);
+            }
+            long ms = (System.nanoTime() - inicio) / 1_000_000;
+
+            long[] esperado = new long[CARACTERES];
+            for (int i = 0; i < texto.length(); i++) esperado[texto.charAt(i)]++;
+
+            System.out.printf("Histograma de %d caracteres con %d hijos en %d ms → %s%n", texto.length(), hijos, ms,
+                    Arrays.equals(total, esperado) ? "correcto" : "INCORRECTO");
+            for (char c : "aeiouáéíóú".toCharArray())
+                System.out.print(c + "=" + total[c] + " ");
+            System.out.println();
+        } finally {
+            // La zona ya está cerrada y desproyectada: se puede borrar también en Windows.
+            Files.deleteIfExists(ruta);
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 5: MÉTDO PRINCIPAL
+       ───────────────────────────────────────────────────────────── */
+    public static void main(String[] args) throws IOException {
+
+        if (args.length > 2 && args[0].equals(MODO_HIJO)) {
+            hijo(Path.of(args[1]), Integer.parseInt(args[2]));
+            return;
+        }
+
+        int elementos = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        int hijos = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        sumar(elementos, hijos);
+        histograma(hijos);
+    }
+}
@@ -0,0 +1,183 @@
+package edu.thepower.u2programacion.multithread;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// ────────────────────────────────────────────────────────────────
+// CLASE DE DOMINIO: BancoActores
+// Otra forma de hacer transferencias sin candados ni orden de bloqueo:
+// el MODELO DE ACTORES.
+//
+//   - Cada cuenta es un ACTOR: su saldo solo lo toca UN hilo virtual,
+//     el suyo, que va sacando mensajes de su BUZÓN (una cola) y los
+//     atiende de uno en uno. Nadie más lee ni escribe ese saldo, así
+//     que no hace falta synchronized: la cola es la única parte
+//     compartida.
+//   - Una transferencia ya no puede "coger las dos cuentas": son dos
+//     actores distintos. Se hace en DOS FASES (como un commit en dos
+//     fases de base de datos):
+//       1) PREPARAR: se pide a origen que RETENGA el importe y a destino
+//          que acepte la entrada (los dos mensajes a la vez). Cada actor
+//          contesta sí o no por un CompletableFuture.
+//       2) Si los dos dicen sí → CONFIRMAR en los dos (el dinero se
+//          mueve de verdad). Si alguno dice no → CANCELAR las retenciones
+//          que sí se hicieron.
+//   - Ningún actor espera NUNCA a otro: solo espera quien coordina la
+//     transferencia (el hilo cliente). No hay ciclos de espera posibles,
+//     así que no hay deadlock, se pidan las cuentas en el orden que sea.
+//
+// Sirve igual para Stock/AlmacenCoches (unidades en vez de céntimos):
+// 'capacidad' limita lo que cabe en un almacén; el destino la comprueba
+// en la fase de preparar contando las entradas aún no confirmadas.
+//
+// Lo retenido sigue contando en el saldo hasta confirmar: con el banco
+// parado (sin transferencias a medias) la suma de saldos es exacta.
+// ────────────────────────────────────────────────────────────────
+class BancoActores implements AutoCloseable {
+
+    // Mensajes que entiende un actor. 'delta' < 0 sale de la cuenta, > 0 entra.
+    private sealed interface Mensaje permits Preparar, Confirmar, Cancelar, Consultar, Parar { }
+    private record Preparar(long delta, CompletableFuture<Boolean> respuesta) implements Mensaje { }
+    private record Confirmar(long delta) implements Mensaje { }
+    private record Cancelar(long delta) implements Mensaje { }
+    private record Consultar(CompletableFuture<Long> respuesta) implements Mensaje { }
+    private record Parar() implements Mensaje { }
+
+    // ────────────────────────────────────────────────────────────
+    // UN ACTOR: estado privado + buzón + su hilo virtual.
+    // Los campos solo los usa el hilo del actor (ni volatile ni candados).
+    // ────────────────────────────────────────────────────────────
+    private static final class Actor {
+        private final BlockingQueue<Mensaje> buzon = new LinkedBlockingQueue<>();
+        private final Thread hilo;
+        private final long capacidad;
+        private long saldo;
+        private long retenido;      // salidas preparadas sin confirmar
+        private long entrante;      // entradas preparadas sin confirmar
+
+        Actor(int id, long saldo, long capacidad) {
+            this.saldo = saldo;
+            this.capacidad = capacidad;
+            this.hilo = Thread.ofVirtual().name("cuenta-" + id).start(this::atender);
+        }
+
+        private void atender() {
+            try {
+                while (true) {
+                    switch (buzon.take()) {
+                        case Preparar p -> p.respuesta().complete(preparar(p.delta()));
+                        case Confirmar c -> {
+                            if (c.delta() < 0) retenido += c.delta();
+                            else entrante -= c.delta();
+                            saldo += c.delta();
+                        }
+                        case Cancelar c -> {
+                            if (c.delta() < 0) retenido += c.delta();
+                            else entrante -= c.delta();
+                        }
+                        case Consultar c -> c.respuesta().complete(saldo);
+                        case Parar ignorado -> { return; }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private boolean preparar(long delta) {
+            if (delta < 0) {
+                if (saldo - retenido < -delta) return false;   // sin fondos libres
+                retenido -= delta;
+            } else {
+                if (saldo + entrante + delta > capacidad) return false;   // no cabe
+                entrante += delta;
+            }
+            return true;
+        }
+    }
+
+    private final Actor[] actores;
+
+    BancoActores(int cuentas, long saldoInicial) {
+        this(cuentas, saldoInicial, Long.MAX_VALUE);
+    }
+
+    BancoActores(int cuentas, long saldoInicial, long capacidad) {
+        if (cuentas < 1 || saldoInicial < 0 || capacidad < saldoInicial)
+            throw new IllegalArgumentException("cuentas >= 1, 0 <= saldo <= capacidad");
+        actores = new Actor[cuentas];
+        for (int i = 0; i < cuentas; i++) actores[i] = new Actor(i, saldoInicial, capacidad);
+    }
+
+    int cuentas() {
+        return actores.length;
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: TRANSFERENCIA EN DOS FASES
+       ----------------------------------------------------------------
+       Asíncrona: devuelve un futuro que se completa con true (hecha) o
+       false (sin fondos o sin capacidad). Cuando se completa, los
+       mensajes de confirmar/cancelar ya están en los buzones: cualquier
+       mensaje posterior a esas cuentas ve la transferencia acabada.
+       ───────────────────────────────────────────────────────────── */
+    CompletableFuture<Boolean> transferirAsync(int origen, int destino, long importe) {
+        if (importe <= 0) throw new IllegalArgumentException("importe > 0");
+        Actor o = actores[origen], d = actores[destino];
+
+        CompletableFuture<Boolean> sale = new CompletableFuture<>(), entra = new CompletableFuture<>();
+        o.buzon.add(new Preparar(-importe, sale));
+        d.buzon.add(new Preparar(importe, entra));
+
+        return sale.thenCombine(entra, (okOrigen, okDestino) -> {
+            boolean ok = okOrigen && okDestino;
+            if (okOrigen) o.buzon.add(ok ? new Confirmar(-importe) : new Cancelar(-importe));
+            if (okDestino) d.buzon.add(ok ? new Confirmar(importe) : new Cancelar(importe));
+            return ok;
+        });
+    }
+
+    boolean transferir(int origen, int destino, long importe) {
+        return transferirAsync(origen, destino, importe).join();
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: CONSULTAS
+       ----------------------------------------------------------------
+       También son mensajes: el saldo se lee en el hilo del actor.
+       total() pregunta a todos a la vez; solo es exacto si no hay
+       transferencias en marcha (no es una foto consistente como la de
+       LibroCuentas.instantanea).
+       ───────────────────────────────────────────────────────────── */
+    long saldo(int cuenta) {
+        CompletableFuture<Long> respuesta = new CompletableFuture<>();
+        actores[cuenta].buzon.add(new Consultar(respuesta));
+        return respuesta.join();
+    }
+
+    long total() {
+        CompletableFuture<?>[] respuestas = new CompletableFuture<?>[actores.length];
+        for (int i = 0; i < actores.length; i++) {
+            CompletableFuture<Long> r = new CompletableFuture<>();
+            actores[i].buzon.add(new Consultar(r));
+            respuestas[i] = r;
+        }
+        long total = 0;
+        for (CompletableFuture<?> r : respuestas) total += (Long) r.join();
+        return total;
+    }
+
+    // Para todos los actores cuando hayan atendido lo que ya tenían en el buzón.
+    @Override
+    public void close() {
+        for (Actor a : actores) a.buzon.add(new Parar());
+        try {
+            for (Actor a : actores) a.hilo.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package edu.thepower.u2programacion.multithread;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL
+// ----------------------------------------------------------------
+// El 'contador' compartido de los ejemplos U2P04, como interfaz: cada
+// implementación es una de las estrategias que esos ejemplos fijan a
+// mano, para poder medirlas todas con el mismo código
+// (U2P10BenchmarkContadores).
+//
+//  - Sincronizado: monitor del objeto (U2P04CondicionDeCarreraMonitor).
+//  - ConLock: ReentrantLock justo o no (U2P04CondicionCarreraLock).
+//  - Atomico: AtomicInteger, una instrucción atómica por suma (U2P04CondicionDeCarreraAtomicVars).
+//  - Sumador: LongAdder; reparte las escrituras en celdas cuando hay
+//    contención y suma las celdas al leer.
+//  - PorHilo: una celda PROPIA por hilo, sin ninguna operación atómica
+//    al escribir; la lectura suma todas las celdas.
+//
+// Compromiso: las tres primeras dan en cada lectura el valor exacto;
+// Sumador y PorHilo escriben más rápido con muchos hilos, pero leer
+// cuesta recorrer las celdas y, con escrituras en curso, el valor leído
+// es solo aproximado (exacto una vez han terminado los escritores).
+// ───────────────────────────────────────────────────────────────
+public interface Contador {
+
+    void sumar(long delta);
+
+    long valor();
+
+    default String nombre() {
+        return getClass().getSimpleName();
+    }
+
+
+    class Sincronizado implements Contador {
+        private long contador = 0;
+
+        @Override
+        public synchronized void sumar(long delta) {
+            contador += delta;
+        }
+
+        @Override
+        public synchronized long valor() {
+            return contador;
+        }
+    }
+
+
+    class ConLock implements Contador {
+        private final ReentrantLock lock;
+        private long contador = 0;
+
+        // justo = true: el lock se concede por orden de llegada (sin
+        // "colarse"), a costa de un cambio de hilo en cada traspaso.
+        public ConLock(boolean justo) {
+            this.lock = new ReentrantLock(justo);
+        }
+
+        @Override
+        public void sumar(long delta) {
+            lock.lock();
+            try {
+                contador += delta;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public long valor() {
+            lock.lock();
+            try {
+                return contador;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public String nombre() {
+            return lock.isFair() ? "LockJusto" : "LockInjusto";
+        }
+    }
+
+
+    // Como en U2P04CondicionDeCarreraAtomicVars: int, así que desborda
+    // pasados 2^31 (suficiente para los ejemplos y las mediciones).
+    class Atomico implements Contador {
+        private final AtomicInteger contador = new AtomicInteger();
+
+        @Override
+        public void sumar(long delta) {
+            contador.addAndGet((int) delta);
+        }
+
+        @Override
+        public long valor() {
+            return contador.get();
+        }
+    }
+
+
+    class Sumador implements Contador {
+        private final LongAdder contador = new LongAdder();
+
+        @Override
+        public void sumar(long delta) {
+            contador.add(delta);
+        }
+
+        @Override
+        public long valor() {
+            return contador.sum();
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       CELDAS POR HILO
+       ----------------------------------------------------------------
+       - Cada hilo crea su Celda la primera vez (ThreadLocal) y la
+         registra en la lista común; después solo escribe en ella.
+       - Solo su hilo escribe la celda: basta una escritura volatile,
+         sin CAS ni lock.
+       - Relleno (p1..p7) para que dos celdas no compartan línea de
+         caché de 64 bytes (false sharing): si la compartieran, cada
+         escritura invalidaría la línea del otro núcleo.
+       - Las celdas de hilos que ya terminaron se conservan: su cuenta
+         sigue formando parte del total.
+       ───────────────────────────────────────────────────────────── */
+    class PorHilo implements Contador {
+
+        @SuppressWarnings("unused")
+        private static final class Celda {
+            long p1, p2, p3, p4, p5, p6, p7;
+            volatile long valor;
+            long q1, q2, q3, q4, q5, q6, q7;
+        }
+
+        private final List<Celda> celdas = new CopyOnWriteArrayList<>();
+        private final ThreadLocal<Celda> propia = ThreadLocal.withInitial(() -> {
+            Celda c = new Celda();
+            celdas.add(c);
+            return c;
+        });
+
+        @Override
+        public void sumar(long delta) {
+            Celda c = propia.get();
+            c.valor = c.valor + delta;   // un único escritor por celda: no se pierden sumas
+        }
+
+        @Override
+        public long valor() {
+            long total = 0;
+            for (Celda c : celdas) total += c.valor;
+            return total;
+        }
+    }
+
+
+    // Todas las implementaciones, en el orden en que se comparan. Son
+    // fábricas: cada medición necesita un contador nuevo.
+    static List<Supplier<Contador>> variantes() {
+        return List.of(Sincronizado::new, () -> new ConLock(false), () -> new ConLock(true),
+                Atomico::new, Sumador::new, PorHilo::new);
+    }
+}
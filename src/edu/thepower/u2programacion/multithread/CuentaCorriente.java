@@ -0,0 +1,64 @@
+package edu.thepower.u2programacion.multithread;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// ────────────────────────────────────────────────────────────────
+// CLASE DE DOMINIO: CuentaCorriente
+// Representa una cuenta simple con un saldo sobre el que se pueden
+// hacer ingresos y retiradas. Aquí NO está sincronizada, porque
+// la sincronización la vamos a controlar fuera (en las transferencias).
+// ────────────────────────────────────────────────────────────────
+class CuentaCorriente {
+    // Generador de identificadores: cada cuenta recibe uno distinto.
+    private static final AtomicLong SIGUIENTE_ID = new AtomicLong();
+
+    // Identificador ÚNICO e inmutable de la cuenta.
+    // Dominio: fija el orden global en que se bloquean las cuentas en
+    // una transferencia (ver U2P05DeadLockCuentaCorriente.transferir).
+    private final long id = SIGUIENTE_ID.getAndIncrement();
+
+    // Saldo actual de la cuenta.
+    // Tipo/alcance: privado, propio de cada instancia.
+    // Dominio: representa el dinero disponible de esa cuenta.
+    private float saldo;
+
+    // Constructor: inicializa la cuenta con un saldo concreto.
+    // Dominio: permite crear distintas cuentas con distintos saldos iniciales.
+    public CuentaCorriente(float saldo) {
+        this.saldo = saldo;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    // Getter simple para consultar el saldo actual.
+    // No está sincronizado porque se asume que las operaciones externas
+    // ya han protegido la coherencia cuando haga falta.
+    public float getSaldo() {
+        return saldo;
+    }
+
+    // Método para retirar dinero de la cuenta.
+    // Aquí se hace una comprobación muy sencilla de fondos.
+    // Devuelve si se ha retirado: sin saldo suficiente no hace nada, y
+    // quien llama tiene que saberlo (si no, la transferencia ingresaría
+    // en destino un dinero que nunca salió del origen).
+    // Con >= se puede dejar la cuenta exactamente a cero.
+    // IMPORTANTE: este método por sí solo NO es thread-safe; por eso
+    // la clase que transfiere hace el synchronized externo.
+    public boolean retirarSaldo(float importe) {
+        if (saldo >= importe) {  // Solo retira si hay suficiente saldo.
+            saldo -= importe;    // Actualiza el saldo restando el importe.
+            return true;
+        }
+        return false;
+    }
+
+    // Método para ingresar dinero en la cuenta.
+    // Igual que arriba: no está sincronizado, se supone que quien lo llama
+    // ya ha garantizado el acceso exclusivo.
+    public void ingresarSaldo(float importe) {
+        saldo += importe;  // Suma el importe al saldo actual.
+    }
+}
@@ -0,0 +1,471 @@
+package edu.thepower.u2programacion.multithread;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+
+// ────────────────────────────────────────────────────────────────
+// CLASE DE DOMINIO: DiarioTransferencias
+// Hace DURADERO un LibroCuentas: cada transferencia confirmada está en
+// disco (FileChannel.force) y, tras una caída, el libro se reconstruye
+// leyendo el diario.
+//
+// Diario de solo escritura al final (append-only):
+//   - Cada transferencia confirmada se apunta como un registro:
+//       long secuencia, int tramos, tramos × (int origen, int destino,
+//       long céntimos), int CRC32C de todo lo anterior.
+//   - El registro se encola MIENTRAS el libro aún tiene bloqueadas las
+//     franjas de la operación (LibroCuentas.Registro): si una
+//     transferencia usa dinero que trajo otra, la segunda va detrás en
+//     el diario. Por eso lo que sobrevive a una caída (un prefijo del
+//     diario) es siempre un estado posible del libro.
+//
+// Escritura en grupo (group commit):
+//   - force() cuesta lo mismo con 1 registro que con 1000 (es esperar
+//     al disco). Un único hilo escritor recoge lo que haya en la cola
+//     (hasta maxLote registros, esperando como mucho maxEspera a que se
+//     junten más), lo escribe, hace UN force() y confirma a todos.
+//   - Mientras el disco trabaja, la cola se vuelve a llenar: cuanta más
+//     carga, más grandes los lotes y más transferencias por force().
+//
+// Recuperación (abrir):
+//   1) Carga la última instantánea (saldos + secuencia S), si la hay.
+//   2) Reproduce los registros con secuencia > S de los segmentos del
+//      diario, en orden. Se aplican sin comprobar saldos: ya se
+//      comprobaron al hacerlas, y sumar movimientos no depende del orden.
+//   3) Un registro final incompleto o con CRC incorrecto es una
+//      escritura cortada por la caída: se corta el archivo ahí. En
+//      mitad del diario sería corrupción real → excepción.
+//   4) Un registro con CRC correcto que nombra una cuenta que no existe
+//      es de un libro con más cuentas (se abrió con otro 'cuentas' y sin
+//      instantánea que lo delate) → IllegalStateException, sin aplicar
+//      ese registro.
+//
+// Instantáneas: cada 'instantaneaCada' registros el escritor guarda
+// los saldos (LibroCuentas.instantanea, marcada con la secuencia) y
+// empieza un segmento nuevo; los segmentos anteriores ya no hacen
+// falta y se borran. Así la recuperación nunca relee más de
+// ~instantaneaCada registros.
+//
+// Las transferencias se ven en memoria ANTES de ser duraderas; quien
+// llama a transferir() no recibe la respuesta hasta que lo son.
+// ────────────────────────────────────────────────────────────────
+class DiarioTransferencias implements AutoCloseable {
+
+    record Config(int maxLote, Duration maxEspera, long instantaneaCada) {
+        Config {
+            if (maxLote < 1 || instantaneaCada < 1 || maxEspera.isNegative())
+                throw new IllegalArgumentException("maxLote e instantaneaCada >= 1, maxEspera >= 0");
+        }
+
+        static Config porDefecto() {
+            return new Config(4096, Duration.ZERO, 500_000);
+        }
+    }
+
+    record Recuperacion(long secuenciaInstantanea, long reproducidos, long ultimaSecuencia, boolean colaCortada, long ms) { }
+
+    private static final int MAGIA_INSTANTANEA = 0x50534449;   // "PSDI"
+    private static final String INSTANTANEA = "instantanea.dat";
+    private static final String PREFIJO = "diario-";
+    private static final String EXTENSION = ".log";
+
+    private record Pendiente(long secuencia, List<LibroCuentas.Tramo> tramos, CompletableFuture<Void> duradero) { }
+
+    private final Path directorio;
+    private final Config config;
+    private final LibroCuentas libro;
+    private final Recuperacion recuperacion;
+    private final Thread escritor;
+
+    // ───── Protegido por 'this' ─────
+    private final ArrayDeque<Pendiente> cola = new ArrayDeque<>();
+    private volatile long secuencia;       // última asignada (se lee sin candado como marca)
+    private boolean cerrando;
+    private Throwable fallo;
+
+    // ───── Solo el hilo escritor ─────
+    private FileChannel segmento;
+    private Path rutaSegmento;
+    private List<Pendiente> enCurso = List.of();   // lote sacado de la cola y aún sin confirmar
+    private long sinInstantanea;
+    private volatile long duraderas;       // secuencia más alta ya en disco
+    private volatile long lotes, registros;
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: ABRIR = RECUPERAR + EMPEZAR A ESCRIBIR
+       ----------------------------------------------------------------
+       'cuentas' y 'saldoInicial' solo se usan si el directorio está
+       vacío (primera ejecución).
+       ───────────────────────────────────────────────────────────── */
+    static DiarioTransferencias abrir(Path directorio, int cuentas, long saldoInicial, int franjas, Config config)
+            throws IOException {
+        Files.createDirectories(directorio);
+        long inicio = System.nanoTime();
+
+        long[] saldos;
+        long base = 0;
+        Path instantanea = directorio.resolve(INSTANTANEA);
+        if (Files.exists(instantanea)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(instantanea)))) {
+                if (in.readInt() != MAGIA_INSTANTANEA) throw new IOException("Instantánea no válida: " + instantanea);
+                base = in.readLong();
+                saldos = new long[in.readInt()];
+                for (int i = 0; i < saldos.length; i++) saldos[i] = in.readLong();
+            }
+            if (saldos.length != cuentas)
+                throw new IllegalStateException("La instantánea tiene " + saldos.length + " cuentas, no " + cuentas);
+        } else {
+            saldos = new long[cuentas];
+            Arrays.fill(saldos, saldoInicial);
+        }
+
+        List<Path> segmentos = segmentos(directorio);
+        long ultima = base, reproducidos = 0;
+        boolean cortada = false;
+        for (int i = 0; i < segmentos.size(); i++) {
+            long[] r = reproducir(segmentos.get(i), saldos, base, i == segmentos.size() - 1);
+            reproducidos += r[0];
+            ultima = Math.max(ultima, r[1]);
+            cortada |= r[2] != 0;
+        }
+
+        Recuperacion recuperacion = new Recuperacion(base, reproducidos, ultima, cortada,
+                (System.nanoTime() - inicio) / 1_000_000);
+        return new DiarioTransferencias(directorio, config, new LibroCuentas(saldos, franjas), ultima, recuperacion);
+    }
+
+    private DiarioTransferencias(Path directorio, Config config, LibroCuentas libro, long ultima, Recuperacion recuperacion)
+            throws IOException {
+        this.directorio = directorio;
+        this.config = config;
+        this.libro = libro;
+        this.recuperacion = recuperacion;
+        this.secuencia = ultima;
+        this.duraderas = ultima;
+        this.segmento = nuevoSegmento(ultima + 1);
+        this.escritor = new Thread(this::escribir, "diario-escritor");
+        this.escritor.start();
+    }
+
+    // Segmentos ordenados por su primera secuencia (nombre con ceros a la izquierda).
+    private static List<Path> segmentos(Path directorio) throws IOException {
+        try (Stream<Path> s = Files.list(directorio)) {
+            return s.filter(p -> {
+                String n = p.getFileName().toString();
+                return n.startsWith(PREFIJO) && n.endsWith(EXTENSION);
+            }).sorted().toList();
+        }
+    }
+
+    private Path rutaSegmento(long primera) {
+        return directorio.resolve(String.format("%s%020d%s", PREFIJO, primera, EXTENSION));
+    }
+
+    // Abre (o crea) el segmento y deja su entrada del directorio en disco.
+    private FileChannel nuevoSegmento(long primera) throws IOException {
+        rutaSegmento = rutaSegmento(primera);
+        FileChannel canal = FileChannel.open(rutaSegmento, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        sincronizarDirectorio();
+        return canal;
+    }
+
+    // fsync del DIRECTORIO: crear, renombrar y borrar archivos cambia el
+    // directorio, no los archivos, y sin esto una caída puede conservar
+    // los borrados y perder un renombrado o un archivo nuevo. En Windows
+    // un directorio no se puede abrir como canal (y NTFS ya registra esos
+    // cambios en su propio diario), así que allí no se hace.
+    private void sincronizarDirectorio() throws IOException {
+        if (System.getProperty("os.name").startsWith("Windows")) return;
+        try (FileChannel dir = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            dir.force(true);
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: REPRODUCIR UN SEGMENTO
+       ----------------------------------------------------------------
+       Devuelve {registros aplicados, última secuencia, 1 si se cortó}.
+       ───────────────────────────────────────────────────────────── */
+    private static long[] reproducir(Path segmento, long[] saldos, long base, boolean ultimo) throws IOException {
+        long aplicados = 0, ultima = 0, valido = 0;
+        boolean cortada = false;
+        CRC32C crc = new CRC32C();
+
+        // El CRC va ENCIMA del búfer: así solo cuenta los bytes ya leídos.
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(segmento)), crc))) {
+            while (true) {
+                crc.reset();
+                long secuencia;
+                int[] origen, destino;
+                long[] centimos;
+                try {
+                    secuencia = in.readLong();
+                } catch (EOFException e) {
+                    break;   // final limpio
+                }
+                try {
+                    int n = in.readInt();
+                    if (n < 1 || n > 1 << 20) throw new IOException("número de tramos imposible: " + n);
+                    origen = new int[n];
+                    destino = new int[n];
+                    centimos = new long[n];
+                    for (int i = 0; i < n; i++) {
+                        origen[i] = in.readInt();
+                        destino[i] = in.readInt();
+                        centimos[i] = in.readLong();
+                    }
+                    int esperado = (int) crc.getValue();
+                    if (in.readInt() != esperado) throw new IOException("CRC incorrecto en la secuencia " + secuencia);
+                } catch (IOException e) {
+                    if (!ultimo) throw new IllegalStateException("Diario corrupto en " + segmento + ": " + e.getMessage(), e);
+                    cortada = true;
+                    break;
+                }
+
+                if (secuencia > base) {
+                    for (int i = 0; i < origen.length; i++)
+                        if (origen[i] < 0 || origen[i] >= saldos.length || destino[i] < 0 || destino[i] >= saldos.length)
+                            throw new IllegalStateException("El registro " + secuencia + " de " + segmento + " mueve de la cuenta "
+                                    + origen[i] + " a la " + destino[i] + ", pero el libro tiene " + saldos.length
+                                    + " cuentas: el diario es de otro libro");
+                    for (int i = 0; i < origen.length; i++) {
+                        saldos[origen[i]] -= centimos[i];
+                        saldos[destino[i]] += centimos[i];
+                    }
+                    aplicados++;
+                }
+                ultima = secuencia;
+                valido += 8 + 4 + 16L * origen.length + 4;
+            }
+        }
+
+        // Escritura cortada por la caída: se elimina para que los
+        // registros nuevos no queden detrás de basura.
+        if (cortada) {
+            try (FileChannel c = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+                c.truncate(valido);
+                c.force(true);
+            }
+        }
+        return new long[]{aplicados, ultima, cortada ? 1 : 0};
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 3: TRANSFERENCIAS DURADERAS
+       ----------------------------------------------------------------
+       - El libro valida la operación y, con las franjas bloqueadas y
+         antes de aplicarla, llama a encolar(): secuencia nueva + registro
+         a la cola. Si el diario está cerrado o ha fallado, encolar()
+         lanza la excepción y el libro no aplica nada: la memoria nunca
+         tiene una transferencia que no vaya a estar en el diario.
+       - Después, ya sin candados, se espera a que el escritor confirme
+         que está en disco.
+       ───────────────────────────────────────────────────────────── */
+    boolean transferir(int origen, int destino, long centimos) {
+        return transferir(List.of(new LibroCuentas.Tramo(origen, destino, centimos)));
+    }
+
+    boolean transferir(List<LibroCuentas.Tramo> tramos) {
+        Pendiente[] pendiente = new Pendiente[1];
+        if (!libro.transferir(tramos, t -> pendiente[0] = encolar(t))) return false;
+        try {
+            pendiente[0].duradero().join();
+        } catch (CompletionException e) {
+            throw roto("La transferencia " + pendiente[0].secuencia() + " no llegó a disco", e.getCause());
+        }
+        return true;
+    }
+
+    private synchronized Pendiente encolar(List<LibroCuentas.Tramo> tramos) {
+        if (fallo != null) throw roto("El diario ha fallado", fallo);
+        if (cerrando) throw new IllegalStateException("El diario está cerrado");
+        Pendiente p = new Pendiente(++secuencia, List.copyOf(tramos), new CompletableFuture<>());
+        cola.add(p);
+        // Solo despierta al escritor si puede estar esperando por esto.
+        if (cola.size() == 1 || cola.size() >= config.maxLote()) notifyAll();
+        return p;
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 4: HILO ESCRITOR (GROUP COMMIT)
+       ───────────────────────────────────────────────────────────── */
+    private void escribir() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        CRC32C crc = new CRC32C();
+        try {
+            while (true) {
+                List<Pendiente> lote = siguienteLote();
+                if (lote == null) break;
+                enCurso = lote;
+
+                for (Pendiente p : lote) {
+                    int tamano = 8 + 4 + 16 * p.tramos().size() + 4;
+                    if (buffer.remaining() < tamano) {
+                        vaciar(buffer);
+                        if (buffer.capacity() < tamano) buffer = ByteBuffer.allocateDirect(tamano);
+                    }
+                    int inicio = buffer.position();
+                    buffer.putLong(p.secuencia()).putInt(p.tramos().size());
+                    for (LibroCuentas.Tramo t : p.tramos())
+                        buffer.putInt(t.origen()).putInt(t.destino()).putLong(t.centimos());
+                    crc.reset();
+                    crc.update(buffer.duplicate().position(inicio).limit(buffer.position()));
+                    buffer.putInt((int) crc.getValue());
+                }
+                vaciar(buffer);
+                segmento.force(false);
+
+                duraderas = lote.get(lote.size() - 1).secuencia();
+                lotes++;
+                registros += lote.size();
+                lote.forEach(p -> p.duradero().complete(null));
+                enCurso = List.of();
+
+                sinInstantanea += lote.size();
+                if (sinInstantanea >= config.instantaneaCada()) guardarInstantanea();
+            }
+            guardarInstantanea();   // cierre limpio: la próxima apertura no reproduce nada
+            segmento.close();
+        } catch (Throwable e) {
+            // Cualquier fallo, no solo de E/S: si el escritor muere sin
+            // completar los futuros, sus clientes esperarían para siempre.
+            fallar(e);
+            if (e instanceof Error error) throw error;
+        }
+    }
+
+    // Espera a que haya algo; si hay menos de maxLote, espera hasta
+    // maxEspera a que se junten más. null = cerrado y sin pendientes.
+    private synchronized List<Pendiente> siguienteLote() throws IOException {
+        try {
+            while (cola.isEmpty() && !cerrando) wait();
+            if (cola.isEmpty()) return null;
+            long limite = System.nanoTime() + config.maxEspera().toNanos();
+            long resto;
+            while (cola.size() < config.maxLote() && !cerrando && (resto = limite - System.nanoTime()) > 0)
+                TimeUnit.NANOSECONDS.timedWait(this, resto);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Escritor del diario interrumpido");
+        }
+        List<Pendiente> lote = new ArrayList<>(Math.min(cola.size(), config.maxLote()));
+        while (!cola.isEmpty() && lote.size() < config.maxLote()) lote.add(cola.poll());
+        return lote;
+    }
+
+    private void vaciar(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) segmento.write(buffer);
+        buffer.clear();
+    }
+
+    private synchronized void fallar(Throwable e) {
+        fallo = e;
+        enCurso.forEach(p -> p.duradero().completeExceptionally(e));
+        cola.forEach(p -> p.duradero().completeExceptionally(e));
+        cola.clear();
+    }
+
+    private static RuntimeException roto(String mensaje, Throwable causa) {
+        return causa instanceof IOException io ? new UncheckedIOException(mensaje, io)
+                : new IllegalStateException(mensaje, causa);
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 5: INSTANTÁNEAS Y ROTACIÓN DE SEGMENTOS
+       ----------------------------------------------------------------
+       1) Foto consistente del libro marcada con la secuencia S.
+       2) Se escribe en un temporal, force() y ATOMIC_MOVE: o está la
+          instantánea nueva entera o la anterior.
+       3) Segmento nuevo; los viejos solo tienen secuencias <= S (todo
+          lo escrito es anterior a la foto) y se borran. Antes de borrar,
+          el renombrado y el segmento nuevo se fijan en disco (fsync del
+          directorio).
+          Si S no ha avanzado desde la última rotación, el segmento nuevo
+          sería el mismo archivo que el actual: no se rota. El segmento en
+          uso no se borra nunca.
+       Los registros que aún estén en la cola con secuencia <= S irán al
+       segmento nuevo y la recuperación los saltará.
+       ───────────────────────────────────────────────────────────── */
+    private void guardarInstantanea() throws IOException {
+        LibroCuentas.Instantanea foto = libro.instantanea(() -> secuencia);
+
+        Path temporal = directorio.resolve(INSTANTANEA + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(temporal.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos, 1 << 16))) {
+            out.writeInt(MAGIA_INSTANTANEA);
+            out.writeLong(foto.marca());
+            out.writeInt(foto.saldos().length);
+            for (long s : foto.saldos()) out.writeLong(s);
+            out.flush();
+            fos.getFD().sync();
+        }
+        Files.move(temporal, directorio.resolve(INSTANTANEA), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        sincronizarDirectorio();
+        sinInstantanea = 0;
+
+        if (!rutaSegmento(foto.marca() + 1).equals(rutaSegmento)) {
+            segmento.close();
+            segmento = nuevoSegmento(foto.marca() + 1);
+        }
+        for (Path p : segmentos(directorio))
+            if (!p.equals(rutaSegmento)) Files.deleteIfExists(p);
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 6: CONSULTAS Y CIERRE
+       ───────────────────────────────────────────────────────────── */
+    LibroCuentas libro() {
+        return libro;
+    }
+
+    Recuperacion recuperacion() {
+        return recuperacion;
+    }
+
+    // Secuencia más alta que ya está en disco.
+    long duraderas() {
+        return duraderas;
+    }
+
+    double registrosPorLote() {
+        long l = lotes;
+        return l == 0 ? 0 : (double) registros / l;
+    }
+
+    // Cierre limpio: el escritor vacía la cola, guarda una instantánea y termina.
+    @Override
+    public void close() {
+        synchronized (this) {
+            cerrando = true;
+            notifyAll();
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
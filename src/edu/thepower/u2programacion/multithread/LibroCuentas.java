@@ -0,0 +1,318 @@
+package edu.thepower.u2programacion.multithread;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongSupplier;
+
+// ────────────────────────────────────────────────────────────────
+// CLASE DE DOMINIO: LibroCuentas
+// La misma idea que U2P05DeadLockCuentaCorriente (bloquear origen y
+// destino en un ORDEN FIJO), pero para MILLONES de cuentas y muchos
+// hilos transfiriendo a la vez.
+//
+// Diferencias con CuentaCorriente:
+//   - Los saldos son CÉNTIMOS en un long[] (nada de float: 0.1 + 0.2
+//     no da 0.3, y con float se pierden céntimos a partir de ~16 M).
+//     Un array de primitivos en lugar de un objeto por cuenta: 8 bytes
+//     por cuenta, sin cabeceras de objeto ni punteros que seguir.
+//   - No hay un candado por cuenta (millones de objetos), sino una
+//     TABLA DE CANDADOS POR FRANJAS: la cuenta 'id' la protege el
+//     candado id & (franjas - 1). Dos transferencias solo compiten si
+//     sus cuentas caen en la misma franja.
+//   - Orden de bloqueo: primero la franja de índice MENOR. Es un orden
+//     total y único (como el id de CuentaCorriente), así que no hay
+//     ciclos ni deadlock. Si las dos cuentas caen en la misma franja,
+//     se bloquea una sola vez.
+//
+// Con franjas = 1 es un candado global: todas las transferencias van
+// en fila (sirve de referencia en U2P05BenchmarkLibroCuentas).
+//
+// Lecturas consistentes con transferencias en marcha (instantanea()):
+// cada franja es un StampedLock, cuyo sello funciona como VERSIÓN de
+// la franja. Se toman sellos optimistas de todas, se copian los saldos
+// y se validan los sellos: si ninguna franja se ha escrito entretanto,
+// la copia es un estado real del libro, sin haber parado a nadie.
+// ────────────────────────────────────────────────────────────────
+class LibroCuentas {
+
+    // Saldo de cada cuenta en céntimos; la cuenta es el índice.
+    private final long[] saldos;
+
+    // Un candado por franja. StampedLock y no synchronized porque
+    // total() tiene que coger TODOS a la vez (con synchronized habría
+    // que anidar miles de bloques) y porque permite lecturas optimistas.
+    // Las transferencias usan su modo escritura (exclusivo, NO reentrante).
+    private final StampedLock[] candados;
+    private final int mascara;
+
+    // Crea 'cuentas' cuentas con 'saldoInicial' céntimos cada una.
+    // 'franjas' se redondea a la potencia de 2 siguiente (para usar & en lugar de %).
+    LibroCuentas(int cuentas, long saldoInicial, int franjas) {
+        this(lleno(cuentas, saldoInicial), franjas);
+    }
+
+    // Crea el libro con unos saldos dados (p.ej. recuperados de disco por
+    // DiarioTransferencias). El array pasa a ser del libro: no se copia.
+    LibroCuentas(long[] saldos, int franjas) {
+        if (saldos.length < 1 || franjas < 1)
+            throw new IllegalArgumentException("cuentas y franjas >= 1");
+        this.saldos = saldos;
+
+        int n = Integer.highestOneBit(franjas);
+        if (n < franjas) n <<= 1;
+        this.candados = new StampedLock[n];
+        for (int i = 0; i < n; i++) candados[i] = new StampedLock();
+        this.mascara = n - 1;
+    }
+
+    private static long[] lleno(int cuentas, long saldoInicial) {
+        if (cuentas < 1 || saldoInicial < 0)
+            throw new IllegalArgumentException("cuentas >= 1, saldo >= 0");
+        long[] saldos = new long[cuentas];
+        Arrays.fill(saldos, saldoInicial);
+        return saldos;
+    }
+
+    int cuentas() {
+        return saldos.length;
+    }
+
+    int franjas() {
+        return candados.length;
+    }
+
+    int franja(int cuenta) {
+        return cuenta & mascara;
+    }
+
+
+    // ────────────────────────────────────────────────────────────
+    // MÉTODO DE NEGOCIO: transferir
+    // Mueve 'centimos' de 'origen' a 'destino' si hay saldo suficiente.
+    // Devuelve false (y no toca nada) si no hay fondos: así el llamador
+    // sabe si la transferencia se hizo.
+    // ────────────────────────────────────────────────────────────
+    boolean transferir(int origen, int destino, long centimos) {
+        if (centimos < 0) throw new IllegalArgumentException("importe negativo: " + centimos);
+
+        int f1 = franja(origen), f2 = franja(destino);
+        StampedLock primero = candados[Math.min(f1, f2)];
+        StampedLock segundo = candados[Math.max(f1, f2)];
+
+        long sello1 = primero.writeLock();
+        try {
+            // StampedLock no es reentrante: si es la misma franja, una sola vez.
+            long sello2 = segundo != primero ? segundo.writeLock() : 0;
+            try {
+                if (saldos[origen] < centimos) return false;
+                saldos[origen] -= centimos;
+                saldos[destino] += centimos;
+                return true;
+            } finally {
+                if (segundo != primero) segundo.unlockWrite(sello2);
+            }
+        } finally {
+            primero.unlockWrite(sello1);
+        }
+    }
+
+    // ────────────────────────────────────────────────────────────
+    // TRANSFERENCIAS DE N TRAMOS (reparto entre muchas cuentas)
+    // Un Tramo es un movimiento origen → destino. transferir(tramos)
+    // aplica TODOS o NINGUNO:
+    //   1) Reúne las franjas de todas las cuentas implicadas, las ordena
+    //      y quita repetidas.
+    //   2) Las bloquea en orden creciente: el mismo orden global que la
+    //      transferencia simple, así que pueden mezclarse sin deadlock.
+    //   3) Calcula el movimiento NETO de cada cuenta (una cuenta puede
+    //      aparecer en varios tramos) y comprueba que ningún saldo
+    //      quedaría negativo. Si alguno lo haría, no toca nada.
+    //   4) Llama al registro (si lo hay).
+    //   5) Aplica los netos y suelta las franjas en orden inverso.
+    // Pensado para decenas de tramos: los netos se acumulan con búsqueda
+    // lineal en arrays, sin crear mapas por operación.
+    //
+    // 'registro' (opcional) se llama ya validada la operación, justo antes
+    // de aplicarla y con las franjas bloqueadas: dos operaciones sobre la
+    // misma cuenta se registran en el mismo orden en que se aplican (lo
+    // usa el diario). Si lanza una excepción, la operación no se aplica.
+    // ────────────────────────────────────────────────────────────
+    record Tramo(int origen, int destino, long centimos) {
+        Tramo {
+            if (centimos < 0) throw new IllegalArgumentException("importe negativo: " + centimos);
+        }
+    }
+
+    interface Registro {
+        void registrar(List<Tramo> tramos);
+    }
+
+    boolean transferir(List<Tramo> tramos) {
+        return transferir(tramos, null);
+    }
+
+    boolean transferir(List<Tramo> tramos, Registro registro) {
+        if (tramos.isEmpty()) return true;
+
+        // 1) Franjas implicadas, ordenadas y sin repetir.
+        int[] franjas = new int[tramos.size() * 2];
+        int n = 0;
+        for (Tramo t : tramos) {
+            franjas[n++] = franja(t.origen());
+            franjas[n++] = franja(t.destino());
+        }
+        Arrays.sort(franjas);
+        int distintas = 0;
+        for (int i = 0; i < n; i++)
+            if (i == 0 || franjas[i] != franjas[i - 1]) franjas[distintas++] = franjas[i];
+
+        // 2) Bloqueo en orden creciente.
+        long[] sellos = new long[distintas];
+        int cogidos = 0;
+        try {
+            for (; cogidos < distintas; cogidos++)
+                sellos[cogidos] = candados[franjas[cogidos]].writeLock();
+
+            // 3) Netos por cuenta y validación.
+            int[] cuentas = new int[tramos.size() * 2];
+            long[] netos = new long[cuentas.length];
+            int implicadas = 0;
+            for (Tramo t : tramos) {
+                implicadas = acumular(cuentas, netos, implicadas, t.origen(), -t.centimos());
+                implicadas = acumular(cuentas, netos, implicadas, t.destino(), t.centimos());
+            }
+            for (int i = 0; i < implicadas; i++)
+                if (saldos[cuentas[i]] + netos[i] < 0) return false;
+
+            // 4) Registro ANTES de aplicar: si falla (diario cerrado o roto),
+            //    la excepción sale sin haber tocado ningún saldo.
+            if (registro != null) registro.registrar(tramos);
+
+            // 5) Todos los tramos a la vez (nadie puede ver un estado intermedio).
+            for (int i = 0; i < implicadas; i++) saldos[cuentas[i]] += netos[i];
+            return true;
+        } finally {
+            for (int i = cogidos - 1; i >= 0; i--) candados[franjas[i]].unlockWrite(sellos[i]);
+        }
+    }
+
+    private static int acumular(int[] cuentas, long[] netos, int implicadas, int cuenta, long importe) {
+        for (int i = 0; i < implicadas; i++) {
+            if (cuentas[i] == cuenta) {
+                netos[i] += importe;
+                return implicadas;
+            }
+        }
+        cuentas[implicadas] = cuenta;
+        netos[implicadas] = importe;
+        return implicadas + 1;
+    }
+
+    // Lectura optimista de una cuenta; si coincide con una escritura en
+    // su franja, se repite con el candado de lectura.
+    long saldo(int cuenta) {
+        StampedLock candado = candados[franja(cuenta)];
+        long sello = candado.tryOptimisticRead();
+        long saldo = saldos[cuenta];
+        if (candado.validate(sello)) return saldo;
+
+        sello = candado.readLock();
+        try {
+            return saldos[cuenta];
+        } finally {
+            candado.unlockRead(sello);
+        }
+    }
+
+    // ────────────────────────────────────────────────────────────
+    // Suma de todos los saldos, CONSISTENTE: equivale a la instantánea
+    // con el libro parado (ver instantaneaBloqueando).
+    // ────────────────────────────────────────────────────────────
+    long total() {
+        return instantaneaBloqueando().total();
+    }
+
+
+    // ────────────────────────────────────────────────────────────
+    // INSTANTÁNEAS: saldos de todas las cuentas y su total, tal como
+    // estaban en UN MISMO instante (ninguna transferencia a medias).
+    // ────────────────────────────────────────────────────────────
+    // 'marca': valor de un contador externo leído en el MISMO instante
+    // que los saldos (p.ej. la última secuencia del diario incluida).
+    record Instantanea(long[] saldos, long total, long marca, int intentosOptimistas, boolean optimista) { }
+
+    // Intentos optimistas antes de rendirse y parar a los escritores.
+    static final int INTENTOS_OPTIMISTAS = 3;
+
+    // ────────────────────────────────────────────────────────────
+    // instantanea(): sin parar a los escritores si es posible.
+    //   1) Sello optimista de cada franja (0 = alguien escribe ahora:
+    //      se reintenta).
+    //   2) Copia de todos los saldos (sin candados).
+    //   3) validate() de todos los sellos. Si ninguna franja se escribió
+    //      durante la copia, es consistente: una transferencia entre las
+    //      franjas A y B, o acabó antes de tomar el sello de ambas, o
+    //      empezó después de validar ambas; si no, invalida alguna.
+    // Con mucha escritura la validación falla una y otra vez (la copia
+    // tarda y casi seguro alguna franja cambia): tras INTENTOS_OPTIMISTAS
+    // se recurre a instantaneaBloqueando().
+    // ────────────────────────────────────────────────────────────
+    Instantanea instantanea() {
+        return instantanea(() -> 0);
+    }
+
+    // 'marca' se lee entre la copia y la validación: si valida, ninguna
+    // transferencia (que es quien mueve la marca, con sus franjas
+    // bloqueadas) ha ocurrido entre medias.
+    Instantanea instantanea(LongSupplier marca) {
+        long[] sellos = new long[candados.length];
+        long[] copia = new long[saldos.length];
+
+        for (int intento = 1; intento <= INTENTOS_OPTIMISTAS; intento++) {
+            boolean libres = true;
+            for (int i = 0; i < candados.length && libres; i++)
+                libres = (sellos[i] = candados[i].tryOptimisticRead()) != 0;
+            if (!libres) continue;
+
+            System.arraycopy(saldos, 0, copia, 0, saldos.length);
+            long m = marca.getAsLong();
+
+            boolean validos = true;
+            for (int i = 0; i < candados.length && validos; i++)
+                validos = candados[i].validate(sellos[i]);
+            if (validos) return new Instantanea(copia, sumar(copia), m, intento, true);
+        }
+        Instantanea bloqueando = instantaneaBloqueando(marca);
+        return new Instantanea(bloqueando.saldos(), bloqueando.total(), bloqueando.marca(), INTENTOS_OPTIMISTAS, false);
+    }
+
+    // ────────────────────────────────────────────────────────────
+    // instantaneaBloqueando(): "parar el mundo". Coge el candado de
+    // LECTURA de todas las franjas en orden creciente (como transferir,
+    // así que no hay deadlock), copia y suelta. Varias instantáneas
+    // pueden hacerse a la vez; las transferencias esperan.
+    // ────────────────────────────────────────────────────────────
+    Instantanea instantaneaBloqueando() {
+        return instantaneaBloqueando(() -> 0);
+    }
+
+    Instantanea instantaneaBloqueando(LongSupplier marca) {
+        long[] sellos = new long[candados.length];
+        int cogidos = 0;
+        try {
+            for (; cogidos < candados.length; cogidos++)
+                sellos[cogidos] = candados[cogidos].readLock();
+            long[] copia = saldos.clone();
+            return new Instantanea(copia, sumar(copia), marca.getAsLong(), 0, false);
+        } finally {
+            for (int i = cogidos - 1; i >= 0; i--) candados[i].unlockRead(sellos[i]);
+        }
+    }
+
+    private static long sumar(long[] valores) {
+        long total = 0;
+        for (long v : valores) total += v;
+        return total;
+    }
+}
@@ -1,7 +1,23 @@
 package edu.thepower.u2programacion.multithread;
 
+import edu.thepower.u1programacion.multiproceso.CacheHistogramas;
+import edu.thepower.u1programacion.multiproceso.EscanerVocales;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 
 
@@ -22,6 +38,10 @@ import java.util.Map;
  * - Se contemplan vocales acentuadas mapeándolas a su vocal base (á, é, í, ó, ú).
  * - Salida por archivo: cada hilo escribe su propio resultado, lo que evita
  *   condiciones de carrera en memoria compartida.
+ * - Modo alternativo --forkjoin: en lugar de repartir las vocales se reparte el
+ *   archivo en trozos con RecursiveTask, y cada trozo cuenta las 5 vocales.
+ * - Opción --cache: el resultado se guarda en CacheHistogramas y, mientras el
+ *   archivo no cambie, las siguientes ejecuciones no lanzan ningún hilo.
  */
 public class U2P02ContadorVocalesThread implements Runnable {
 
@@ -77,15 +97,193 @@ public class U2P02ContadorVocalesThread implements Runnable {
     /*
      * LÓGICA DEL HILO (run)
      * ---------------------
-     * Lee el archivo línea a línea (en minúsculas para normalizar), recorre cada carácter
-     * y si coincide con la vocal objetivo (con o sin tilde), incrementa un contador.
+     * Cuenta la vocal objetivo (con o sin tilde, mayúscula o minúscula) con EscanerVocales,
+     * que recorre los bytes UTF-8 del archivo de 8 en 8 en lugar de decodificar cada línea,
+     * pasarla a minúsculas y buscar cada carácter en el mapa VOCALES.
      * Al finalizar, escribe el resultado en un archivo con nombre {salida}{vocal}.txt
      * y muestra logs de inicio/fin con el nombre del hilo.
      */
     @Override
     public void run(){
 
-        int contador = 0; // Contador local al hilo: no hay datos compartidos -> evita sincronización explícita
-        System.out.println("[" + Thread.currentThread().getName() + "] iniciando cuenta vocal " + vocal);}}
+        long contador; // Contador local al hilo: no hay datos compartidos -> evita sincronización explícita
+        System.out.println("[" + Thread.currentThread().getName() + "] iniciando cuenta vocal " + vocal);
+
+        try {
+            // Posición de la vocal en los conteos que devuelve el escáner (a, e, i, o, u).
+            int indice = new String(EscanerVocales.ORDEN).indexOf(vocal);
+            contador = EscanerVocales.contarArchivo(Path.of(archivo))[indice];
+        } catch (IOException e) {
+            System.err.println("Error en lectura de archivo: " + archivo);
+            throw new UncheckedIOException(e);
+        }
+
+        // try-with-resources: asegura el cierre del fichero de salida aunque falle la escritura.
+        try (PrintWriter out = new PrintWriter(new FileWriter(salida + vocal + ".txt"))) {
+            out.println(contador);
+        } catch (IOException e) {
+            System.err.println("Error escribiendo el resultado de la vocal " + vocal);
+            throw new UncheckedIOException(e);
+        }
+
+        System.out.println("[" + Thread.currentThread().getName() + "] fin cuenta vocal " + vocal + ": " + contador);
+    }
+
+    /*
+     * MODO FORK/JOIN (--forkjoin)
+     * ---------------------------
+     * Con un hilo por vocal cada hilo recorre el archivo ENTERO: el trabajo total es 5 veces
+     * el archivo y nunca se usan más de 5 núcleos. ConteoTrozo reparte el archivo, no las vocales:
+     * - compute() parte el rango [inicio, fin) por la mitad hasta que mide UMBRAL bytes o menos.
+     * - Cada hoja proyecta su trozo en memoria y cuenta LAS 5 VOCALES en un long[] (a, e, i, o, u).
+     * - Al volver de la recursión, cada nodo suma los long[] de sus dos mitades (merge en el árbol).
+     * - Si un corte cae entre los dos bytes de una vocal con tilde (C3 xx), la hoja mira el byte
+     *   anterior a su inicio para no perderla.
+     * El ForkJoinPool reparte los trozos entre sus hilos con robo de trabajo.
+     */
+    private static final long UMBRAL = 4L * 1024 * 1024;
+
+    @SuppressWarnings("serial")   // tarea de ForkJoin: nunca se serializa
+    private static class ConteoTrozo extends RecursiveTask<long[]> {
+        private final FileChannel canal;
+        private final long inicio, fin;
+
+        ConteoTrozo(FileChannel canal, long inicio, long fin) {
+            this.canal = canal;
+            this.inicio = inicio;
+            this.fin = fin;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (fin - inicio <= UMBRAL)
+                return contarHoja();
+
+            long mitad = inicio + (fin - inicio) / 2;
+            ConteoTrozo izquierda = new ConteoTrozo(canal, inicio, mitad);
+            izquierda.fork();
+            long[] derecha = new ConteoTrozo(canal, mitad, fin).compute();
+            long[] total = izquierda.join();
+            for (int i = 0; i < total.length; i++) total[i] += derecha[i];
+            return total;
+        }
+
+        private long[] contarHoja() {
+            long[] cuentas = new long[EscanerVocales.ORDEN.length];
+            try {
+                boolean liderPendiente = false;
+                if (inicio > 0) {
+                    ByteBuffer anterior = ByteBuffer.allocate(1);
+                    canal.read(anterior, inicio - 1);
+                    liderPendiente = (anterior.get(0) & 0xFF) == 0xC3;
+                }
+                EscanerVocales.contar(canal.map(FileChannel.MapMode.READ_ONLY, inicio, fin - inicio), cuentas, liderPendiente);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return cuentas;
+        }
+    }
+
+    private static void contarForkJoin(String archivo, String salida) throws IOException {
+        long[] cuentas;
+        try (FileChannel canal = FileChannel.open(Path.of(archivo), StandardOpenOption.READ)) {
+            cuentas = ForkJoinPool.commonPool().invoke(new ConteoTrozo(canal, 0, canal.size()));
+        }
+
+        // Mismos ficheros de salida que el modo de un hilo por vocal.
+        for (int i = 0; i < cuentas.length; i++) {
+            try (PrintWriter out = new PrintWriter(new FileWriter(salida + EscanerVocales.ORDEN[i] + ".txt"))) {
+                out.println(cuentas[i]);
+            }
+        }
+    }
 
-        // try-with-resources: asegura el cierre del l
+    /*
+     * CONTEO SIN CACHÉ
+     * ----------------
+     * - Sin --forkjoin: crea un hilo por vocal, todos sobre el mismo archivo de entrada, y
+     *   join() hace que el hilo principal espere a que terminen todos antes de leer resultados.
+     * - Con --forkjoin: cuenta por trozos en el ForkJoinPool (ver ConteoTrozo).
+     */
+    private static void contar(boolean forkJoin, String archivo, String salida) throws IOException, InterruptedException {
+        if (forkJoin) {
+            contarForkJoin(archivo, salida);
+            return;
+        }
+        List<Thread> hilos = new ArrayList<>();
+        for (char vocal : VOCALES.keySet()) {
+            Thread t = new Thread(new U2P02ContadorVocalesThread(vocal, archivo, salida), "contador-" + vocal);
+            hilos.add(t);
+            t.start();
+        }
+
+        for (Thread t : hilos)
+            t.join();
+    }
+
+    /*
+     * CONTEO CON CACHÉ (--cache)
+     * --------------------------
+     * En un fallo se cuenta como siempre y se leen los ficheros de salida para guardarlos en la
+     * caché; en un acierto se escriben esos mismos ficheros con los valores guardados, así el
+     * resto de main() no distingue un caso del otro.
+     */
+    private static void contarConCache(boolean forkJoin, String archivo, String salida) throws IOException {
+        long[] cuentas;
+        try (CacheHistogramas cache = new CacheHistogramas(Path.of(salida, "cache"), 256)) {
+            cuentas = cache.obtener(Path.of(archivo), "vocales", ruta -> {
+                try {
+                    contar(forkJoin, archivo, salida);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Conteo interrumpido", e);
+                }
+                long[] leidas = new long[EscanerVocales.ORDEN.length];
+                for (int i = 0; i < leidas.length; i++)
+                    leidas[i] = Long.parseLong(Files.readString(Path.of(salida + EscanerVocales.ORDEN[i] + ".txt")).trim());
+                return leidas;
+            });
+            System.out.println(cache);
+        }
+
+        for (int i = 0; i < cuentas.length; i++) {
+            try (PrintWriter out = new PrintWriter(new FileWriter(salida + EscanerVocales.ORDEN[i] + ".txt"))) {
+                out.println(cuentas[i]);
+            }
+        }
+    }
+
+    /*
+     * MÉTODO PRINCIPAL
+     * ----------------
+     * - Cuenta con el modo elegido (directamente o a través de la caché).
+     * - En todos los casos lee cada archivo {salida}{vocal}.txt y acumula el total de vocales.
+     * Uso: U2P02ContadorVocalesThread [--forkjoin] [--cache] [archivo]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        List<String> opciones = new ArrayList<>(List.of(args));
+        boolean forkJoin = opciones.remove("--forkjoin");
+        boolean conCache = opciones.remove("--cache");
+        String archivo = opciones.isEmpty() ? "./resources/vocales.txt" : opciones.get(0);
+        String salida = "./salida/";
+        Files.createDirectories(Path.of(salida));
+
+        long inicio = System.nanoTime();
+        if (conCache)
+            contarConCache(forkJoin, archivo, salida);
+        else
+            contar(forkJoin, archivo, salida);
+        long ms = (System.nanoTime() - inicio) / 1_000_000;
+
+        long total = 0;
+        for (char vocal : VOCALES.keySet()) {
+            long n = Long.parseLong(Files.readString(Path.of(salida + vocal + ".txt")).trim());
+            System.out.println("Vocal " + vocal + ": " + n);
+            total += n;
+        }
+        System.out.println("Total de vocales: " + total + " (" + (forkJoin ? "fork/join" : "un hilo por vocal")
+                + (conCache ? ", con caché" : "") + ", " + ms + " ms)");
+    }
+}
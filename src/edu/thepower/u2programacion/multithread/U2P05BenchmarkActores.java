@@ -0,0 +1,172 @@
+package edu.thepower.u2programacion.multithread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// ────────────────────────────────────────────────────────────────
+// CLASE PRINCIPAL: U2P05BenchmarkActores
+// Objetivo del programa:
+//   - Comparar dos formas de hacer transferencias entre cuentas:
+//       synchronized → CuentaCorriente + U2P05DeadLockCuentaCorriente.transferir
+//                      (dos synchronized anidados en orden de id).
+//       actores      → BancoActores: un hilo virtual por cuenta y
+//                      transferencias en dos fases por mensajes.
+//     Los actores se miden de dos maneras: cada cliente esperando a su
+//     transferencia (igual que con synchronized) y cada cliente con
+//     hasta EN_VUELO transferencias lanzadas sin esperar.
+//   - Con una carga SESGADA (Zipf): unas pocas cuentas reciben casi
+//     todas las transferencias, como las cuentas de una gran tienda.
+//     Con s = 0 la carga es uniforme; con s ≈ 1 la cuenta más usada sale
+//     en una de cada ~8 transferencias (con 1000 cuentas).
+//   - Al final de cada medición comprueba la INVARIANTE del total.
+//
+// Qué se espera ver:
+//   - Con un solo núcleo synchronized gana siempre: un candado libre
+//     cuesta casi nada y el actor necesita varios mensajes y cambios de
+//     hilo por transferencia.
+//   - Con muchos núcleos y sesgo alto, synchronized forma colas en los
+//     monitores de las cuentas calientes (y un hilo que espera una
+//     cuenta caliente tiene ya cogida otra, que también bloquea). El
+//     actor caliente también atiende de uno en uno, pero nadie se queda
+//     bloqueado con un candado cogido: cada transferencia solo "ocupa"
+//     cada cuenta lo que tarda en atender un mensaje. Con transferencias
+//     en vuelo, los clientes no esperan y el buzón siempre tiene trabajo.
+//
+// Saldos pequeños a propósito: CuentaCorriente usa float, y así el
+// total (cuentas × SALDO_INICIAL) sigue siendo exacto por debajo de 2^24.
+//
+// Uso: U2P05BenchmarkActores [cuentas=1000] [hilos=max(4, 2·núcleos)]
+// ────────────────────────────────────────────────────────────────
+public class U2P05BenchmarkActores {
+
+    private static final long DURACION_MS = 1000;
+    private static final long SALDO_INICIAL = 10_000;
+    private static final int IMPORTE_MAXIMO = 100;
+    private static final int EN_VUELO = 64;
+    private static final double[] SESGOS = {0.0, 0.8, 0.99, 1.2};
+
+    private static volatile boolean parar;
+
+
+    // ────────────────────────────────────────────────────────────
+    // DISTRIBUCIÓN DE ZIPF: la cuenta de rango k (0, 1, 2...) sale con
+    // probabilidad proporcional a 1 / (k+1)^s. Se precalcula la
+    // distribución acumulada y cada muestra es una búsqueda binaria.
+    // ────────────────────────────────────────────────────────────
+    private record Zipf(double[] acumulada) {
+        static Zipf de(int n, double s) {
+            double[] a = new double[n];
+            double suma = 0;
+            for (int k = 0; k < n; k++) a[k] = suma += 1.0 / Math.pow(k + 1, s);
+            for (int k = 0; k < n; k++) a[k] /= suma;
+            return new Zipf(a);
+        }
+
+        int siguiente(ThreadLocalRandom r) {
+            double u = r.nextDouble();
+            int bajo = 0, alto = acumulada.length - 1;
+            while (bajo < alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (acumulada[medio] < u) bajo = medio + 1;
+                else alto = medio;
+            }
+            return bajo;
+        }
+    }
+
+    private interface Cliente {
+        // Hace transferencias hasta 'parar'; devuelve cuántas ha hecho.
+        long ejecutar(Zipf zipf, ThreadLocalRandom r);
+    }
+
+
+    // ────────────────────────────────────────────────────────────
+    // UNA MEDICIÓN: 'hilos' clientes durante DURACION_MS.
+    // Devuelve transferencias intentadas (hechas + rechazadas).
+    // ────────────────────────────────────────────────────────────
+    private static long medir(int hilos, Zipf zipf, Cliente cliente) throws InterruptedException {
+        LongAdder total = new LongAdder();
+        List<Thread> clientes = new ArrayList<>();
+        parar = false;
+        for (int h = 0; h < hilos; h++) {
+            Thread t = new Thread(() -> total.add(cliente.ejecutar(zipf, ThreadLocalRandom.current())), "cliente-" + h);
+            clientes.add(t);
+            t.start();
+        }
+        Thread.sleep(DURACION_MS);
+        parar = true;
+        for (Thread t : clientes) t.join();
+        return total.sum();
+    }
+
+    private static long sincronizado(CuentaCorriente[] cuentas, Zipf zipf, ThreadLocalRandom r) {
+        long n = 0;
+        while (!parar) {
+            U2P05DeadLockCuentaCorriente.transferir(cuentas[zipf.siguiente(r)], cuentas[zipf.siguiente(r)],
+                    1 + r.nextInt(IMPORTE_MAXIMO));
+            n++;
+        }
+        return n;
+    }
+
+    private static long actores(BancoActores banco, Zipf zipf, ThreadLocalRandom r) {
+        long n = 0;
+        while (!parar) {
+            banco.transferir(zipf.siguiente(r), zipf.siguiente(r), 1 + r.nextInt(IMPORTE_MAXIMO));
+            n++;
+        }
+        return n;
+    }
+
+    // Hasta EN_VUELO transferencias sin esperar; el semáforo frena al
+    // cliente cuando las tiene todas lanzadas.
+    private static long actoresEnVuelo(BancoActores banco, Zipf zipf, ThreadLocalRandom r) {
+        Semaphore huecos = new Semaphore(EN_VUELO);
+        long n = 0;
+        while (!parar) {
+            huecos.acquireUninterruptibly();
+            banco.transferirAsync(zipf.siguiente(r), zipf.siguiente(r), 1 + r.nextInt(IMPORTE_MAXIMO))
+                    .whenComplete((ok, error) -> huecos.release());
+            n++;
+        }
+        huecos.acquireUninterruptibly(EN_VUELO);   // esperar a las que quedan
+        return n;
+    }
+
+
+    public static void main(String[] args) throws InterruptedException {
+
+        int cuentas = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int hilos = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+        long esperado = cuentas * SALDO_INICIAL;
+
+        CuentaCorriente[] cc = new CuentaCorriente[cuentas];
+        for (int i = 0; i < cuentas; i++) cc[i] = new CuentaCorriente(SALDO_INICIAL);
+
+        try (BancoActores banco = new BancoActores(cuentas, SALDO_INICIAL)) {
+            System.out.printf("%d cuentas, %d hilos cliente, %d ms por medición%n", cuentas, hilos, DURACION_MS);
+            Zipf uniforme = Zipf.de(cuentas, 0);
+            medir(hilos, uniforme, (z, r) -> sincronizado(cc, z, r));   // calentamiento (JIT)
+            medir(hilos, uniforme, (z, r) -> actoresEnVuelo(banco, z, r));
+
+            System.out.printf("%6s %10s %16s %14s %18s %8s%n", "sesgo", "top-1", "synchronized t/s",
+                    "actores t/s", "actores x" + EN_VUELO + " t/s", "total");
+            double segundos = DURACION_MS / 1000.0;
+            for (double s : SESGOS) {
+                Zipf zipf = Zipf.de(cuentas, s);
+                long sync = medir(hilos, zipf, (z, r) -> sincronizado(cc, z, r));
+                long act = medir(hilos, zipf, (z, r) -> actores(banco, z, r));
+                long vuelo = medir(hilos, zipf, (z, r) -> actoresEnVuelo(banco, z, r));
+
+                double totalSync = 0;
+                for (CuentaCorriente c : cc) totalSync += c.getSaldo();
+                boolean ok = totalSync == esperado && banco.total() == esperado;
+                System.out.printf("%6.2f %9.1f%% %16.0f %14.0f %18.0f %8s%n", s, 100 * zipf.acumulada()[0],
+                        sync / segundos, act / segundos, vuelo / segundos, ok ? "OK" : "ERROR");
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package edu.thepower.u2programacion.multithread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// ────────────────────────────────────────────────────────────────
+// CLASE PRINCIPAL: U2P05BenchmarkInstantaneas
+// Objetivo del programa:
+//   - Leer el total y los saldos de un LibroCuentas MIENTRAS otros
+//     hilos siguen transfiriendo, sin esperar a los join().
+//   - Comparar tres situaciones, con los mismos escritores:
+//       sin lecturas  → referencia: cuánto transfieren los escritores.
+//       optimista     → un lector haciendo instantanea() sin parar.
+//       bloqueando    → un lector haciendo instantaneaBloqueando().
+//   - Comprobar en CADA instantánea que el total es el inicial: si
+//     alguna viera una transferencia a medias, el total no cuadraría.
+//
+// Qué se espera ver:
+//   - Con un ritmo de escritura moderado, casi todas las instantáneas
+//     optimistas validan a la primera y los escritores no lo notan.
+//   - Sin límite de ritmo y con los escritores en OTROS núcleos, durante
+//     la copia casi siempre cambia alguna franja: fallan más validaciones
+//     y se acaba bloqueando como la otra versión. (Con un solo núcleo los
+//     escritores no corren mientras el lector copia, y casi todas validan.)
+//     El optimismo compensa cuando las escrituras no son continuas.
+//
+// Uso: U2P05BenchmarkInstantaneas [cuentas=100000] [escritores=núcleos] [ritmo=200000 t/s, 0 = sin límite]
+// ────────────────────────────────────────────────────────────────
+public class U2P05BenchmarkInstantaneas {
+
+    private static final long DURACION_MS = 2000;
+    private static final long SALDO_INICIAL = 100_000;
+    private static final int FRANJAS = 4096;
+    private static final int LOTE = 100;
+
+    private enum Lector { NINGUNO, OPTIMISTA, BLOQUEANDO }
+
+    private static volatile boolean parar;
+
+
+    // ────────────────────────────────────────────────────────────
+    // ESCRITOR: transferencias al azar. Con ritmo > 0 hace LOTE
+    // transferencias y duerme lo que le sobre para no pasar de su parte
+    // del ritmo total.
+    // ────────────────────────────────────────────────────────────
+    private static Thread escritor(LibroCuentas libro, long ritmoPorHilo, LongAdder hechas) {
+        return new Thread(() -> {
+            ThreadLocalRandom r = ThreadLocalRandom.current();
+            long inicio = System.nanoTime(), n = 0;
+            while (!parar) {
+                for (int i = 0; i < LOTE; i++)
+                    libro.transferir(r.nextInt(libro.cuentas()), r.nextInt(libro.cuentas()), 1 + r.nextLong(SALDO_INICIAL / 2));
+                n += LOTE;
+                if (ritmoPorHilo > 0) {
+                    long objetivo = inicio + n * 1_000_000_000L / ritmoPorHilo;
+                    long espera = objetivo - System.nanoTime();
+                    if (espera > 0) LockSupport.parkNanos(espera);
+                }
+            }
+            hechas.add(n);
+        }, "escritor");
+    }
+
+
+    // ────────────────────────────────────────────────────────────
+    // UNA MEDICIÓN con el lector indicado.
+    // Devuelve {transferencias, instantáneas, optimistas válidas, incoherentes}.
+    // ────────────────────────────────────────────────────────────
+    private static long[] medir(LibroCuentas libro, int escritores, long ritmo, Lector modo) throws InterruptedException {
+        long esperado = libro.cuentas() * SALDO_INICIAL;
+        LongAdder hechas = new LongAdder();
+        long[] lecturas = new long[3];
+        parar = false;
+
+        List<Thread> hilos = new ArrayList<>();
+        for (int i = 0; i < escritores; i++) hilos.add(escritor(libro, ritmo / escritores, hechas));
+        if (modo != Lector.NINGUNO) {
+            hilos.add(new Thread(() -> {
+                while (!parar) {
+                    LibroCuentas.Instantanea foto = modo == Lector.OPTIMISTA ? libro.instantanea() : libro.instantaneaBloqueando();
+                    lecturas[0]++;
+                    if (foto.optimista()) lecturas[1]++;
+                    if (foto.total() != esperado) lecturas[2]++;
+                }
+            }, "lector"));
+        }
+
+        hilos.forEach(Thread::start);
+        Thread.sleep(DURACION_MS);
+        parar = true;
+        for (Thread t : hilos) t.join();
+        return new long[]{hechas.sum(), lecturas[0], lecturas[1], lecturas[2]};
+    }
+
+
+    public static void main(String[] args) throws InterruptedException {
+
+        int cuentas = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int escritores = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long ritmo = args.length > 2 ? Long.parseLong(args[2]) : 200_000;
+
+        LibroCuentas libro = new LibroCuentas(cuentas, SALDO_INICIAL, FRANJAS);
+        System.out.printf("%d cuentas, %d franjas, %d escritores, ritmo %s, %d ms por medición%n", cuentas,
+                libro.franjas(), escritores, ritmo == 0 ? "sin límite" : ritmo + " t/s", DURACION_MS);
+
+        medir(libro, escritores, ritmo, Lector.OPTIMISTA);   // calentamiento (JIT)
+
+        System.out.printf("%-12s %14s %14s %12s %12s%n", "lector", "transf./s", "instant./s", "optimistas", "incoherentes");
+        double segundos = DURACION_MS / 1000.0;
+        for (Lector modo : Lector.values()) {
+            long[] r = medir(libro, escritores, ritmo, modo);
+            System.out.printf("%-12s %14.0f %14.1f %11.1f%% %12d%n", modo.name().toLowerCase(), r[0] / segundos,
+                    r[1] / segundos, r[1] == 0 ? 0.0 : 100.0 * r[2] / r[1], r[3]);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package edu.thepower.u2programacion.multithread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// ────────────────────────────────────────────────────────────────
+// CLASE PRINCIPAL: U2P05BenchmarkLibroCuentas
+// Objetivo del programa:
+//   - Crear un LibroCuentas con muchas cuentas (1 millón por defecto).
+//   - Lanzar 1, 2, 4... hilos que hacen transferencias ALEATORIAS entre
+//     cuentas durante DURACION_MS.
+//   - Medir transferencias por segundo con un candado global
+//     (franjas = 1) y con la tabla de candados por franjas.
+//   - Comprobar la INVARIANTE al final: el dinero total no cambia.
+//
+// Qué se espera ver:
+//   - Con 1 hilo, o con 1 solo núcleo, gana el candado global: coge un
+//     candado por transferencia (las franjas, casi siempre dos) y nunca
+//     hay dos hilos ejecutando a la vez para chocar.
+//   - Con varios núcleos el candado global NO escala: los hilos esperan
+//     en fila. Con franjas, dos transferencias al azar casi nunca chocan
+//     y el rendimiento crece con los núcleos (hasta el límite de memoria).
+//
+// Uso: U2P05BenchmarkLibroCuentas [cuentas=1000000] [hilosMax=max(4, 2·núcleos)] [franjas=4096]
+// ────────────────────────────────────────────────────────────────
+public class U2P05BenchmarkLibroCuentas {
+
+    private static final long DURACION_MS = 500;
+    private static final long SALDO_INICIAL = 100_000;   // 1.000,00 € en céntimos
+    private static final long IMPORTE_MAXIMO = 50_000;
+
+    private static volatile boolean parar;
+
+
+    // ────────────────────────────────────────────────────────────
+    // UNA MEDICIÓN: 'hilos' hilos transfiriendo durante DURACION_MS.
+    // Devuelve {transferencias hechas, rechazadas por falta de saldo}.
+    // ────────────────────────────────────────────────────────────
+    private static long[] medir(LibroCuentas libro, int hilos) throws InterruptedException {
+        CountDownLatch salida = new CountDownLatch(1);
+        LongAdder hechas = new LongAdder(), rechazadas = new LongAdder();
+        List<Thread> trabajadores = new ArrayList<>();
+        parar = false;
+
+        for (int h = 0; h < hilos; h++) {
+            Thread t = new Thread(() -> {
+                ThreadLocalRandom r = ThreadLocalRandom.current();
+                try {
+                    salida.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long ok = 0, ko = 0;
+                while (!parar) {
+                    int origen = r.nextInt(libro.cuentas());
+                    int destino = r.nextInt(libro.cuentas());
+                    if (libro.transferir(origen, destino, 1 + r.nextLong(IMPORTE_MAXIMO))) ok++;
+                    else ko++;
+                }
+                hechas.add(ok);
+                rechazadas.add(ko);
+            }, "transferencias-" + h);
+            trabajadores.add(t);
+            t.start();
+        }
+
+        salida.countDown();
+        Thread.sleep(DURACION_MS);
+        parar = true;
+        for (Thread t : trabajadores) t.join();
+        return new long[]{hechas.sum(), rechazadas.sum()};
+    }
+
+
+    public static void main(String[] args) throws InterruptedException {
+
+        int cuentas = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        int hilosMax = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(4, 2 * nucleos);
+        int franjas = args.length > 2 ? Integer.parseInt(args[2]) : 4096;
+
+        System.out.printf("%d cuentas, %d núcleos, %d ms por medición%n", cuentas, nucleos, DURACION_MS);
+        System.out.printf("%6s %14s %14s %10s%n", "hilos", "global (t/s)", "franjas (t/s)", "rechazadas");
+
+        List<Integer> niveles = new ArrayList<>();
+        for (int h = 1; h < hilosMax; h *= 2) niveles.add(h);
+        niveles.add(hilosMax);
+
+        // Los mismos dos libros para todas las mediciones: el total tiene
+        // que seguir siendo cuentas × SALDO_INICIAL después de todas ellas.
+        LibroCuentas global = new LibroCuentas(cuentas, SALDO_INICIAL, 1);
+        LibroCuentas porFranjas = new LibroCuentas(cuentas, SALDO_INICIAL, franjas);
+        long esperado = cuentas * SALDO_INICIAL;
+
+        medir(global, hilosMax);       // calentamiento (JIT)
+        medir(porFranjas, hilosMax);
+
+        for (int hilos : niveles) {
+            long[] g = medir(global, hilos);
+            long[] f = medir(porFranjas, hilos);
+            double segundos = DURACION_MS / 1000.0;
+            System.out.printf("%6d %14.0f %14.0f %9.1f%%%n", hilos, g[0] / segundos, f[0] / segundos,
+                    100.0 * f[1] / Math.max(1, f[0] + f[1]));
+        }
+
+        for (LibroCuentas libro : List.of(global, porFranjas)) {
+            long total = libro.total();
+            System.out.printf("Franjas %5d → total %d %s%n", libro.franjas(), total,
+                    total == esperado ? "(invariante OK)" : "(ERROR: esperado " + esperado + ")");
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package edu.thepower.u2programacion.multithread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// ────────────────────────────────────────────────────────────────
+// CLASE PRINCIPAL: U2P05BenchmarkTransferenciasMultiples
+// Objetivo del programa:
+//   - Medir LibroCuentas.transferir(tramos): movimientos de N tramos
+//     que se aplican todos o ninguno.
+//   - Escenario de ALTA CONCENTRACIÓN (fan-in): cada operación recoge
+//     dinero de N cuentas al azar y lo lleva a UNO de pocos destinos
+//     "calientes" (como reponer unos pocos almacenes centrales desde
+//     muchos almacenes pequeños). Los destinos calientes son justo las
+//     franjas por las que más se compite. Cada operación lleva además
+//     un tramo de salida: el destino reenvía lo recibido a otra cuenta
+//     al azar, para que el dinero no se acumule en los destinos y los
+//     orígenes no se queden sin saldo con el tiempo.
+//   - Para cada N se compara con hacer los mismos N tramos como
+//     transferencias simples sueltas (más baratas, pero sin atomicidad:
+//     otro hilo puede ver el reparto a medias).
+//   - Al final comprueba la INVARIANTE: el dinero total no cambia.
+//
+// Uso: U2P05BenchmarkTransferenciasMultiples [cuentas=100000] [hilos=max(2, núcleos)] [destinos=16]
+// ────────────────────────────────────────────────────────────────
+public class U2P05BenchmarkTransferenciasMultiples {
+
+    private static final long DURACION_MS = 500;
+    private static final long SALDO_INICIAL = 100_000;
+    private static final long IMPORTE_MAXIMO = 1_000;
+    private static final int FRANJAS = 4096;
+    private static final int[] TRAMOS = {1, 2, 4, 8, 16, 32, 64};
+
+    private static volatile boolean parar;
+
+
+    // ────────────────────────────────────────────────────────────
+    // UNA MEDICIÓN: 'hilos' hilos haciendo operaciones de 'tramos'
+    // tramos de entrada (+ 1 de salida) hacia uno de los 'destinos'
+    // primeros números de cuenta.
+    // Devuelve {operaciones hechas, rechazadas}.
+    // ────────────────────────────────────────────────────────────
+    private static long[] medir(LibroCuentas libro, int hilos, int tramos, int destinos, boolean atomica)
+            throws InterruptedException {
+        LongAdder hechas = new LongAdder(), rechazadas = new LongAdder();
+        List<Thread> trabajadores = new ArrayList<>();
+        parar = false;
+
+        for (int h = 0; h < hilos; h++) {
+            Thread t = new Thread(() -> {
+                ThreadLocalRandom r = ThreadLocalRandom.current();
+                List<LibroCuentas.Tramo> lista = new ArrayList<>(tramos);
+                long ok = 0, ko = 0;
+                while (!parar) {
+                    int destino = r.nextInt(destinos);
+                    lista.clear();
+                    long recibido = 0;
+                    for (int i = 0; i < tramos; i++) {
+                        long importe = 1 + r.nextLong(IMPORTE_MAXIMO);
+                        lista.add(new LibroCuentas.Tramo(r.nextInt(libro.cuentas()), destino, importe));
+                        recibido += importe;
+                    }
+                    lista.add(new LibroCuentas.Tramo(destino, r.nextInt(libro.cuentas()), recibido));
+
+                    boolean hecha;
+                    if (atomica) {
+                        hecha = libro.transferir(lista);
+                    } else {
+                        hecha = true;
+                        for (LibroCuentas.Tramo tramo : lista)
+                            hecha &= libro.transferir(tramo.origen(), tramo.destino(), tramo.centimos());
+                    }
+                    if (hecha) ok++;
+                    else ko++;
+                }
+                hechas.add(ok);
+                rechazadas.add(ko);
+            }, "tramos-" + h);
+            trabajadores.add(t);
+            t.start();
+        }
+
+        Thread.sleep(DURACION_MS);
+        parar = true;
+        for (Thread t : trabajadores) t.join();
+        return new long[]{hechas.sum(), rechazadas.sum()};
+    }
+
+
+    public static void main(String[] args) throws InterruptedException {
+
+        int cuentas = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int hilos = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(2, Runtime.getRuntime().availableProcessors());
+        int destinos = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+
+        LibroCuentas libro = new LibroCuentas(cuentas, SALDO_INICIAL, FRANJAS);
+        long esperado = cuentas * SALDO_INICIAL;
+
+        System.out.printf("%d cuentas, %d franjas, %d hilos, %d destinos calientes, %d ms por medición%n",
+                cuentas, libro.franjas(), hilos, destinos, DURACION_MS);
+        medir(libro, hilos, 8, destinos, true);   // calentamiento (JIT)
+        medir(libro, hilos, 8, destinos, false);
+
+        System.out.printf("%6s %14s %14s %14s %11s%n", "tramos", "atómica op/s", "tramos/s", "sueltos op/s", "rechazadas");
+        double segundos = DURACION_MS / 1000.0;
+        for (int tramos : TRAMOS) {
+            long[] a = medir(libro, hilos, tramos, destinos, true);
+            long[] s = medir(libro, hilos, tramos, destinos, false);
+            System.out.printf("%6d %14.0f %14.0f %14.0f %10.1f%%%n", tramos, a[0] / segundos,
+                    a[0] * (tramos + 1) / segundos, s[0] / segundos, 100.0 * a[1] / Math.max(1, a[0] + a[1]));
+        }
+
+        long total = libro.total();
+        System.out.println("Total final: " + total + (total == esperado ? " (invariante OK)" : " (ERROR: esperado " + esperado + ")"));
+    }
+}
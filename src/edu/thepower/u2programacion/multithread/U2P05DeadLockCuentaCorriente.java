@@ -1,56 +1,12 @@
 package edu.thepower.u2programacion.multithread;
 
-// ────────────────────────────────────────────────────────────────
-// CLASE DE DOMINIO: CuentaCorriente
-// Representa una cuenta simple con un saldo sobre el que se pueden
-// hacer ingresos y retiradas. Aquí NO está sincronizada, porque
-// la sincronización la vamos a controlar fuera (en las transferencias).
-// ────────────────────────────────────────────────────────────────
-class CuentaCorriente {
-    // Saldo actual de la cuenta.
-    // Tipo/alcance: privado, propio de cada instancia.
-    // Dominio: representa el dinero disponible de esa cuenta.
-    private float saldo;
-
-    // Constructor: inicializa la cuenta con un saldo concreto.
-    // Dominio: permite crear distintas cuentas con distintos saldos iniciales.
-    public CuentaCorriente(float saldo) {
-        this.saldo = saldo;
-    }
-
-    // Getter simple para consultar el saldo actual.
-    // No está sincronizado porque se asume que las operaciones externas
-    // ya han protegido la coherencia cuando haga falta.
-    public float getSaldo() {
-        return saldo;
-    }
-
-    // Método para retirar dinero de la cuenta.
-    // Aquí se hace una comprobación muy sencilla de fondos.
-    // IMPORTANTE: este método por sí solo NO es thread-safe; por eso
-    // la clase que transfiere hace el synchronized externo.
-    public void retirarSaldo(float importe) {
-        if (saldo > importe) {   // Solo retira si hay suficiente saldo.
-            saldo -= importe;    // Actualiza el saldo restando el importe.
-        }
-    }
-
-    // Método para ingresar dinero en la cuenta.
-    // Igual que arriba: no está sincronizado, se supone que quien lo llama
-    // ya ha garantizado el acceso exclusivo.
-    public void ingresarSaldo(float importe) {
-        saldo += importe;  // Suma el importe al saldo actual.
-    }
-}
-
-
 // ────────────────────────────────────────────────────────────────
 // CLASE PRINCIPAL: U2P05DeadLockCuentaCorriente
 // Objetivo del programa:
 //   - Tener dos cuentas con dinero.
 //   - Lanzar dos hilos que transfieren dinero en sentidos opuestos.
 //   - Hacer la transferencia de forma SINCRONIZADA sobre las dos cuentas
-//     pero en un ORDEN FIJO (usando hashCode) para EVITAR DEADLOCK.
+//     pero en un ORDEN FIJO (usando el id de la cuenta) para EVITAR DEADLOCK.
 //
 // Idea clave de teoría para el examen:
 //   Si dos hilos necesitan más de un candado (dos cuentas), TODOS los hilos
@@ -69,21 +25,26 @@ public class U2P05DeadLockCuentaCorriente {
     //     las dos a la vez (leer saldo de una y escribir en la otra).
     //   - Si cada hilo las bloquea en orden distinto, puede haber deadlock.
     // Solución usada:
-    //   - Ordenamos las dos cuentas por su hashCode.
-    //   - Siempre bloqueamos primero la cuenta con hashCode más pequeño
+    //   - Ordenamos las dos cuentas por su id.
+    //   - Siempre bloqueamos primero la cuenta con id más pequeño
     //     y luego la otra.
     //   - Así TODOS los hilos bloquean en el mismo orden → no hay ciclo.
+    //   - No vale hashCode(): no es único. Si dos cuentas tienen el mismo
+    //     hashCode, cada hilo elige como "menor" la que recibe como
+    //     destino, y vuelve a haber orden cruzado y deadlock. El id, en
+    //     cambio, es distinto para cada cuenta.
+    // Devuelve si la transferencia se ha hecho (false = sin fondos).
     // ────────────────────────────────────────────────────────────
-    public static void transferir(CuentaCorriente origen,
-                                  CuentaCorriente destino,
-                                  float importe ){
+    public static boolean transferir(CuentaCorriente origen,
+                                     CuentaCorriente destino,
+                                     float importe ){
 
         // Primero decidimos en qué orden vamos a bloquear los objetos.
-        // aux1 será SIEMPRE la cuenta con hashCode más pequeño.
-        // aux2 será SIEMPRE la cuenta con hashCode más grande.
+        // aux1 será SIEMPRE la cuenta con id más pequeño.
+        // aux2 será SIEMPRE la cuenta con id más grande.
         // Dominio: esto impone un ORDEN GLOBAL de bloqueo para evitar deadlock.
-        CuentaCorriente aux1 = origen.hashCode() < destino.hashCode() ? origen : destino;
-        CuentaCorriente aux2 = origen.hashCode() < destino.hashCode() ? destino : origen;
+        CuentaCorriente aux1 = origen.getId() < destino.getId() ? origen : destino;
+        CuentaCorriente aux2 = origen.getId() < destino.getId() ? destino : origen;
 
         // Bloqueamos primero el objeto "menor"
         synchronized (aux1){
@@ -95,12 +56,15 @@ public class U2P05DeadLockCuentaCorriente {
                 // Retiramos dinero de la cuenta 'origen'.
                 // OJO: aunque dentro se comprueba el saldo, la protección real
                 // viene de estos synchronized de fuera.
-                origen.retirarSaldo(importe);
+                if (!origen.retirarSaldo(importe)) {
+                    return false;   // sin fondos: no se ingresa nada en destino
+                }
 
                 // Ingresamos ese mismo dinero en la cuenta 'destino'.
                 destino.ingresarSaldo(importe);
                 // Con estas dos operaciones hemos mantenido la INVARIANTE:
                 // total del sistema = igual que antes de empezar la transferencia.
+                return true;
             }
         }
 
@@ -160,8 +124,8 @@ public class U2P05DeadLockCuentaCorriente {
         System.out.println("Saldo final CC2: " + cc2.getSaldo());
 
         // Y muy importante: comprobamos el saldo TOTAL del sistema bancario simulado.
-        // Si todo está bien, debería ser: 100_000 + 100_000 = 200_000
-        // (salvo que alguna transferencia no se hiciera por falta de saldo en origen).
+        // Si todo está bien, debería ser SIEMPRE: 100_000 + 100_000 = 200_000.
+        // Una transferencia sin fondos no mueve nada (ni retira ni ingresa).
         System.out.println("Saldo Total: " + (cc1.getSaldo() + cc2.getSaldo()));
 
     }
@@ -170,7 +134,10 @@ public class U2P05DeadLockCuentaCorriente {
 
 // Ejercicio 2. : Similar a esto, como evitar el Deadlock
 // → Resumen para examen:
-//   1. Siempre adquirir los locks en el mismo orden (como aquí con hashCode).
+//   1. Siempre adquirir los locks en el mismo orden (como aquí con el id).
 //   2. O usar tryLock con timeout (en ReentrantLock) y reintentar.
 //   3. O reducir la sección crítica para no tener dos recursos bloqueados a la vez.
 //   4. Pero la idea más fácil de explicar en el examen es: "ORDEN FIJO DE BLOQUEO".
+//   Con millones de cuentas y muchos hilos: LibroCuentas (saldos en un
+//   long[] y una tabla de candados por franjas, también en orden fijo).
+//   Y para que sobreviva a un reinicio: DiarioTransferencias.
@@ -0,0 +1,184 @@
+package edu.thepower.u2programacion.multithread;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+// ────────────────────────────────────────────────────────────────
+// CLASE PRINCIPAL: U2P05DiarioTransferencias
+// Objetivo del programa:
+//   1) BENCHMARK: transferencias DURADERAS por segundo (cada una espera
+//      a su force()) con distintas configuraciones del diario:
+//        maxLote = 1        → un force() por transferencia (sin grupo).
+//        maxLote grande     → group commit: un force() para muchas.
+//        maxEspera > 0      → el escritor espera un poco a juntar más.
+//      Los clientes son hilos virtuales: miles de ellos esperando a
+//      disco cuestan muy poco, y son los que llenan los lotes.
+//   2) CAÍDA Y RECUPERACIÓN: lanza un proceso hijo que transfiere sin
+//      parar y se mata con Runtime.halt() (sin cierre limpio, como un
+//      corte de luz a nivel de proceso). Después abre el mismo diario:
+//        - el dinero total tiene que ser el inicial;
+//        - toda transferencia que el hijo vio confirmada tiene que estar.
+//
+// Qué se espera ver:
+//   - Sin grupo, el ritmo lo marca el disco (unos pocos miles de
+//     force() por segundo). Con grupo, decenas de miles por segundo: el
+//     número de force() apenas cambia, pero cada uno lleva cientos de
+//     transferencias.
+//
+// Uso: U2P05DiarioTransferencias [cuentas=100000] [clientes=1000] [directorio=./salida/diario]
+//      (--caida dir cuentas clientes ms → modo hijo, lo lanza el propio programa)
+// ────────────────────────────────────────────────────────────────
+public class U2P05DiarioTransferencias {
+
+    private static final long DURACION_MS = 2000;
+    private static final long SALDO_INICIAL = 100_000;
+    private static final long IMPORTE_MAXIMO = 50_000;
+    private static final int FRANJAS = 4096;
+    private static final long MS_HASTA_CAIDA = 1500;
+
+    private static final List<DiarioTransferencias.Config> CONFIGURACIONES = List.of(
+            new DiarioTransferencias.Config(1, Duration.ZERO, 500_000),
+            new DiarioTransferencias.Config(64, Duration.ZERO, 500_000),
+            new DiarioTransferencias.Config(4096, Duration.ZERO, 500_000),
+            new DiarioTransferencias.Config(4096, Duration.ofMillis(1), 500_000),
+            new DiarioTransferencias.Config(4096, Duration.ZERO, 20_000));
+
+    private static volatile boolean parar;
+
+
+    // ────────────────────────────────────────────────────────────
+    // CLIENTES: 'clientes' hilos virtuales haciendo transferencias
+    // duraderas al azar hasta que se active 'parar'.
+    // ────────────────────────────────────────────────────────────
+    private static List<Thread> lanzarClientes(DiarioTransferencias diario, int clientes, LongAdder hechas) {
+        int cuentas = diario.libro().cuentas();
+        List<Thread> hilos = new ArrayList<>(clientes);
+        for (int c = 0; c < clientes; c++) {
+            hilos.add(Thread.ofVirtual().name("cliente-" + c).start(() -> {
+                ThreadLocalRandom r = ThreadLocalRandom.current();
+                long n = 0;
+                while (!parar) {
+                    diario.transferir(r.nextInt(cuentas), r.nextInt(cuentas), 1 + r.nextLong(IMPORTE_MAXIMO));
+                    n++;
+                }
+                hechas.add(n);
+            }));
+        }
+        return hilos;
+    }
+
+    private static void borrar(Path directorio) throws IOException {
+        if (!Files.exists(directorio)) return;
+        try (Stream<Path> s = Files.list(directorio)) {
+            for (Path p : s.toList()) Files.delete(p);
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: BENCHMARK DE CONFIGURACIONES
+       ───────────────────────────────────────────────────────────── */
+    private static void benchmark(Path directorio, int cuentas, int clientes) throws Exception {
+        System.out.printf("%d cuentas, %d clientes virtuales, %d ms por medición%n", cuentas, clientes, DURACION_MS);
+        System.out.printf("%8s %10s %12s %14s %12s %10s%n", "maxLote", "maxEspera", "instant.", "duraderas/s", "por force()", "total");
+        for (DiarioTransferencias.Config config : CONFIGURACIONES) {
+            borrar(directorio);
+            LongAdder hechas = new LongAdder();
+            long total;
+            double porLote;
+            try (DiarioTransferencias diario = DiarioTransferencias.abrir(directorio, cuentas, SALDO_INICIAL, FRANJAS, config)) {
+                parar = false;
+                List<Thread> hilos = lanzarClientes(diario, clientes, hechas);
+                Thread.sleep(DURACION_MS);
+                parar = true;
+                for (Thread t : hilos) t.join();
+                total = diario.libro().total();
+                porLote = diario.registrosPorLote();
+            }
+            System.out.printf("%8d %8dms %12d %14.0f %12.1f %10s%n", config.maxLote(), config.maxEspera().toMillis(),
+                    config.instantaneaCada(), hechas.sum() * 1000.0 / DURACION_MS, porLote,
+                    total == cuentas * SALDO_INICIAL ? "OK" : "ERROR");
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: PRUEBA DE CAÍDA
+       ----------------------------------------------------------------
+       El hijo escribe "confirmadas=<secuencia>" justo antes de halt():
+       es la secuencia más alta que el diario le había confirmado como
+       duradera. Todo lo que haya hasta ahí tiene que recuperarse.
+       ───────────────────────────────────────────────────────────── */
+    private static void pruebaCaida(Path directorio, int cuentas, int clientes) throws Exception {
+        borrar(directorio);
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder pb = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                U2P05DiarioTransferencias.class.getName(), "--caida", directorio.toString(),
+                String.valueOf(cuentas), String.valueOf(clientes), String.valueOf(MS_HASTA_CAIDA));
+        pb.redirectErrorStream(true);
+        Process hijo = pb.start();
+
+        long confirmadas = -1;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(hijo.getInputStream()))) {
+            String linea;
+            while ((linea = in.readLine()) != null) {
+                if (linea.startsWith("confirmadas=")) confirmadas = Long.parseLong(linea.substring(12));
+                else System.out.println("  [hijo] " + linea);
+            }
+        }
+        System.out.printf("Hijo terminado con código %d tras confirmar hasta la secuencia %d%n", hijo.waitFor(), confirmadas);
+
+        try (DiarioTransferencias diario = DiarioTransferencias.abrir(directorio, cuentas, SALDO_INICIAL, FRANJAS,
+                DiarioTransferencias.Config.porDefecto())) {
+            DiarioTransferencias.Recuperacion r = diario.recuperacion();
+            long total = diario.libro().total();
+            System.out.printf("Recuperación en %d ms: instantánea hasta %d, %d registros reproducidos, última secuencia %d%s%n",
+                    r.ms(), r.secuenciaInstantanea(), r.reproducidos(), r.ultimaSecuencia(),
+                    r.colaCortada() ? " (cola cortada)" : "");
+            System.out.println("Total recuperado: " + total
+                    + (total == cuentas * SALDO_INICIAL ? " (invariante OK)" : " (ERROR: esperado " + cuentas * SALDO_INICIAL + ")"));
+            System.out.println(r.ultimaSecuencia() >= confirmadas
+                    ? "Todas las transferencias confirmadas siguen ahí"
+                    : "ERROR: se han perdido transferencias confirmadas");
+        }
+    }
+
+    // Modo hijo: transfiere y muere sin cerrar el diario.
+    private static void hijoQueSeCae(Path directorio, int cuentas, int clientes, long ms) throws Exception {
+        DiarioTransferencias diario = DiarioTransferencias.abrir(directorio, cuentas, SALDO_INICIAL, FRANJAS,
+                new DiarioTransferencias.Config(4096, Duration.ZERO, 100_000));
+        lanzarClientes(diario, clientes, new LongAdder());
+        Thread.sleep(ms);
+        System.out.println("confirmadas=" + diario.duraderas());
+        System.out.flush();
+        Runtime.getRuntime().halt(137);
+    }
+
+
+    public static void main(String[] args) throws Exception {
+
+        if (args.length > 0 && args[0].equals("--caida")) {
+            hijoQueSeCae(Path.of(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]), Long.parseLong(args[4]));
+            return;
+        }
+
+        int cuentas = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int clientes = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        Path directorio = Path.of(args.length > 2 ? args[2] : "." + File.separator + "salida" + File.separator + "diario");
+
+        benchmark(directorio, cuentas, clientes);
+        System.out.println();
+        pruebaCaida(directorio, cuentas, clientes);
+    }
+}
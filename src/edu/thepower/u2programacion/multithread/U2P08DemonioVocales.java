@@ -0,0 +1,214 @@
+package edu.thepower.u2programacion.multithread;
+
+import edu.thepower.u1programacion.multiproceso.EscanerVocales;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Objects;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL DEL PROGRAMA
+// ----------------------------------------------------------------
+// Demonio que mantiene las estadísticas de vocales de un archivo que
+// CRECE (p.ej. ./resources/vocales.txt) sin volver a contarlo entero.
+//
+// Idea:
+//   - Recuerda hasta qué byte ha procesado (desplazamiento).
+//   - Un hilo daemon espera avisos del sistema de ficheros con un
+//     WatchService; en cada aviso cuenta SOLO los bytes nuevos
+//     [desplazamiento, tamaño) y los suma a los totales acumulados.
+//   - El coste de cada actualización es proporcional a lo añadido, no
+//     al tamaño del archivo.
+//
+// Detalles:
+//   - Se usa el mismo criterio que el resto de contadores (EscanerVocales:
+//     minúsculas, mayúsculas y tildes). Si el último byte procesado era
+//     el primero de una vocal con tilde (C3) se recuerda, para contarla
+//     bien cuando llegue su segundo byte.
+//   - Si el archivo ENCOGE (se ha truncado) o es OTRO archivo con el
+//     mismo nombre (un editor que guarda en un temporal y lo renombra
+//     encima, aunque quede igual o más grande) no hay forma de saber qué
+//     ha cambiado: se vuelve a contar desde cero. Lo segundo se detecta
+//     con fileKey() (dispositivo + inodo en Unix; en Windows es null y
+//     solo queda el tamaño).
+//   - Un fallo al leer (el archivo desaparece entre el aviso y la
+//     lectura, permisos...) se informa y el vigilante sigue: en el
+//     siguiente aviso se vuelve a intentar.
+//   - El hilo principal atiende órdenes por la entrada estándar:
+//       estado   → muestra los totales actuales
+//       recontar → descarta los totales y cuenta el archivo entero
+//       salir    → termina el programa
+//
+// Uso: java U2P08DemonioVocales [archivo=./resources/vocales.txt]
+// ───────────────────────────────────────────────────────────────
+public class U2P08DemonioVocales {
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: ESTADO ACUMULADO
+       ----------------------------------------------------------------
+       Lo modifican el hilo vigilante y la orden "recontar", y lo lee
+       la orden "estado": todos los accesos van dentro de métodos
+       synchronized sobre la instancia.
+       ───────────────────────────────────────────────────────────── */
+    private final Path archivo;
+    private final long[] totales = new long[EscanerVocales.ORDEN.length];
+    private long desplazamiento = 0;
+    private Object claveArchivo = null;        // fileKey() del archivo contado
+    private boolean liderPendiente = false;
+    private long actualizaciones = 0;
+    private long ultimoDelta = 0;
+
+    public U2P08DemonioVocales(Path archivo) {
+        this.archivo = archivo.toAbsolutePath();
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: ACTUALIZACIÓN INCREMENTAL
+       ----------------------------------------------------------------
+       - Cuenta [desplazamiento, tamaño actual) y avanza el desplazamiento.
+       - Si no hay bytes nuevos (p.ej. el aviso era por un cambio de
+         permisos) no hace nada.
+       - Tamaño y fileKey() salen de una sola lectura de atributos.
+       ───────────────────────────────────────────────────────────── */
+    synchronized void actualizar() throws IOException {
+        if (!Files.exists(archivo)) return;
+
+        BasicFileAttributes atributos = Files.readAttributes(archivo, BasicFileAttributes.class);
+        long tamano = atributos.size();
+        Object clave = atributos.fileKey();
+        if (tamano < desplazamiento) {
+            System.out.println("[demonio] el archivo ha encogido: se recuenta desde el principio");
+            reiniciar();
+        } else if (claveArchivo != null && !Objects.equals(clave, claveArchivo)) {
+            System.out.println("[demonio] el archivo se ha sustituido: se recuenta desde el principio");
+            reiniciar();
+        }
+        claveArchivo = clave;
+        if (tamano == desplazamiento) return;
+
+        liderPendiente = EscanerVocales.contarArchivo(archivo, desplazamiento, tamano, totales, liderPendiente);
+        ultimoDelta = tamano - desplazamiento;
+        desplazamiento = tamano;
+        actualizaciones++;
+    }
+
+    synchronized void reiniciar() {
+        Arrays.fill(totales, 0);
+        desplazamiento = 0;
+        claveArchivo = null;
+        liderPendiente = false;
+    }
+
+    synchronized String estado() {
+        StringBuilder sb = new StringBuilder();
+        long suma = 0;
+        for (int i = 0; i < totales.length; i++) {
+            sb.append(EscanerVocales.ORDEN[i]).append('=').append(totales[i]).append(' ');
+            suma += totales[i];
+        }
+        return sb.append("| total=").append(suma)
+                .append(" | bytes procesados=").append(desplazamiento)
+                .append(" | actualizaciones=").append(actualizaciones)
+                .append(" (última: ").append(ultimoDelta).append(" bytes)")
+                .toString();
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 3: HILO VIGILANTE (WatchService)
+       ----------------------------------------------------------------
+       - WatchService vigila DIRECTORIOS: se registra la carpeta del
+         archivo y se filtran los avisos por nombre.
+       - Varios avisos seguidos se resuelven con una sola lectura: lo
+         que importa es el tamaño actual, no cuántos avisos llegaron.
+       - OVERFLOW (se han perdido avisos) también provoca una lectura.
+       - Si una lectura falla se informa y se sigue vigilando: un error
+         en un aviso no debe dejar el demonio sin vigilante.
+       - Es daemon: no impide que el programa termine con "salir".
+       ───────────────────────────────────────────────────────────── */
+    Thread vigilar() throws IOException {
+        WatchService vigilante = archivo.getFileSystem().newWatchService();
+        archivo.getParent().register(vigilante,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread t = new Thread(() -> {
+            try (vigilante) {
+                while (true) {
+                    WatchKey clave = vigilante.take();
+                    boolean afecta = false;
+                    for (WatchEvent<?> evento : clave.pollEvents()) {
+                        afecta |= evento.kind() == StandardWatchEventKinds.OVERFLOW
+                                || archivo.getFileName().equals(evento.context());
+                    }
+                    if (afecta) {
+                        try {
+                            actualizar();
+                            System.out.println("[demonio] " + estado());
+                        } catch (IOException | UncheckedIOException e) {
+                            System.err.println("[demonio] no se pudo actualizar (se reintentará en el siguiente aviso): " + e);
+                        }
+                    }
+                    if (!clave.reset()) {
+                        System.err.println("[demonio] el directorio ya no se puede vigilar");
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                System.err.println("[demonio] error al cerrar el vigilante: " + e);
+            }
+        }, "vigilante-vocales");
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 4: MÉTODO MAIN – ÓRDENES POR CONSOLA
+       ───────────────────────────────────────────────────────────── */
+    public static void main(String[] args) throws IOException {
+
+        U2P08DemonioVocales demonio = new U2P08DemonioVocales(Path.of(args.length > 0 ? args[0] : "./resources/vocales.txt"));
+
+        // Se registra el vigilante ANTES de la primera lectura: lo que se
+        // añada entre medias genera un aviso y no se pierde.
+        demonio.vigilar();
+        demonio.actualizar();
+        System.out.println("[demonio] " + demonio.estado());
+        System.out.println("Órdenes: estado | recontar | salir");
+
+        BufferedReader consola = new BufferedReader(new InputStreamReader(System.in));
+        String orden;
+        while ((orden = consola.readLine()) != null) {
+            switch (orden.trim()) {
+                case "estado" -> System.out.println(demonio.estado());
+                case "recontar" -> {
+                    // Igual que en el vigilante: un fallo de lectura se informa
+                    // y el demonio sigue atendiendo órdenes.
+                    try {
+                        synchronized (demonio) {
+                            demonio.reiniciar();
+                            demonio.actualizar();
+                        }
+                        System.out.println(demonio.estado());
+                    } catch (IOException | UncheckedIOException e) {
+                        System.err.println("[demonio] no se pudo recontar (pruebe de nuevo): " + e);
+                    }
+                }
+                case "salir" -> {
+                    return;
+                }
+                case "" -> { }
+                default -> System.out.println("Orden desconocida: " + orden);
+            }
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package edu.thepower.u2programacion.multithread;
+
+import edu.thepower.u1programacion.multiproceso.EscanerVocales;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL DEL PROGRAMA
+// ----------------------------------------------------------------
+// Cuenta las vocales de TODOS los archivos de un árbol de directorios
+// (cientos de miles de archivos pequeños y algunos enormes), manteniendo
+// ocupados todos los núcleos aunque los tamaños estén muy descompensados.
+//
+// Problema de repartir "un archivo por tarea":
+//   - Un archivo de 2 GB es una sola tarea → un núcleo trabajando y el
+//     resto parados al final.
+//   - 300.000 archivos de 1 KB son 300.000 tareas → el coste de crear y
+//     planificar cada tarea supera al de contar.
+//
+// Solución: se normaliza el trabajo a unidades de tamaño parecido
+// (~UNIDAD bytes) y se reparten en un ForkJoinPool (robo de trabajo):
+//   - Archivos grandes → se PARTEN en trozos de UNIDAD bytes.
+//   - Archivos pequeños → se AGRUPAN en lotes de hasta UNIDAD bytes
+//     (o MAX_LOTE archivos).
+//   - La lista de unidades se divide por mitades (RecursiveAction): cada
+//     hilo parte su mitad y los hilos ociosos roban la otra.
+//
+// Resultados:
+//   - Histograma global (LongAdder por vocal: sin contención entre hilos).
+//   - Histograma por archivo (ConcurrentHashMap). Los trozos de un mismo
+//     archivo suman sobre el mismo long[] con sincronización por archivo.
+//   - ./salida/directorio.csv con una línea por archivo.
+//   - Progreso cada segundo desde un hilo daemon: bytes, archivos,
+//     MB/s y número de robos del pool.
+//
+// Uso:
+//   java U2P09AnalisisDirectorio [directorio=./resources] [hilos=núcleos]
+//   java U2P09AnalisisDirectorio --generar <directorio> [archivos=100000]
+//     → crea un árbol de prueba: muchos archivos pequeños y unos pocos
+//       grandes, copiando trozos de ./resources/vocales.txt.
+// ───────────────────────────────────────────────────────────────
+public class U2P09AnalisisDirectorio {
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: CONSTANTES Y ESTADO COMPARTIDO
+       ───────────────────────────────────────────────────────────── */
+    // Tamaño objetivo de cada unidad de trabajo.
+    private static final long UNIDAD = 4L * 1024 * 1024;
+    // Máximo de archivos por lote, aunque sean diminutos.
+    private static final int MAX_LOTE = 512;
+    // Por encima de este número de unidades, RepartoUnidades sigue partiendo.
+    private static final int UNIDADES_POR_HOJA = 1;
+
+    private static final String CSV = "./salida/directorio.csv";
+
+    private final LongAdder[] global = new LongAdder[EscanerVocales.ORDEN.length];
+    private final Map<Path, long[]> porArchivo = new ConcurrentHashMap<>();
+    private final LongAdder bytesProcesados = new LongAdder();
+    private final LongAdder archivosTerminados = new LongAdder();
+    private final Map<Path, String> errores = new ConcurrentHashMap<>();
+
+    // Trozos pendientes por archivo grande: el último en terminar lo da por acabado.
+    private final Map<Path, AtomicLong> trozosPendientes = new ConcurrentHashMap<>();
+
+    U2P09AnalisisDirectorio() {
+        for (int i = 0; i < global.length; i++) global[i] = new LongAdder();
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: UNIDADES DE TRABAJO
+       ----------------------------------------------------------------
+       - Trozo: rango [inicio, fin) de un archivo grande. Si inicio > 0
+         mira el byte anterior por si parte una vocal con tilde (C3 xx).
+       - Lote: lista de archivos pequeños completos; cada uno se lee de
+         una vez (readAllBytes) en lugar de proyectarlo en memoria.
+       ───────────────────────────────────────────────────────────── */
+    private interface Unidad {
+        long bytes();
+        void procesar();
+    }
+
+    private record Trozo(U2P09AnalisisDirectorio a, Path archivo, long inicio, long fin) implements Unidad {
+        public long bytes() { return fin - inicio; }
+
+        public void procesar() {
+            long[] cuentas = new long[EscanerVocales.ORDEN.length];
+            try {
+                boolean liderPendiente = false;
+                if (inicio > 0) {
+                    try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+                        ByteBuffer anterior = ByteBuffer.allocate(1);
+                        canal.read(anterior, inicio - 1);
+                        liderPendiente = (anterior.get(0) & 0xFF) == 0xC3;
+                    }
+                }
+                EscanerVocales.contarArchivo(archivo, inicio, fin, cuentas, liderPendiente);
+            } catch (IOException | UncheckedIOException e) {
+                a.errores.put(archivo, String.valueOf(e.getMessage()));
+            }
+            a.acumular(archivo, cuentas, bytes());
+            if (a.trozosPendientes.get(archivo).decrementAndGet() == 0) a.archivosTerminados.increment();
+        }
+    }
+
+    private record Lote(U2P09AnalisisDirectorio a, List<Path> archivos, long bytes) implements Unidad {
+        public void procesar() {
+            for (Path archivo : archivos) {
+                long[] cuentas;
+                long leidos;
+                try {
+                    byte[] datos = Files.readAllBytes(archivo);
+                    cuentas = EscanerVocales.contar(datos);
+                    leidos = datos.length;
+                } catch (IOException | UncheckedIOException e) {
+                    a.errores.put(archivo, String.valueOf(e.getMessage()));
+                    cuentas = new long[EscanerVocales.ORDEN.length];
+                    leidos = 0;
+                }
+                a.acumular(archivo, cuentas, leidos);
+                a.archivosTerminados.increment();
+            }
+        }
+    }
+
+    private void acumular(Path archivo, long[] cuentas, long bytes) {
+        long[] propio = porArchivo.computeIfAbsent(archivo, k -> new long[EscanerVocales.ORDEN.length]);
+        synchronized (propio) {
+            for (int i = 0; i < cuentas.length; i++) propio[i] += cuentas[i];
+        }
+        for (int i = 0; i < cuentas.length; i++) global[i].add(cuentas[i]);
+        bytesProcesados.add(bytes);
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 3: RECORRER EL ÁRBOL Y FORMAR LAS UNIDADES
+       ----------------------------------------------------------------
+       - walkFileTree no sigue enlaces simbólicos y permite seguir
+         aunque un directorio no se pueda leer (visitFileFailed).
+       - Los pequeños se van metiendo en el lote abierto y se cierra al
+         llegar a UNIDAD bytes o MAX_LOTE archivos.
+       ───────────────────────────────────────────────────────────── */
+    List<Unidad> planificar(Path raiz) throws IOException {
+        List<Unidad> unidades = new ArrayList<>();
+        List<Path> lote = new ArrayList<>();
+        long[] bytesLote = {0};
+
+        Files.walkFileTree(raiz, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path archivo, BasicFileAttributes attrs) {
+                if (!attrs.isRegularFile()) return FileVisitResult.CONTINUE;
+                long tamano = attrs.size();
+                if (tamano > UNIDAD) {
+                    long trozos = (tamano + UNIDAD - 1) / UNIDAD;
+                    trozosPendientes.put(archivo, new AtomicLong(trozos));
+                    for (long inicio = 0; inicio < tamano; inicio += UNIDAD)
+                        unidades.add(new Trozo(U2P09AnalisisDirectorio.this, archivo, inicio, Math.min(tamano, inicio + UNIDAD)));
+                } else {
+                    lote.add(archivo);
+                    bytesLote[0] += tamano;
+                    if (bytesLote[0] >= UNIDAD || lote.size() >= MAX_LOTE) {
+                        unidades.add(new Lote(U2P09AnalisisDirectorio.this, List.copyOf(lote), bytesLote[0]));
+                        lote.clear();
+                        bytesLote[0] = 0;
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path archivo, IOException e) {
+                errores.put(archivo, String.valueOf(e.getMessage()));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        if (!lote.isEmpty()) unidades.add(new Lote(this, List.copyOf(lote), bytesLote[0]));
+        return unidades;
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 4: REPARTO CON ROBO DE TRABAJO
+       ----------------------------------------------------------------
+       - Cada tarea parte su rango de unidades por la mitad y lanza las
+         dos con invokeAll(): la segunda queda en la cola del hilo
+         (disponible para robar) y la primera se procesa en el mismo
+         hilo; después espera a la segunda.
+       - Un hilo que se queda sin trabajo roba de la cola de otro las
+         tareas MÁS GRANDES (las más antiguas): los robos son pocos y
+         cada uno se lleva mucho trabajo.
+       ───────────────────────────────────────────────────────────── */
+    @SuppressWarnings("serial")   // tarea de ForkJoin: nunca se serializa
+    private static class RepartoUnidades extends RecursiveAction {
+        private final List<Unidad> unidades;
+        private final int desde, hasta;
+
+        RepartoUnidades(List<Unidad> unidades, int desde, int hasta) {
+            this.unidades = unidades;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= UNIDADES_POR_HOJA) {
+                for (int i = desde; i < hasta; i++) unidades.get(i).procesar();
+                return;
+            }
+            int mitad = (desde + hasta) >>> 1;
+            invokeAll(new RepartoUnidades(unidades, desde, mitad), new RepartoUnidades(unidades, mitad, hasta));
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 5: PROGRESO
+       ----------------------------------------------------------------
+       Hilo daemon que cada segundo muestra el avance; lee solo
+       contadores (LongAdder), así que no frena a los trabajadores.
+       ───────────────────────────────────────────────────────────── */
+    private ScheduledExecutorService mostrarProgreso(ForkJoinPool pool, long bytesTotales, int archivosTotales, long inicio) {
+        ScheduledExecutorService reloj = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "progreso");
+            t.setDaemon(true);
+            return t;
+        });
+        reloj.scheduleAtFixedRate(() -> {
+            long bytes = bytesProcesados.sum();
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            System.out.printf("[progreso] %5.1f%% | %d/%d archivos | %.1f MB/s | activos %d | robos %d%n",
+                    bytesTotales == 0 ? 100.0 : 100.0 * bytes / bytesTotales, archivosTerminados.sum(), archivosTotales,
+                    bytes / 1e6 / segundos, pool.getActiveThreadCount(), pool.getStealCount());
+        }, 1, 1, TimeUnit.SECONDS);
+        return reloj;
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 6: ÁRBOL DE PRUEBA (--generar)
+       ----------------------------------------------------------------
+       Reparte 'archivos' archivos en subdirectorios de 1000: casi todos
+       de 200 B a 8 KB y, cada 20.000, uno con el texto completo.
+       ───────────────────────────────────────────────────────────── */
+    private static void generar(Path raiz, int archivos) throws IOException {
+        byte[] texto = Files.readAllBytes(Path.of("./resources/vocales.txt"));
+        Random r = new Random(42);
+        for (int i = 0; i < archivos; i++) {
+            Path dir = raiz.resolve("d" + (i / 1000));
+            if (i % 1000 == 0) Files.createDirectories(dir);
+            if (i % 20_000 == 0) {
+                Files.write(dir.resolve("grande" + i + ".txt"), texto);
+            } else {
+                int n = 200 + r.nextInt(8 * 1024);
+                int desde = r.nextInt(texto.length - n);
+                Files.write(dir.resolve("f" + i + ".txt"), Arrays.copyOfRange(texto, desde, desde + n));
+            }
+        }
+        System.out.println("Generados " + archivos + " archivos en " + raiz);
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 7: MÉTODO MAIN
+       ───────────────────────────────────────────────────────────── */
+    public static void main(String[] args) throws IOException {
+
+        if (args.length > 1 && args[0].equals("--generar")) {
+            generar(Path.of(args[1]), args.length > 2 ? Integer.parseInt(args[2]) : 100_000);
+            return;
+        }
+
+        Path raiz = Path.of(args.length > 0 ? args[0] : "./resources");
+        int hilos = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        U2P09AnalisisDirectorio analisis = new U2P09AnalisisDirectorio();
+
+        long inicio = System.nanoTime();
+        List<Unidad> unidades = analisis.planificar(raiz);
+        long bytesTotales = unidades.stream().mapToLong(Unidad::bytes).sum();
+        int archivosTotales = unidades.stream()
+                .mapToInt(u -> u instanceof Lote l ? l.archivos().size() : 0).sum() + analisis.trozosPendientes.size();
+        System.out.printf("Planificado en %d ms: %d archivos, %.1f MB, %d unidades de trabajo, %d hilos%n",
+                (System.nanoTime() - inicio) / 1_000_000, archivosTotales, bytesTotales / 1e6, unidades.size(), hilos);
+
+        ForkJoinPool pool = new ForkJoinPool(hilos);
+        ScheduledExecutorService reloj = analisis.mostrarProgreso(pool, bytesTotales, archivosTotales, inicio);
+        try {
+            pool.invoke(new RepartoUnidades(unidades, 0, unidades.size()));
+        } finally {
+            reloj.shutdownNow();
+            pool.shutdown();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        // ───── Resultado por archivo (CSV) y global ─────
+        Files.createDirectories(Path.of(CSV).getParent());
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Path.of(CSV)))) {
+            out.println("archivo;" + String.join(";", new String(EscanerVocales.ORDEN).split("")));
+            analisis.porArchivo.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(e -> {
+                        StringBuilder linea = new StringBuilder(e.getKey().toString());
+                        for (long n : e.getValue()) linea.append(';').append(n);
+                        out.println(linea);
+                    });
+        }
+
+        long total = 0;
+        for (int i = 0; i < analisis.global.length; i++) {
+            long n = analisis.global[i].sum();
+            System.out.println("Vocal " + EscanerVocales.ORDEN[i] + ": " + n);
+            total += n;
+        }
+        System.out.printf("Total de vocales: %d en %d archivos (%.2f s, %.1f MB/s, %d robos)%n",
+                total, analisis.porArchivo.size(), segundos, bytesTotales / 1e6 / segundos, pool.getStealCount());
+        System.out.println("Histograma por archivo en " + CSV);
+        if (!analisis.errores.isEmpty()) {
+            System.out.println("Archivos con error: " + analisis.errores.size());
+            analisis.errores.entrySet().stream().limit(10)
+                    .forEach(e -> System.out.println("  " + e.getKey() + ": " + e.getValue()));
+        }
+    }
+}
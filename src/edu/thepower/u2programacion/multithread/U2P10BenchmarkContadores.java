@@ -0,0 +1,134 @@
+package edu.thepower.u2programacion.multithread;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+// ───────────────────────────────────────────────────────────────
+// COMENTARIO GENERAL DEL PROGRAMA
+// ----------------------------------------------------------------
+// Benchmark de las estrategias de Contador con 1..N hilos: operaciones
+// por segundo de cada una según crece la contención.
+//
+// Cada medición:
+//  1) Crea un contador NUEVO y 'hilos' hilos que esperan en un latch,
+//     para que todos empiecen a la vez.
+//  2) Cada hilo repite sumar(1) (y, según 'lecturas', algún valor())
+//     hasta que se baja la bandera 'parar' pasados DURACION_MS, y
+//     cuenta sus propias operaciones en una variable local.
+//  3) Se comprueba que valor() == suma de las sumas hechas por los
+//     hilos: una estrategia rápida pero incorrecta no cuenta.
+//
+// Se descarta una primera ronda de calentamiento (JIT) y se muestra la
+// MEDIANA de RONDAS mediciones, que es menos sensible al ruido.
+//
+// Sin JMH (el proyecto no tiene sistema de construcción): por eso el
+// bucle de medida es lo más simple posible y el resultado de valor()
+// se acumula en 'sumidero' para que el JIT no lo elimine.
+//
+// Uso: U2P10BenchmarkContadores [hilosMax=max(4, 2·núcleos)] [lecturas%=0]
+// ───────────────────────────────────────────────────────────────
+public class U2P10BenchmarkContadores {
+
+    private static final long DURACION_MS = 300;
+    private static final int RONDAS = 5;
+
+    private static volatile boolean parar;
+    private static volatile long sumidero;
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: UNA MEDICIÓN
+       ----------------------------------------------------------------
+       Devuelve operaciones/segundo (sumas + lecturas) de todos los
+       hilos juntos.
+       ───────────────────────────────────────────────────────────── */
+    private static double medir(Contador c, int hilos, int lecturas) throws InterruptedException {
+        CountDownLatch salida = new CountDownLatch(1);
+        long[] sumas = new long[hilos];
+        long[] operaciones = new long[hilos];
+        List<Thread> trabajadores = new ArrayList<>();
+        parar = false;
+
+        for (int h = 0; h < hilos; h++) {
+            int id = h;
+            Thread t = new Thread(() -> {
+                try {
+                    salida.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long n = 0, s = 0, leido = 0;
+                while (!parar) {
+                    // Cada 100 operaciones, 'lecturas' son valor() y el resto sumar(1).
+                    if (lecturas > 0 && n % 100 < lecturas) {
+                        leido += c.valor();
+                    } else {
+                        c.sumar(1);
+                        s++;
+                    }
+                    n++;
+                }
+                sumas[id] = s;
+                operaciones[id] = n;
+                sumidero += leido;
+            }, "contador-" + h);
+            trabajadores.add(t);
+            t.start();
+        }
+
+        long inicio = System.nanoTime();
+        salida.countDown();
+        Thread.sleep(DURACION_MS);
+        parar = true;
+        for (Thread t : trabajadores) t.join();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        long esperado = Arrays.stream(sumas).sum();
+        if (c.valor() != esperado)
+            throw new IllegalStateException(c.nombre() + " ha perdido sumas: " + c.valor() + " != " + esperado);
+        return Arrays.stream(operaciones).sum() / segundos;
+    }
+
+    private static double mediana(Supplier<Contador> fabrica, int hilos, int lecturas) throws InterruptedException {
+        medir(fabrica.get(), hilos, lecturas);   // calentamiento
+        double[] r = new double[RONDAS];
+        for (int i = 0; i < RONDAS; i++) r[i] = medir(fabrica.get(), hilos, lecturas);
+        Arrays.sort(r);
+        return r[RONDAS / 2];
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: MÉTODO MAIN – TABLA hilos × estrategia
+       ----------------------------------------------------------------
+       Hilos: 1, 2, 4, ... hasta hilosMax (y hilosMax si no es potencia
+       de 2). Valores en millones de operaciones por segundo.
+       ───────────────────────────────────────────────────────────── */
+    public static void main(String[] args) throws InterruptedException {
+
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        int hilosMax = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(4, 2 * nucleos);
+        int lecturas = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+
+        List<Supplier<Contador>> variantes = Contador.variantes();
+        System.out.printf("%d núcleos, %d%% lecturas, Mops/s (mediana de %d × %d ms)%n",
+                nucleos, lecturas, RONDAS, DURACION_MS);
+        System.out.printf("%6s", "hilos");
+        for (Supplier<Contador> v : variantes) System.out.printf(" %13s", v.get().nombre());
+        System.out.println();
+
+        List<Integer> niveles = new ArrayList<>();
+        for (int h = 1; h < hilosMax; h *= 2) niveles.add(h);
+        niveles.add(hilosMax);
+
+        for (int hilos : niveles) {
+            System.out.printf("%6d", hilos);
+            for (Supplier<Contador> v : variantes)
+                System.out.printf(" %13.1f", mediana(v, hilos, lecturas) / 1e6);
+            System.out.println();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package edu.thepower.u2programacion.multithread.examen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * BENCHMARK DEL HISTÓRICO DE PEDIDOS
+ * Objetivo: medir cuántos pedidos por segundo se registran con 1, 2, 4...
+ * hilos generadores:
+ *  - synchronized: ArrayList + synchronized(historico), como estaba el servicio
+ *  - registro:     RegistroSoloAnadir (reserva atómica + segmentos)
+ *  - servicio:     ServicioPedidos.registrarPedido completo (registro +
+ *                  contador por cliente + crear el Pedido)
+ * Mientras escriben los hilos del "registro", un lector recorre una y otra
+ * vez la vista publicada y comprueba que las posiciones son 0, 1, 2... sin
+ * huecos: lo que se publica está siempre completo.
+ *
+ * Qué se espera ver:
+ *  - Con 1 hilo (o 1 núcleo) las dos van parecidas: un candado sin
+ *    competencia es barato.
+ *  - Con varios núcleos el synchronized se queda plano o baja (todos en
+ *    cola por el mismo candado, y el ArrayList además copia al crecer);
+ *    el registro sigue subiendo: cada hilo solo comparte un incremento atómico.
+ *  - Ojo: en la columna "registro" el lector también gasta CPU; con
+ *    menos núcleos que hilos se la quita a los escritores.
+ *
+ * Uso: BenchmarkRegistroPedidos [pedidos por medición=4000000] [hilosMax=max(4, 2·núcleos)]
+ */
+public class BenchmarkRegistroPedidos {
+
+    private interface Escritor {
+        void escribir(long n);   // registra n pedidos desde el hilo actual
+    }
+
+    /* ─────────────────────────────────────────────────────────
+       UNA MEDICIÓN: 'hilos' hilos reparten 'total' pedidos.
+       Devuelve pedidos por segundo.
+       ───────────────────────────────────────────────────────── */
+    private static double medir(long total, int hilos, Escritor escritor) throws InterruptedException {
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Thread> generadores = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            long n = total / hilos + (h < total % hilos ? 1 : 0);
+            Thread t = new Thread(() -> {
+                try {
+                    salida.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                escritor.escribir(n);
+            }, "Generador-" + h);
+            generadores.add(t);
+            t.start();
+        }
+        long inicio = System.nanoTime();
+        salida.countDown();
+        for (Thread t : generadores) t.join();
+        return total * 1e9 / (System.nanoTime() - inicio);
+    }
+
+    private static double sincronizado(long total, int hilos) throws InterruptedException {
+        List<Long> historico = new ArrayList<>();
+        return medir(total, hilos, n -> {
+            for (long i = 0; i < n; i++) {
+                Long pedido = i;
+                synchronized (historico) {
+                    historico.add(pedido);
+                }
+            }
+        });
+    }
+
+    // Devuelve {pedidos/s, recorridos del lector, huecos o desórdenes vistos}.
+    private static double[] registro(long total, int hilos) throws InterruptedException {
+        RegistroSoloAnadir<Long> historico = new RegistroSoloAnadir<>();
+        long[] lector = new long[2];
+        Thread revisor = new Thread(() -> {
+            while (historico.tamano() < total) {
+                List<Long> vista = historico.vista();
+                for (int i = 0; i < vista.size(); i++)
+                    if (vista.get(i) != i) lector[1]++;
+                lector[0]++;
+            }
+        }, "lector");
+        revisor.start();
+        double porSegundo = medir(total, hilos, n -> {
+            for (long i = 0; i < n; i++) historico.anadir(Long::valueOf);
+        });
+        revisor.join();
+        return new double[]{porSegundo, lector[0], lector[1]};
+    }
+
+    private static double servicio(long total, int hilos) throws InterruptedException {
+        GeneradorPedidosConcurrente.ServicioPedidos servicio = new GeneradorPedidosConcurrente.ServicioPedidos();
+        double porSegundo = medir(total, hilos, n -> {
+            for (long i = 0; i < n; i++) servicio.registrarPedido();
+        });
+        long porClientes = servicio.getPedidosPorCliente().values().stream().mapToLong(a -> a.sum()).sum();
+        if (servicio.getTotalPedidos() != total || porClientes != total)
+            throw new IllegalStateException("No cuadra: " + servicio.getTotalPedidos() + " / " + porClientes);
+        return porSegundo;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        long total = args.length > 0 ? Long.parseLong(args[0]) : 4_000_000;
+        int hilosMax = args.length > 1 ? Integer.parseInt(args[1])
+                : Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+        // calentamiento (JIT)
+        sincronizado(total, hilosMax);
+        registro(total, hilosMax);
+        servicio(total, hilosMax);
+
+        System.out.printf("%d pedidos por medición, %d núcleos%n", total, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%6s %16s %14s %14s %10s %8s%n", "hilos", "synchronized/s", "registro/s", "servicio/s",
+                "lecturas", "huecos");
+        for (int hilos = 1; hilos <= hilosMax; hilos *= 2) {
+            double s = sincronizado(total, hilos);
+            double[] r = registro(total, hilos);
+            double c = servicio(total, hilos);
+            System.out.printf("%6d %16.0f %14.0f %14.0f %10.0f %8.0f%n", hilos, s, r[0], c, r[1], r[2]);
+        }
+    }
+}
@@ -72,9 +72,9 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * PRUEBA PRÁCTICA – PARTE 1
@@ -133,71 +133,66 @@ public class GeneradorPedidosConcurrente {
        ───────────────────────────────────────────────────────── */
     static class ServicioPedidos {
 
-        // Generador de IDs seguro para hilos.
-        // AtomicInteger garantiza que cada incremento es atómico → no hay IDs duplicados.
-        private final AtomicInteger generadorIds = new AtomicInteger(0);
-
         // Registro histórico de todos los pedidos.
-        // Usamos List normal pero protegida con synchronized al insertar.
-        // También se podría usar una colección concurrente, pero así
-        // se ve claramente la sincronización.
-        private final List<Pedido> historico = new ArrayList<>();
+        // Registro de solo añadir sin candados (ver RegistroSoloAnadir):
+        // cada hilo reserva su hueco con una operación atómica y escribe
+        // en él sin esperar a nadie. Con "ArrayList + synchronized" todos
+        // los hilos hacían cola en el mismo candado por cada pedido.
+        // La posición reservada es también el id (posición + 1): un solo
+        // contador atómico en vez de dos, y el histórico sale ya ordenado por id.
+        // Capacidad Integer.MAX_VALUE: la última posición es MAX_VALUE - 1, así
+        // que el id int nunca se desborda; pasado ese límite el registro
+        // rechaza el pedido ("Registro lleno") antes de llamar a 'crear'.
+        private final RegistroSoloAnadir<Pedido> historico = new RegistroSoloAnadir<>(Integer.MAX_VALUE);
 
         // Contador de pedidos por cliente.
         // ConcurrentHashMap → varios hilos pueden actualizar a la vez.
-        // value = AtomicInteger para poder incrementar de forma atómica.
-        private final Map<String, AtomicInteger> pedidosPorCliente = new ConcurrentHashMap<>();
-
-        // Random para asignar clientes "Cliente-0"..."Cliente-9"
-        private final Random random = new Random();
+        // value = LongAdder: con muchos hilos sumando al mismo cliente,
+        // cada hilo suma en su propia celda y no compiten por un único
+        // AtomicInteger (solo 10 clientes → mucha coincidencia).
+        private final Map<String, LongAdder> pedidosPorCliente = new ConcurrentHashMap<>();
+
+        // Nombres "Cliente-0"..."Cliente-9" creados una sola vez.
+        private static final String[] CLIENTES = new String[10];
+        static {
+            for (int i = 0; i < CLIENTES.length; i++) CLIENTES[i] = "Cliente-" + i;
+        }
 
         /**
          * Método principal del servicio: crea un nuevo pedido.
          * Este método es el que van a llamar los hilos.
          */
         public void registrarPedido() {
-            // 1. Generar un id único y secuencial
-            int id = generadorIds.incrementAndGet(); // 1,2,3,...
-
-            // 2. Elegir un cliente aleatorio del 0 al 9
-            String cliente = "Cliente-" + random.nextInt(10);
-
-            // 3. Obtener la fecha actual en ms
-            long fecha = System.currentTimeMillis();
+            // 1. Elegir un cliente aleatorio del 0 al 9
+            // ThreadLocalRandom: un generador por hilo. Un Random compartido
+            // es otro punto donde todos los hilos compiten (su semilla es un AtomicLong).
+            String cliente = CLIENTES[ThreadLocalRandom.current().nextInt(CLIENTES.length)];
 
-            // 4. Crear el pedido
-            Pedido pedido = new Pedido(id, cliente, fecha);
+            // 2. Generar un id único y secuencial, crear el pedido con la
+            //    fecha actual y guardarlo en el histórico, en un solo paso
+            historico.anadir(posicion -> new Pedido((int) (posicion + 1), cliente, System.currentTimeMillis()));
 
-            // 5. Guardar en el histórico
-            // Como ArrayList no es thread-safe, protegemos el add.
-            synchronized (historico) {
-                historico.add(pedido);
-            }
-
-            // 6. Actualizar el contador de pedidos por cliente
+            // 3. Actualizar el contador de pedidos por cliente
             // computeIfAbsent → si no existe el cliente, lo crea con contador 0
             pedidosPorCliente
-                    .computeIfAbsent(cliente, k -> new AtomicInteger(0))
-                    .incrementAndGet();
+                    .computeIfAbsent(cliente, k -> new LongAdder())
+                    .increment();
         }
 
-        // Devuelve copia del histórico (para leer al final).
+        // Devuelve el histórico publicado hasta ahora (para leer al final).
+        // Es una vista de solo lectura: no se copia la lista y desde fuera
+        // no se puede tocar la real.
         public List<Pedido> getHistorico() {
-            // devolvemos una copia para evitar que desde fuera se toque la lista real
-            synchronized (historico) {
-                return new ArrayList<>(historico);
-            }
+            return historico.vista();
         }
 
-        public Map<String, AtomicInteger> getPedidosPorCliente() {
+        public Map<String, LongAdder> getPedidosPorCliente() {
             return pedidosPorCliente;
         }
 
         public int getTotalPedidos() {
             // el total de pedidos es el tamaño del histórico
-            synchronized (historico) {
-                return historico.size();
-            }
+            return Math.toIntExact(historico.tamano());
         }
     }
 
@@ -244,8 +239,7 @@ public class GeneradorPedidosConcurrente {
         // 6.1 Listado completo de pedidos
         System.out.println("===== HISTÓRICO DE PEDIDOS =====");
         List<Pedido> listaPedidos = servicio.getHistorico();
-        // Orden natural ya será por id porque los generamos secuencialmente,
-        // pero si quisieras asegurar puedes ordenarlos aquí.
+        // Orden por id: el id es la posición en el histórico.
         for (Pedido p : listaPedidos) {
             System.out.println(p);
         }
@@ -257,9 +251,9 @@ public class GeneradorPedidosConcurrente {
         // 6.3 Listado de clientes con sus contadores
         System.out.println("\n===== PEDIDOS POR CLIENTE =====");
         int sumaPorClientes = 0;
-        for (Map.Entry<String, AtomicInteger> e : servicio.getPedidosPorCliente().entrySet()) {
+        for (Map.Entry<String, LongAdder> e : servicio.getPedidosPorCliente().entrySet()) {
             String cliente = e.getKey();
-            int cuenta = e.getValue().get();
+            int cuenta = e.getValue().intValue();
             System.out.println(cliente + " → " + cuenta + " pedidos");
             sumaPorClientes += cuenta;
         }
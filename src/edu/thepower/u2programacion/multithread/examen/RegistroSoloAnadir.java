@@ -0,0 +1,152 @@
+package edu.thepower.u2programacion.multithread.examen;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+
+/* ─────────────────────────────────────────────────────────
+   REGISTRO DE SOLO AÑADIR, SIN CANDADOS (lock-free)
+   Sustituye a "ArrayList + synchronized" en el histórico de pedidos.
+
+   Cómo se escribe:
+     1) Cada escritor RESERVA una posición con un único getAndIncrement
+        sobre el índice compartido (en x86 es una instrucción atómica que
+        nunca falla, a diferencia de un bucle de compareAndSet).
+     2) La posición cae en un SEGMENTO de tamaño fijo (array ya creado):
+        índice >>> BITS = segmento, índice & MASCARA = casilla.
+        Nunca se copia ni se redimensiona nada: los segmentos llenos se
+        quedan donde están y se cuelga uno nuevo en el DIRECTORIO.
+     3) Escribe el elemento en su casilla. Cada escritor tiene la suya:
+        no hay dos hilos escribiendo en el mismo sitio.
+
+   Cómo se lee:
+     - Una posición reservada puede estar aún vacía (su escritor no ha
+       llegado al paso 3). Los lectores solo ven el PREFIJO PUBLICADO:
+       las posiciones 0..publicados-1, todas ya escritas.
+     - 'publicados' lo adelanta cada escritor al terminar, saltando
+       también las casillas que otros dejaron escritas detrás de la suya
+       (si la suya era el hueco que les tapaba).
+     - vista() devuelve una List de SOLO LECTURA sobre ese prefijo, sin
+       copiar nada: mientras se recorre, los escritores siguen añadiendo
+       detrás.
+
+   Capacidad: 2^15 segmentos de 2^16 casillas (2^31 elementos), o
+   menos si se pide en el constructor. El directorio ocupa 256 KB y los
+   segmentos se crean al ir llegando. Con el registro lleno, anadir()
+   lanza IllegalStateException; 'reservados' sigue subiendo con cada
+   intento fallido, así que publicar() nunca pasa de la capacidad.
+   ───────────────────────────────────────────────────────── */
+class RegistroSoloAnadir<E> {
+
+    private static final int BITS = 16;
+    private static final int TAMANO_SEGMENTO = 1 << BITS;
+    private static final int MASCARA = TAMANO_SEGMENTO - 1;
+    private static final int MAX_SEGMENTOS = 1 << 15;
+    private static final long CAPACIDAD_MAXIMA = (long) MAX_SEGMENTOS * TAMANO_SEGMENTO;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<E>> directorio = new AtomicReferenceArray<>(MAX_SEGMENTOS);
+    private final AtomicLong reservados = new AtomicLong();
+    private final AtomicLong publicados = new AtomicLong();
+    private final long capacidad;
+
+    RegistroSoloAnadir() {
+        this(CAPACIDAD_MAXIMA);
+    }
+
+    RegistroSoloAnadir(long capacidad) {
+        if (capacidad < 1 || capacidad > CAPACIDAD_MAXIMA)
+            throw new IllegalArgumentException("capacidad fuera de [1, " + CAPACIDAD_MAXIMA + "]: " + capacidad);
+        this.capacidad = capacidad;
+        directorio.set(0, new AtomicReferenceArray<>(TAMANO_SEGMENTO));
+    }
+
+    /**
+     * Añade el elemento que crea 'crear' a partir de su posición (0, 1, 2...).
+     * Así la posición sirve de identificador secuencial sin un segundo contador,
+     * y el orden del registro es el orden de los identificadores.
+     * 'crear' no debe fallar ni devolver null: la posición ya está reservada
+     * y, vacía, pararía para siempre el prefijo publicado.
+     */
+    E anadir(LongFunction<E> crear) {
+        long i = reservados.getAndIncrement();
+        if (i >= capacidad) throw new IllegalStateException("Registro lleno");
+
+        int s = (int) (i >>> BITS);
+        if ((i & MASCARA) == 0 && s + 1 < MAX_SEGMENTOS) segmento(s + 1);   // prepara el siguiente
+
+        E e = crear.apply(i);
+        if (e == null) throw new NullPointerException("El registro no admite null");
+        segmento(s).set((int) (i & MASCARA), e);
+        publicar();
+        return e;
+    }
+
+    // Segmento s, creándolo si hace falta. Quien reserva la primera
+    // casilla de un segmento deja ya creado el siguiente, así que casi
+    // nunca llega un escritor a un segmento sin crear.
+    private AtomicReferenceArray<E> segmento(int s) {
+        AtomicReferenceArray<E> seg = directorio.get(s);
+        if (seg != null) return seg;
+        directorio.compareAndSet(s, null, new AtomicReferenceArray<>(TAMANO_SEGMENTO));   // si pierde, usa el del otro
+        return directorio.get(s);
+    }
+
+    // Adelanta 'publicados' mientras la siguiente casilla ya esté escrita.
+    // Las escrituras de casillas y las lecturas de aquí son volatile: de
+    // dos escritores que terminan a la vez, al menos uno ve la casilla del
+    // otro, así que nunca se queda una casilla escrita sin publicar.
+    // Las reservas por encima de la capacidad fallaron sin escribir nada:
+    // no se cuentan.
+    private void publicar() {
+        long p = publicados.get();
+        while (p < Math.min(reservados.get(), capacidad)) {
+            AtomicReferenceArray<E> seg = directorio.get((int) (p >>> BITS));
+            if (seg == null || seg.get((int) (p & MASCARA)) == null) return;   // hueco: lo publicará su escritor
+            if (publicados.compareAndSet(p, p + 1)) p++;
+            else p = publicados.get();
+        }
+    }
+
+    // Número de elementos publicados (todos legibles).
+    long tamano() {
+        return publicados.get();
+    }
+
+    E get(long i) {
+        if (i < 0 || i >= publicados.get()) throw new IndexOutOfBoundsException(i);
+        return directorio.get((int) (i >>> BITS)).get((int) (i & MASCARA));
+    }
+
+    /**
+     * Lista de solo lectura con los elementos publicados en este momento.
+     * No copia: lee directamente de los segmentos. Su tamaño no cambia
+     * aunque se sigan añadiendo elementos después.
+     */
+    List<E> vista() {
+        long n = publicados.get();
+        int tamano = (int) Math.min(n, Integer.MAX_VALUE);
+        return new Vista(tamano);
+    }
+
+    private final class Vista extends AbstractList<E> implements RandomAccess {
+        private final int tamano;
+
+        Vista(int tamano) {
+            this.tamano = tamano;
+        }
+
+        @Override
+        public E get(int i) {
+            if (i < 0 || i >= tamano) throw new IndexOutOfBoundsException(i);
+            return directorio.get(i >>> BITS).get(i & MASCARA);
+        }
+
+        @Override
+        public int size() {
+            return tamano;
+        }
+    }
+}
@@ -1,18 +1,9 @@
 package edu.thepower.u2programacion.multithread.practica.examen;
 
-class Stock {
-    int unidades;
-    Stock(int u){unidades=u;}
-    void quitar(int n){if(unidades>=n)unidades-=n;}
-    void poner(int n){unidades+=n;}
-    int get(){return unidades;}
-}
-
 public class Almacen1 {
-    static void mover(Stock o,Stock d,int n){
-        Stock p=o.hashCode()<d.hashCode()?o:d;
-        Stock s=o.hashCode()<d.hashCode()?d:o;
-        synchronized(p){ synchronized(s){ o.quitar(n); d.poner(n); } }
+    // Sin orden de candados: una transacción. Si no hay unidades no se pone nada en destino.
+    static boolean mover(Stock o,Stock d,int n){
+        return Stm.atomico(()->{ if(!o.quitar(n))return false; d.poner(n); return true; });
     }
 
     public static void main(String[] a)throws InterruptedException{
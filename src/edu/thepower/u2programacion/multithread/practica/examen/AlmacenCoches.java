@@ -0,0 +1,27 @@
+package edu.thepower.u2programacion.multithread.practica.examen;
+
+class AlmacenCoches {
+    // nº de coches en este almacén, en una referencia transaccional:
+    // solo se cambia dentro de Stm.atomico (ver Stm)
+    private final Stm.Ref<Integer> stock;
+
+    public AlmacenCoches(int stock) {
+        this.stock = new Stm.Ref<>(stock);
+    }
+
+    // devuelve si se han sacado (sin stock suficiente no saca nada)
+    public boolean sacar(int n) {
+        return Stm.atomico(() -> {
+            int s = stock.get();
+            if (s < n) return false;
+            stock.set(s - n);
+            return true;
+        });
+    }
+
+    public void meter(int n) {
+        Stm.atomico(() -> stock.set(stock.get() + n));
+    }
+
+    public int getStock() { return stock.get(); }
+}
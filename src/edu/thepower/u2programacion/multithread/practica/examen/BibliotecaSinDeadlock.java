@@ -1,41 +1,15 @@
 package edu.thepower.u2programacion.multithread.practica.examen;
 
-class LibroCompartido {
-    private int ejemplares;
-
-    public LibroCompartido(int ejemplares) {
-        this.ejemplares = ejemplares;
-    }
-
-    public void prestar(int n) {
-        if (ejemplares >= n) {
-            ejemplares -= n;
-        }
-    }
-
-    public void devolver(int n) {
-        ejemplares += n;
-    }
-
-    public int getEjemplares() {
-        return ejemplares;
-    }
-}
-
 public class BibliotecaSinDeadlock {
 
     // mover ejemplares de un libro a otro (p. ej. redistribución entre sucursales)
-    public static void mover(LibroCompartido origen, LibroCompartido destino, int n) {
-        // orden fijo → no deadlock
-        LibroCompartido primero = origen.hashCode() < destino.hashCode() ? origen : destino;
-        LibroCompartido segundo = origen.hashCode() < destino.hashCode() ? destino : origen;
-
-        synchronized (primero) {
-            synchronized (segundo) {
-                origen.prestar(n);     // o "quitar" de origen
-                destino.devolver(n);   // o "añadir" a destino
-            }
-        }
+    // transacción → sin candados ni orden fijo, y no hay deadlock posible
+    public static boolean mover(LibroCompartido origen, LibroCompartido destino, int n) {
+        return Stm.atomico(() -> {
+            if (!origen.prestar(n)) return false;   // o "quitar" de origen
+            destino.devolver(n);                     // o "añadir" a destino
+            return true;
+        });
     }
 
     public static void main(String[] args) throws InterruptedException {
@@ -1,18 +1,18 @@
 package edu.thepower.u2programacion.multithread.practica.examen;
 
+// Stock en una Stm.Ref: cada método es una transacción (o parte de la de fuera).
 class Almacen {
-    int stock;
-    Almacen(int s){stock=s;}
-    void sacar(int n){if(stock>=n)stock-=n;}
-    void meter(int n){stock+=n;}
-    int get(){return stock;}
+    final Stm.Ref<Integer> stock;
+    Almacen(int s){stock=new Stm.Ref<>(s);}
+    boolean sacar(int n){return Stm.atomico(()->{int s=stock.get(); if(s<n)return false; stock.set(s-n); return true;});}
+    void meter(int n){Stm.atomico(()->stock.set(stock.get()+n));}
+    int get(){return stock.get();}
 }
 
 public class Concesionario {
-    static void transferir(Almacen o,Almacen d,int n){
-        Almacen a=o.hashCode()<d.hashCode()?o:d;
-        Almacen b=o.hashCode()<d.hashCode()?d:o;
-        synchronized(a){ synchronized(b){ o.sacar(n); d.meter(n); } }
+    // Sin orden de candados: una transacción. Si no hay stock no se mete nada en destino.
+    static boolean transferir(Almacen o,Almacen d,int n){
+        return Stm.atomico(()->{ if(!o.sacar(n))return false; d.meter(n); return true; });
     }
 
     public static void main(String[] a)throws InterruptedException{
@@ -1,40 +1,19 @@
 package edu.thepower.u2programacion.multithread.practica.examen;
 
-
-class AlmacenCoches {
-    private int stock;   // nº de coches en este almacén
-
-    public AlmacenCoches(int stock) {
-        this.stock = stock;
-    }
-
-    public void sacar(int n) {
-        if (stock >= n) {
-            stock -= n;
-        }
-    }
-
-    public void meter(int n) {
-        stock += n;
-    }
-
-    public int getStock() { return stock; }
-}
-
 public class ConcesionarioSinDeadlock {
 
     // TRANSFERIR COCHES ENTRE DOS ALMACENES
-    public static void transferir(AlmacenCoches origen, AlmacenCoches destino, int unidades) {
-        // ordenar SIEMPRE igual para evitar deadlock
-        AlmacenCoches primero = origen.hashCode() < destino.hashCode() ? origen : destino;
-        AlmacenCoches segundo = origen.hashCode() < destino.hashCode() ? destino : origen;
-
-        synchronized (primero) {
-            synchronized (segundo) {
-                origen.sacar(unidades);
-                destino.meter(unidades);
-            }
-        }
+    // Es una transacción: no se coge ningún candado mientras se ejecuta,
+    // así que no hay que ordenar los almacenes (ordenar por hashCode
+    // además falla: no es único, y con dos iguales el orden se cruza).
+    // Si origen no tiene stock no se mete nada en destino.
+    // Se puede usar dentro de otra transacción más grande (ver InventarioTransaccional).
+    public static boolean transferir(AlmacenCoches origen, AlmacenCoches destino, int unidades) {
+        return Stm.atomico(() -> {
+            if (!origen.sacar(unidades)) return false;
+            destino.meter(unidades);
+            return true;
+        });
     }
 
     public static void main(String[] args) throws InterruptedException {
@@ -0,0 +1,188 @@
+package edu.thepower.u2programacion.multithread.practica.examen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// ────────────────────────────────────────────────────────────────
+// CLASE PRINCIPAL: InventarioTransaccional
+// Objetivo del programa (todo con Stm, sin un solo synchronized):
+//   1) COMPOSICIÓN: una ruta A → B → C son dos llamadas a
+//      ConcesionarioSinDeadlock.transferir dentro de UN Stm.atomico.
+//      Un lector que suma los tres almacenes en otra transacción nunca
+//      ve los coches "en B" a medias ni el total cambiado. Con candados
+//      habría que conocer y ordenar los tres almacenes por fuera.
+//      Se mezclan tipos: la misma transacción puede mover un
+//      LibroCompartido y un Stock a la vez.
+//   2) CARGA: operaciones de REPOSICIÓN (sacar 1 coche de cada uno de
+//      K almacenes al azar y llevarlos a un almacén central, que los
+//      reenvía a otro almacén; todo o nada) con cada vez MENOS centrales: más choques entre
+//      transacciones. Para cada caso: operaciones/s y reintentos por
+//      operación confirmada, separados por causa (Stm.Estadisticas).
+//   3) Al final de cada medición, la INVARIANTE: coches totales iguales.
+//
+// Qué se espera ver:
+//   - Con un solo núcleo apenas hay reintentos: una transacción solo
+//     choca si el planificador corta al hilo justo en medio.
+//   - Con varios núcleos, cuantos menos centrales más reintentos por
+//     "lectura" y "validación" (todas leen y escriben el mismo almacén).
+//     Aun así nadie espera con un candado cogido: lo peor es repetir.
+//
+// Uso: InventarioTransaccional [almacenes=1000] [hilos=max(4, 2·núcleos)] [K=4]
+// ────────────────────────────────────────────────────────────────
+public class InventarioTransaccional {
+
+    private static final long DURACION_MS = 1000;
+    private static final int STOCK_INICIAL = 1_000;
+    private static final int[] CENTRALES = {1000, 64, 8, 1};
+
+    private static volatile boolean parar;
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: COMPOSICIÓN DE TRANSACCIONES
+       ───────────────────────────────────────────────────────────── */
+    private static void composicion() throws InterruptedException {
+        AlmacenCoches a = new AlmacenCoches(500), b = new AlmacenCoches(0), c = new AlmacenCoches(500);
+        LibroCompartido libro1 = new LibroCompartido(300), libro2 = new LibroCompartido(300);
+        Stock piezas1 = new Stock(300), piezas2 = new Stock(300);
+        long[] lecturas = new long[2];   // {lecturas, incoherentes}
+        parar = false;
+
+        Thread ruta1 = new Thread(() -> {
+            for (int i = 0; i < 100_000; i++)
+                Stm.atomico(() -> {
+                    if (ConcesionarioSinDeadlock.transferir(a, b, 1)) ConcesionarioSinDeadlock.transferir(b, c, 1);
+                    // tipos distintos en la misma transacción
+                    if (BibliotecaSinDeadlock.mover(libro1, libro2, 1)) Almacen1.mover(piezas1, piezas2, 1);
+                });
+        });
+        Thread ruta2 = new Thread(() -> {
+            for (int i = 0; i < 100_000; i++)
+                Stm.atomico(() -> {
+                    if (ConcesionarioSinDeadlock.transferir(c, b, 1)) ConcesionarioSinDeadlock.transferir(b, a, 1);
+                    if (BibliotecaSinDeadlock.mover(libro2, libro1, 1)) Almacen1.mover(piezas2, piezas1, 1);
+                });
+        });
+        Thread lector = new Thread(() -> {
+            while (!parar) {
+                boolean coherente = Stm.atomico(() ->
+                        b.getStock() == 0 && a.getStock() + c.getStock() == 1000
+                                && libro1.getEjemplares() == piezas1.get());
+                lecturas[0]++;
+                if (!coherente) lecturas[1]++;
+            }
+        });
+
+        Stm.reiniciarEstadisticas();
+        lector.start();
+        ruta1.start();
+        ruta2.start();
+        ruta1.join();
+        ruta2.join();
+        parar = true;
+        lector.join();
+
+        System.out.printf("Composición: A=%d B=%d C=%d (total %d), libros %d/%d, piezas %d/%d%n",
+                a.getStock(), b.getStock(), c.getStock(), a.getStock() + b.getStock() + c.getStock(),
+                libro1.getEjemplares(), libro2.getEjemplares(), piezas1.get(), piezas2.get());
+        System.out.printf("  %d lecturas del lector, %d incoherentes%n", lecturas[0], lecturas[1]);
+        System.out.println("  " + Stm.estadisticas());
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: CARGA CON CONTENCIÓN CRECIENTE
+       ----------------------------------------------------------------
+       Cada operación saca 1 coche de K almacenes al azar y los lleva a
+       uno de los 'centrales' primeros almacenes, que los reenvía a otro
+       almacén al azar (si no, en poco tiempo todos los coches acabarían
+       en los centrales y casi todo se rechazaría). Si alguno no tiene
+       coches, se lanza SinStock: Stm descarta la transacción entera
+       (ningún almacén cambia) y deja salir la excepción.
+       ───────────────────────────────────────────────────────────── */
+    private static final class SinStock extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private SinStock() {
+            super("sin stock", null, false, false);
+        }
+    }
+
+    private static final SinStock SIN_STOCK = new SinStock();
+
+    private static long[] reponer(AlmacenCoches[] almacenes, int hilos, int k, int centrales) throws InterruptedException {
+        LongAdder hechas = new LongAdder(), rechazadas = new LongAdder();
+        List<Thread> trabajadores = new ArrayList<>();
+        parar = false;
+
+        for (int h = 0; h < hilos; h++) {
+            Thread t = new Thread(() -> {
+                ThreadLocalRandom r = ThreadLocalRandom.current();
+                int[] origenes = new int[k];
+                long ok = 0, ko = 0;
+                while (!parar) {
+                    AlmacenCoches central = almacenes[r.nextInt(centrales)];
+                    for (int i = 0; i < k; i++) origenes[i] = r.nextInt(almacenes.length);
+                    try {
+                        Stm.atomico(() -> {
+                            for (int o : origenes)
+                                if (!ConcesionarioSinDeadlock.transferir(almacenes[o], central, 1))
+                                    throw SIN_STOCK;   // descarta también los tramos ya hechos
+                            ConcesionarioSinDeadlock.transferir(central, almacenes[r.nextInt(almacenes.length)], k);
+                        });
+                        ok++;
+                    } catch (SinStock e) {
+                        ko++;
+                    }
+                }
+                hechas.add(ok);
+                rechazadas.add(ko);
+            }, "reponer-" + h);
+            trabajadores.add(t);
+            t.start();
+        }
+
+        Thread.sleep(DURACION_MS);
+        parar = true;
+        for (Thread t : trabajadores) t.join();
+        return new long[]{hechas.sum(), rechazadas.sum()};
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int hilos = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+        int k = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        composicion();
+        System.out.println();
+
+        AlmacenCoches[] almacenes = new AlmacenCoches[n];
+        for (int i = 0; i < n; i++) almacenes[i] = new AlmacenCoches(STOCK_INICIAL);
+        long esperado = (long) n * STOCK_INICIAL;
+
+        System.out.printf("%d almacenes, %d hilos, K=%d, %d ms por medición%n", n, hilos, k, DURACION_MS);
+        reponer(almacenes, hilos, k, n);   // calentamiento (JIT)
+        System.out.printf("%10s %12s %11s %12s %9s %9s %11s %8s%n", "centrales", "reposic./s", "sin stock",
+                "reint./conf", "lectura", "candado", "validación", "total");
+        for (int centrales : CENTRALES) {
+            int c = Math.min(centrales, n);
+            // se reparte otra vez el stock para que cada medición empiece igual
+            Stm.atomico(() -> { for (AlmacenCoches a : almacenes) a.meter(STOCK_INICIAL - a.getStock()); });
+            Stm.reiniciarEstadisticas();
+            long[] r = reponer(almacenes, hilos, k, c);
+            Stm.Estadisticas e = Stm.estadisticas();
+
+            long total = Stm.atomico(() -> {
+                long t = 0;
+                for (AlmacenCoches a : almacenes) t += a.getStock();
+                return t;
+            });
+            System.out.printf("%10d %12.0f %10.1f%% %12.3f %9d %9d %11d %8s%n", c, r[0] * 1000.0 / DURACION_MS,
+                    100.0 * r[1] / Math.max(1, r[0] + r[1]), e.reintentosPorConfirmada(), e.porLectura(),
+                    e.porCandado(), e.porValidacion(), total == esperado ? "OK" : "ERROR");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package edu.thepower.u2programacion.multithread.practica.examen;
+
+class LibroCompartido {
+    // ejemplares disponibles, en una referencia transaccional (ver Stm)
+    private final Stm.Ref<Integer> ejemplares;
+
+    public LibroCompartido(int ejemplares) {
+        this.ejemplares = new Stm.Ref<>(ejemplares);
+    }
+
+    // devuelve si se han prestado (si no hay bastantes no presta ninguno)
+    public boolean prestar(int n) {
+        return Stm.atomico(() -> {
+            int e = ejemplares.get();
+            if (e < n) return false;
+            ejemplares.set(e - n);
+            return true;
+        });
+    }
+
+    public void devolver(int n) {
+        Stm.atomico(() -> ejemplares.set(ejemplares.get() + n));
+    }
+
+    public int getEjemplares() {
+        return ejemplares.get();
+    }
+}
@@ -0,0 +1,255 @@
+package edu.thepower.u2programacion.multithread.practica.examen;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// ────────────────────────────────────────────────────────────────
+// MEMORIA TRANSACCIONAL POR SOFTWARE (STM), versión pequeña de TL2.
+//
+// En vez de bloquear los almacenes en un orden fijo (hashCode, id...),
+// cada operación se escribe como una TRANSACCIÓN:
+//
+//   Stm.atomico(() -> { origen.sacar(n); destino.meter(n); });
+//
+// - Los datos compartidos van en Stm.Ref. Dentro de la transacción las
+//   lecturas se comprueban y las escrituras se guardan aparte, sin tocar
+//   nada compartido.
+// - Al confirmar se bloquean SOLO las Ref escritas, con tryLock: si
+//   alguna está cogida, no se espera, se aborta y se reintenta. Como
+//   nadie espera con un candado cogido, el orden da igual y no hay
+//   deadlock.
+// - Se valida que nada de lo leído ha cambiado y se publican las
+//   escrituras con una versión nueva del RELOJ GLOBAL.
+// - Si otro hilo confirmó antes algo que leímos, se repite la
+//   transacción entera (por eso el cuerpo no debe tener efectos fuera
+//   de las Ref: imprimir, enviar... se harían varias veces).
+//
+// Las transacciones se COMPONEN: un atomico() dentro de otro forma
+// parte del de fuera. Dos transferencias que ya eran atómicas juntas en
+// un atomico() son una sola operación atómica, sin pensar en candados.
+//
+// Lecturas siempre coherentes (TL2): cada Ref leída tiene que tener una
+// versión <= la del reloj al empezar; si no, alguien la ha cambiado a
+// mitad de la transacción y se reintenta en ese momento. Así el cuerpo
+// nunca ve una mezcla de antes y después de otra transacción.
+// ────────────────────────────────────────────────────────────────
+final class Stm {
+
+    private Stm() { }
+
+    // Reloj global: cada confirmación con escrituras lo avanza en 1.
+    private static final AtomicLong RELOJ = new AtomicLong();
+
+    // Transacción en curso del hilo (null = fuera de transacción).
+    private static final ThreadLocal<Transaccion> ACTUAL = new ThreadLocal<>();
+
+    // Métricas (desde el arranque o desde reiniciarEstadisticas()). Solo
+    // cuentan las transacciones de atomico(): un Ref.get()/set() suelto
+    // también es una transacción, pero de un solo acceso, y contarla
+    // inflaría las confirmadas y rebajaría reintentosPorConfirmada().
+    private static final LongAdder CONFIRMADAS = new LongAdder();
+    private static final LongAdder POR_LECTURA = new LongAdder();
+    private static final LongAdder POR_CANDADO = new LongAdder();
+    private static final LongAdder POR_VALIDACION = new LongAdder();
+
+    record Estadisticas(long confirmadas, long porLectura, long porCandado, long porValidacion) {
+        long reintentos() {
+            return porLectura + porCandado + porValidacion;
+        }
+
+        double reintentosPorConfirmada() {
+            return confirmadas == 0 ? 0 : (double) reintentos() / confirmadas;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d confirmadas, %d reintentos (%.3f por confirmada: lectura %d, candado %d, validación %d)",
+                    confirmadas, reintentos(), reintentosPorConfirmada(), porLectura, porCandado, porValidacion);
+        }
+    }
+
+
+    // ────────────────────────────────────────────────────────────
+    // REFERENCIA TRANSACCIONAL
+    // 'meta' = versión << 1 | bit de candado. El valor solo se cambia
+    // con el candado cogido, y se publica al soltarlo con la versión nueva.
+    // ────────────────────────────────────────────────────────────
+    static final class Ref<T> {
+        private final AtomicLong meta = new AtomicLong();
+        private volatile T valor;
+
+        Ref(T inicial) {
+            this.valor = inicial;
+        }
+
+        // Dentro de una transacción se une a ella; fuera, es una transacción de
+        // una sola lectura/escritura, que no cuenta en las estadísticas.
+        T get() {
+            return ejecutar(() -> ACTUAL.get().leer(this), false);
+        }
+
+        void set(T nuevo) {
+            ejecutar(() -> {
+                ACTUAL.get().escribir(this, nuevo);
+                return null;
+            }, false);
+        }
+    }
+
+    // Señal interna para abortar y reintentar (sin traza: es control de flujo).
+    private static final class Conflicto extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private Conflicto() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final Conflicto CONFLICTO = new Conflicto();
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 1: UNA TRANSACCIÓN
+       ───────────────────────────────────────────────────────────── */
+    private static final class Transaccion {
+        private final long lectura = RELOJ.get();   // versión máxima que se puede leer
+        private final List<Ref<?>> leidas = new ArrayList<>();
+        private final Map<Ref<?>, Object> escritas = new IdentityHashMap<>();
+        private final boolean contar;               // false: acceso suelto, fuera de las métricas
+
+        Transaccion(boolean contar) {
+            this.contar = contar;
+        }
+
+        // Anota la causa (si cuenta) y devuelve la señal para abortar.
+        private Conflicto conflicto(LongAdder causa) {
+            if (contar) causa.increment();
+            return CONFLICTO;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T leer(Ref<T> ref) {
+            if (escritas.containsKey(ref)) return (T) escritas.get(ref);
+            long antes = ref.meta.get();
+            T valor = ref.valor;
+            long despues = ref.meta.get();
+            // Cogida, cambiada mientras leíamos o más nueva que el inicio → conflicto.
+            if (antes != despues || (antes & 1) != 0 || (antes >>> 1) > lectura) {
+                throw conflicto(POR_LECTURA);
+            }
+            leidas.add(ref);
+            return valor;
+        }
+
+        <T> void escribir(Ref<T> ref, T valor) {
+            escritas.put(ref, valor);
+        }
+
+        // Confirmar: tryLock de lo escrito, validar lo leído, publicar.
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        void confirmar() {
+            if (escritas.isEmpty()) return;   // solo lecturas: ya eran coherentes
+
+            List<Ref<?>> cogidas = new ArrayList<>(escritas.size());
+            try {
+                for (Ref<?> ref : escritas.keySet()) {
+                    long m = ref.meta.get();
+                    if ((m & 1) != 0 || !ref.meta.compareAndSet(m, m | 1)) {
+                        throw conflicto(POR_CANDADO);
+                    }
+                    cogidas.add(ref);
+                }
+
+                long version = RELOJ.incrementAndGet();
+                // Si nadie confirmó desde que empezamos, lo leído no puede haber cambiado.
+                if (version != lectura + 1) {
+                    for (Ref<?> ref : leidas) {
+                        long m = ref.meta.get();
+                        boolean nuestra = (m & 1) != 0 && escritas.containsKey(ref);
+                        if (((m & 1) != 0 && !nuestra) || (m >>> 1) > lectura) {
+                            throw conflicto(POR_VALIDACION);
+                        }
+                    }
+                }
+
+                for (Map.Entry<Ref<?>, Object> e : escritas.entrySet()) ((Ref) e.getKey()).valor = e.getValue();
+                for (Ref<?> ref : cogidas) ref.meta.set(version << 1);   // publica y suelta
+                cogidas.clear();
+            } finally {
+                // Abortada: se sueltan los candados sin cambiar la versión.
+                for (Ref<?> ref : cogidas) ref.meta.set(ref.meta.get() & ~1L);
+            }
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 2: EJECUTAR CON REINTENTOS
+       ----------------------------------------------------------------
+       Tras cada conflicto se espera un poco, más cuanto más reintentos
+       (con algo de azar para que dos transacciones que chocan no vuelvan
+       a chocar al reintentar a la vez).
+       Si el cuerpo lanza una excepción propia, la transacción se
+       descarta (no se escribe nada) y la excepción sale tal cual.
+       ───────────────────────────────────────────────────────────── */
+    static <T> T atomico(Supplier<T> cuerpo) {
+        return ejecutar(cuerpo, true);
+    }
+
+    private static <T> T ejecutar(Supplier<T> cuerpo, boolean contar) {
+        if (ACTUAL.get() != null) return cuerpo.get();   // anidada: forma parte de la de fuera
+
+        for (int intento = 0; ; intento++) {
+            Transaccion tx = new Transaccion(contar);
+            ACTUAL.set(tx);
+            try {
+                T resultado = cuerpo.get();
+                tx.confirmar();
+                if (contar) CONFIRMADAS.increment();
+                return resultado;
+            } catch (Conflicto c) {
+                esperar(intento);
+            } finally {
+                ACTUAL.remove();
+            }
+        }
+    }
+
+    static void atomico(Runnable cuerpo) {
+        atomico(() -> {
+            cuerpo.run();
+            return null;
+        });
+    }
+
+    private static void esperar(int intento) {
+        if (intento < 4) {
+            Thread.onSpinWait();
+        } else {
+            long maximo = 1_000L << Math.min(intento - 4, 10);   // 1 µs .. ~1 ms
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(maximo));
+        }
+    }
+
+
+    /* ─────────────────────────────────────────────────────────────
+       BLOQUE 3: MÉTRICAS
+       ───────────────────────────────────────────────────────────── */
+    static Estadisticas estadisticas() {
+        return new Estadisticas(CONFIRMADAS.sum(), POR_LECTURA.sum(), POR_CANDADO.sum(), POR_VALIDACION.sum());
+    }
+
+    static void reiniciarEstadisticas() {
+        CONFIRMADAS.reset();
+        POR_LECTURA.reset();
+        POR_CANDADO.reset();
+        POR_VALIDACION.reset();
+    }
+}
@@ -0,0 +1,10 @@
+package edu.thepower.u2programacion.multithread.practica.examen;
+
+// Unidades en una Stm.Ref: cada método es una transacción (o parte de la de fuera).
+class Stock {
+    final Stm.Ref<Integer> unidades;
+    Stock(int u){unidades=new Stm.Ref<>(u);}
+    boolean quitar(int n){return Stm.atomico(()->{int u=unidades.get(); if(u<n)return false; unidades.set(u-n); return true;});}
+    void poner(int n){Stm.atomico(()->unidades.set(unidades.get()+n));}
+    int get(){return unidades.get();}
+}